@@ -0,0 +1,20 @@
+package GeoModA.GeoTools;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+Start der Benchmarks aus dem benchmarks.jar. Die JMH-Optionen der Kommandozeile gelten wie
+gewohnt (z.B. Auswahl per regulärem Ausdruck, -p featureCount=1000, -rf json); die
+Allokationsmessung (-prof gc) ist immer eingeschaltet.
+*/
+public class BenchmarkStarter {
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,66 @@
+package GeoModA.GeoTools;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.locationtech.jts.geom.Geometry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+bufferedUnionGeometry über eine Ebene mit Gebäudeumrissen. Der ErgebnisCache ist in den
+Benchmarks nicht geöffnet und die Normalisierung der Ebene wird vor jedem Aufruf verworfen,
+jede Messung rechnet Normalisierung und Vereinigung vollständig.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BufferedUnionGeometryBenchmark {
+	@Param({"1000", "10000", "100000"})
+	public int featureCount;
+	@Param({"1", "5", "25"})
+	public double bufferRadius;
+
+	private SpaltenLayer flaechen;
+	private PrintStream console;
+
+	@Setup(Level.Trial)
+	public void prepare() {
+		console = Testdaten.ruhig();
+		flaechen = Testdaten.flaechen("Flaechen", featureCount);
+	}
+
+	@Setup(Level.Invocation)
+	public void clearNormalisierung() {
+		Normalisierung.clear();
+	}
+
+	@Benchmark
+	public Geometry bufferedUnionGeometry() throws Exception {
+		return Analyse.bufferedUnionGeometry(flaechen, bufferRadius);
+	}
+
+	@Benchmark
+	public Geometry bufferedUnionGeometryFiltered() throws Exception {
+		return Analyse.bufferedUnionGeometry(flaechen, bufferRadius, Testdaten.TURM_FILTER);
+	}
+
+	@TearDown(Level.Trial)
+	public void restore() {
+		System.setOut(console);
+	}
+}
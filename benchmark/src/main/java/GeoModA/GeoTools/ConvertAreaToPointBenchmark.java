@@ -0,0 +1,60 @@
+package GeoModA.GeoTools;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.locationtech.jts.geom.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+convertAreaToPoint von einer Ebene mit Gebäudeumrissen in eine Punktebene im Arbeitsspeicher.
+Die Zielebene wächst mit jedem Aufruf und wird daher vor jedem Aufruf neu angelegt.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConvertAreaToPointBenchmark {
+	@Param({"1000", "10000", "100000"})
+	public int featureCount;
+
+	private SpaltenLayer flaechen;
+	private SpaltenLayer punkte;
+	private PrintStream console;
+
+	@Setup(Level.Trial)
+	public void prepare() {
+		console = Testdaten.ruhig();
+		flaechen = Testdaten.flaechen("Flaechen", featureCount);
+	}
+
+	@Setup(Level.Invocation)
+	public void target() {
+		punkte = SpaltenLayer.create(Testdaten.osmSchema("Punkte", Point.class), "Punkte");
+	}
+
+	@Benchmark
+	public int convertAreaToPoint() throws Exception {
+		Analyse.convertAreaToPoint(flaechen, punkte);
+		return punkte.rows();
+	}
+
+	@TearDown(Level.Trial)
+	public void restore() {
+		System.setOut(console);
+	}
+}
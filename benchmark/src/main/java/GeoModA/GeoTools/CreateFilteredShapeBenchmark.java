@@ -0,0 +1,65 @@
+package GeoModA.GeoTools;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+Semantische Harmonisierung einer OSM-Shapedatei (Gebäudeumrisse, etwa ein Viertel passt auf den
+Turm-Filter): createFilteredShape mit Ausgabe als Shapedatei und createFilteredLayers mit
+Ausgabe in den Arbeitsspeicher. Quelle und Ausgaben liegen in einem temporären Verzeichnis.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateFilteredShapeBenchmark {
+	@Param({"1000", "10000", "100000"})
+	public int featureCount;
+
+	private File dir;
+	private SimpleFeatureSource quelle;
+	private PrintStream console;
+
+	@Setup(Level.Trial)
+	public void prepare() throws Exception {
+		console = Testdaten.ruhig();
+		dir = Testdaten.tempDir();
+		quelle = Testdaten.shape(Testdaten.flaechen("OSM_polygon", featureCount), dir);
+	}
+
+	@Benchmark
+	public void createFilteredShape() throws Exception {
+		Analyse.createFilteredShape(quelle, Testdaten.TURM_FILTER, "Turm", new File(dir, "Turm_F.shp").getPath(), false);
+	}
+
+	@Benchmark
+	public Map<String, SpaltenLayer> createFilteredLayers() throws Exception {
+		return Analyse.createFilteredLayers(quelle, new String[]{Testdaten.TURM_FILTER}, new String[]{"Turm"}, new String[]{"Turm_F"}, false);
+	}
+
+	@TearDown(Level.Trial)
+	public void restore() {
+		quelle.getDataStore().dispose();
+		Testdaten.delete(dir);
+		System.setOut(console);
+	}
+}
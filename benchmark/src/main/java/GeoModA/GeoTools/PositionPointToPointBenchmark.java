@@ -0,0 +1,56 @@
+package GeoModA.GeoTools;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+positionPointToPoint zwischen zwei Punktebenen gleicher Größe; die zweite Ebene enthält
+dieselben Lagen, jeweils um bis zu VERSATZ m verschoben.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PositionPointToPointBenchmark {
+	@Param({"1000", "10000", "100000"})
+	public int featureCount;
+	@Param({"1", "5", "25"})
+	public double bufferRadius;
+
+	private SpaltenLayer atkis;
+	private SpaltenLayer osm;
+	private PrintStream console;
+
+	@Setup(Level.Trial)
+	public void prepare() {
+		console = Testdaten.ruhig();
+		atkis = Testdaten.punkte("ATKIS", featureCount, 0);
+		osm = Testdaten.punkte("OSM", featureCount, Testdaten.VERSATZ);
+	}
+
+	@Benchmark
+	public double[] positionPointToPoint() throws Exception {
+		return Analyse.positionPointToPoint(atkis, osm, new double[]{bufferRadius});
+	}
+
+	@TearDown(Level.Trial)
+	public void restore() {
+		System.setOut(console);
+	}
+}
@@ -0,0 +1,60 @@
+package GeoModA.GeoTools;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+removeDuplicatePoints auf einer Punktebene im Arbeitsspeicher. Die Methode löscht in der Ebene,
+daher wird vor jedem Aufruf eine frische Ebene erzeugt (nicht mitgemessen).
+Jede Lage ist doppelt vorhanden (Testdaten.dubletten).
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RemoveDuplicatePointsBenchmark {
+	@Param({"1000", "10000", "100000"})
+	public int featureCount;
+	@Param({"1", "5", "25"})
+	public double bufferRadius;
+
+	private SpaltenLayer layer;
+	private PrintStream console;
+
+	@Setup(Level.Trial)
+	public void quiet() {
+		console = Testdaten.ruhig();
+	}
+
+	@Setup(Level.Invocation)
+	public void prepare() {
+		layer = Testdaten.dubletten("Punkte", featureCount);
+	}
+
+	@Benchmark
+	public int removeDuplicatePoints() throws Exception {
+		Analyse.removeDuplicatePoints(layer, bufferRadius);
+		return layer.getFeatures().size();
+	}
+
+	@TearDown(Level.Trial)
+	public void restore() {
+		System.setOut(console);
+	}
+}
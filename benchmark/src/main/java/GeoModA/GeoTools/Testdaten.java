@@ -0,0 +1,148 @@
+package GeoModA.GeoTools;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/*
+Erzeugte Eingangsdaten für die Benchmarks, reproduzierbar über einen festen Startwert.
+Die Objekte liegen gleichverteilt in einem Quadrat, dessen Fläche mit der Anzahl wächst
+(konstante Dichte von einem Objekt je DICHTE m²), damit sich die Nachbarschaften bei
+1.000 und 100.000 Objekten gleichen. Zweite Datensätze (z.B. OSM zu ATKIS) entstehen aus
+denselben Lagen mit einer Verschiebung von bis zu VERSATZ m.
+Die Sachdaten folgen dem OSM-Schema; die Klassenwerte (man_made etc.) sind so verteilt,
+dass etwa ein Viertel der Objekte auf den Turm-Filter passt.
+*/
+class Testdaten {
+	static final double DICHTE = 2500.0;
+	static final double VERSATZ = 2.0;
+	static final String TURM_FILTER = "man_made='tower' or man_made='water_tower' or man_made='communications_tower' or man_made='chimney' or building='transformer_tower' or historic='tower'";
+	private static final String[] MAN_MADE = {"tower", "chimney", "silo", "storage_tank", "", "", "", ""};
+	private static final String[] AMENITY = {"", "", "", "fountain", "school", ""};
+	private static final GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+
+	// ## OSM-Schema mit dem Geometrietyp binding ##
+	static SimpleFeatureType osmSchema(String name, Class<? extends Geometry> binding) {
+		SimpleFeatureTypeBuilder stb = new SimpleFeatureTypeBuilder();
+		stb.setName(name);
+		stb.setCRS(DefaultGeographicCRS.WGS84);
+		stb.add("the_geom", binding);
+		stb.add("osm_id", String.class);
+		stb.add("name", String.class);
+		stb.add("man_made", String.class);
+		stb.add("building", String.class);
+		stb.add("historic", String.class);
+		stb.add("amenity", String.class);
+		stb.add("boundary", String.class);
+		return stb.buildFeatureType();
+	}
+
+	// ## n Punkte; versatz > 0 verschiebt jede Lage zufällig um bis zu versatz m ##
+	static SpaltenLayer punkte(String name, int n, double versatz) {
+		SpaltenLayer layer = SpaltenLayer.create(osmSchema(name, Point.class), name);
+		double[] xy = lagen(n);
+		Random random = new Random(7);
+		for (int i=0;i<n;i++) {
+			double x = xy[2 * i] + versatz * (2 * random.nextDouble() - 1);
+			double y = xy[2 * i + 1] + versatz * (2 * random.nextDouble() - 1);
+			layer.write(Arrays.asList(geometryFactory.createPoint(new Coordinate(x, y)), "p" + i, null,
+					MAN_MADE[i % MAN_MADE.length], "", "", AMENITY[i % AMENITY.length], ""));
+		}
+		return layer;
+	}
+
+	// ## n Punkte, je zwei zu einer Lage: das Original und eine um bis zu VERSATZ m verschobene Kopie ##
+	static SpaltenLayer dubletten(String name, int n) {
+		SpaltenLayer layer = SpaltenLayer.create(osmSchema(name, Point.class), name);
+		double[] xy = lagen((n + 1) / 2);
+		Random random = new Random(13);
+		for (int i=0;i<n;i++) {
+			double versatz = (i % 2 == 0) ? 0 : VERSATZ;
+			double x = xy[2 * (i / 2)] + versatz * (2 * random.nextDouble() - 1);
+			double y = xy[2 * (i / 2) + 1] + versatz * (2 * random.nextDouble() - 1);
+			layer.write(Arrays.asList(geometryFactory.createPoint(new Coordinate(x, y)), "p" + i, null,
+					MAN_MADE[i % MAN_MADE.length], "", "", AMENITY[i % AMENITY.length], ""));
+		}
+		return layer;
+	}
+
+	// ## n Gebäudeumrisse (Rechtecke mit 5 bis 30 m Kantenlänge) als MultiPolygon ##
+	static SpaltenLayer flaechen(String name, int n) {
+		SpaltenLayer layer = SpaltenLayer.create(osmSchema(name, MultiPolygon.class), name);
+		double[] xy = lagen(n);
+		Random random = new Random(11);
+		for (int i=0;i<n;i++) {
+			double w = 5 + 25 * random.nextDouble();
+			double h = 5 + 25 * random.nextDouble();
+			double x = xy[2 * i];
+			double y = xy[2 * i + 1];
+			Polygon polygon = geometryFactory.createPolygon(new Coordinate[]{
+					new Coordinate(x, y), new Coordinate(x + w, y), new Coordinate(x + w, y + h),
+					new Coordinate(x, y + h), new Coordinate(x, y)});
+			layer.write(Arrays.asList(geometryFactory.createMultiPolygon(new Polygon[]{polygon}), "f" + i, null,
+					MAN_MADE[i % MAN_MADE.length], "", "", AMENITY[i % AMENITY.length], ""));
+		}
+		return layer;
+	}
+
+	// Gleichverteilte Lagen (x, y abwechselnd) in einem Quadrat mit n * DICHTE m²
+	private static double[] lagen(int n) {
+		double side = Math.sqrt(n * DICHTE);
+		Random random = new Random(42);
+		double[] xy = new double[2 * n];
+		for (int i=0;i<xy.length;i++) {
+			xy[i] = side * random.nextDouble();
+		}
+		return xy;
+	}
+
+	// ## Ebene als Shapedatei in ein temporäres Verzeichnis schreiben und wie im Hauptprogramm öffnen ##
+	static SimpleFeatureSource shape(SpaltenLayer layer, File dir) throws Exception {
+		String path = new File(dir, layer.getSchema().getTypeName() + ".shp").getPath();
+		layer.writeShape(path);
+		return Analyse.openShape(path);
+	}
+
+	static File tempDir() throws Exception {
+		return Files.createTempDirectory("geomoda-benchmark").toFile();
+	}
+
+	static void delete(File dir) {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	// ## Konsolenausgaben der Analyse-Methoden während der Messung unterdrücken ##
+	static PrintStream ruhig() {
+		PrintStream console = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+		}));
+		return console;
+	}
+}
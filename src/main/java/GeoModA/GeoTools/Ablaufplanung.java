@@ -0,0 +1,351 @@
+package GeoModA.GeoTools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.locationtech.jts.geom.Geometry;
+
+/*
+Ablaufplanung eines Analyselaufs aus einer Konfiguration als Abhängigkeitsgraph:
+ 1. Aufteilung: jede Quelldatei wird genau einmal gelesen und auf die Klassenebenen im
+    Arbeitsspeicher aller Klassen verteilt, die sie verwenden (createFilteredLayers)
+ 2. Konfusionsmatrix sie02_f / OSM Landuse (einmal, unabhängig von der Aufteilung)
+ 3. Klassenanalysen: jede Klasse startet, sobald die Aufteilungen ihrer Quellen (und bei
+    Flächenklassen die Konfusionsmatrix) fertig sind
+ 4. Messwerte je Stufe und Klasse nach temp/messung.json und temp/messung.prom (Messung)
+Unabhängig davon laufen wie im Programmablauf ohne Konfiguration vorab die Ebenenprofile (profil)
+und Konsistenzprüfungen (konsistenz) sowie am Ende der Gebäudevergleich (gebaeude.atkis/.osm).
+Die Klassenebenen werden zwischen den Schritten direkt übergeben; mit ausgabe.shapes = true
+schreibt jede Klassenanalyse ihre Ebenen am Ende zusätzlich nach temp/<Ebene>.shp. Danach
+werden sie freigegeben.
+Alle Schritte laufen auf einem Pool mit config.threads Threads. Jeder Schritt schreibt seine
+Ergebnisse in einen eigenen PrintStream, der erst nach dessen Ende gesammelt ausgegeben wird;
+Meldungen der Hilfsklassen (ErgebnisCache, Praezision, ShapeLeser) erscheinen sofort über System.out.
+*/
+public class Ablaufplanung {
+	private final Konfiguration config;
+	private final String temp;
+	private final PrintStream console;
+	private final ExecutorService pool;
+	private final Map<String, CompletableFuture<Void>> aufteilungen = new LinkedHashMap<>();
+	// Klassenebenen aus der Aufteilung, Schlüssel = Ebenenname (z.B. "AX_Turm_P")
+	private final Map<String, SpaltenLayer> ebenen = new ConcurrentHashMap<>();
+	private CompletableFuture<KonfusionsMatrix> konfusion;
+
+	// Alle Klassen, die eine Quelldatei verwenden
+	private static class Aufteilung {
+		final boolean isAtkis;
+		final List<String> filter = new ArrayList<>();
+		final List<String> klassen = new ArrayList<>();
+		final List<String> ebenen = new ArrayList<>();
+		Aufteilung(boolean isAtkis) {
+			this.isAtkis = isAtkis;
+		}
+	}
+
+	private Ablaufplanung(Konfiguration config, PrintStream console) {
+		this.config = config;
+		this.temp = config.path + "temp/";
+		this.console = console;
+		this.pool = Executors.newFixedThreadPool(config.threads);
+	}
+
+	// ## Ausführung aller Schritte, Rückkehr wenn alle Klassen fertig sind ##
+	static void run(Konfiguration config) throws Exception {
+		PrintStream console = System.out;
+		ErgebnisCache.open(config.path + "cache/", config.cacheMB << 20);
+		Praezision.gridSize = config.praezision;
+		RasterUeberdeckung.cellSize = config.raster;
+		StichprobenSchaetzung.targetError = config.stichprobeFehler;
+		StichprobenSchaetzung.timeBudget = config.stichprobeSekunden;
+		Ablaufplanung plan = new Ablaufplanung(config, console);
+		long start = System.currentTimeMillis();
+		try {
+			plan.schedule();
+		} finally {
+			plan.pool.shutdown();
+			ShapeLeser.releaseAll();
+			Messung.write(plan.temp + "messung.json", plan.temp + "messung.prom");
+		}
+		console.print("Gesamtdauer: " + (System.currentTimeMillis() - start) / 1000.0 + " s\n");
+	}
+
+	private void schedule() throws Exception {
+		// Alle Schritte mit eigenem Ergebnis, Schlüssel = Name in der Fehlermeldung
+		Map<String, CompletableFuture<?>> jobs = new LinkedHashMap<>();
+		for (String quelle : config.profil) {
+			jobs.put("Ebenenprofil " + quelle, CompletableFuture.runAsync(() -> step("Ebenenprofil " + quelle, out -> {
+				LayerProfil.scan(Analyse.openShape(config.path + quelle)).print(out);
+				return null;
+			}), pool));
+		}
+		for (String quelle : config.konsistenz) {
+			jobs.put("Konsistenzprüfung " + quelle, CompletableFuture.runAsync(() -> step("Konsistenzprüfung " + quelle, out -> {
+				new File(temp).mkdirs();
+				String datei = new File(quelle).getName().replaceFirst("(?i)\\.shp$", "");
+				KonsistenzPruefung.check(out, Analyse.openShape(config.path + quelle), temp + "Defekte_" + datei + ".csv");
+				return null;
+			}), pool));
+		}
+
+		Map<String, Aufteilung> quellen = new LinkedHashMap<>();
+		for (Konfiguration.Klasse k : config.klassen) {
+			for (int i=0;i<Konfiguration.EBENEN.length;i++) {
+				add(quellen, k.atkisQuellen[i], true, k.atkisFilter, k.atkisKlasse, k.name + Konfiguration.ENDUNGEN[i]);
+				add(quellen, k.osmQuellen[i], false, k.osmFilter, k.osmKlasse, k.osmKlasse + Konfiguration.ENDUNGEN[i]);
+			}
+		}
+
+		for (Map.Entry<String, Aufteilung> entry : quellen.entrySet()) {
+			String quelle = entry.getKey();
+			Aufteilung a = entry.getValue();
+			aufteilungen.put(quelle, CompletableFuture.runAsync(() -> step("Aufteilung " + quelle, out -> {
+				ebenen.putAll(Analyse.createFilteredLayers(Analyse.openShape(config.path + quelle), a.filter.toArray(new String[0]),
+						a.klassen.toArray(new String[0]), a.ebenen.toArray(new String[0]), a.isAtkis));
+				return null;
+			}), pool));
+		}
+
+		if (config.konfusionAtkis != null && config.konfusionOsm != null) {
+			konfusion = CompletableFuture.supplyAsync(() -> step("Konfusionsmatrix", out -> {
+				KonfusionsMatrix matrix;
+				try (Messung messung = Messung.start(Messung.OVERLAY, "Konfusionsmatrix")) {
+					SimpleFeatureSource atkis = Analyse.openShape(config.path + config.konfusionAtkis);
+					SimpleFeatureSource osm = Analyse.openShape(config.path + config.konfusionOsm);
+					messung.read(atkis);
+					messung.read(osm);
+					matrix = KonfusionsMatrix.compute(atkis, config.konfusionAtkisAttribut, osm, config.konfusionOsmAttribut);
+				}
+				matrix.print(out, new DecimalFormat("#0.0000"));
+				return matrix;
+			}), pool);
+		} else {
+			konfusion = CompletableFuture.completedFuture(null);
+		}
+
+		for (Konfiguration.Klasse k : config.klassen) {
+			List<CompletableFuture<?>> abhaengig = new ArrayList<>();
+			for (int i=0;i<Konfiguration.EBENEN.length;i++) {
+				if (k.atkisQuellen[i] != null) {abhaengig.add(aufteilungen.get(k.atkisQuellen[i]));}
+				if (k.osmQuellen[i] != null) {abhaengig.add(aufteilungen.get(k.osmQuellen[i]));}
+			}
+			if (!k.isPunkt()) {
+				abhaengig.add(konfusion);
+			}
+			jobs.put(k.name, CompletableFuture.allOf(abhaengig.toArray(new CompletableFuture<?>[0]))
+					.thenRunAsync(() -> step(k.name, out -> {
+						try {
+							if (k.isPunkt()) {punktAnalyse(k, out);} else {flaechenAnalyse(k, konfusion.join(), out);}
+						} finally {
+							freigeben(k);
+						}
+						return null;
+					}), pool));
+		}
+
+		if (config.gebaeudeAtkis != null && config.gebaeudeOsm != null) {
+			jobs.put("Gebaeude", CompletableFuture.runAsync(() -> step("Gebaeude", out -> {
+				Analyse.compareBuildings(out, Analyse.openShape(config.path + config.gebaeudeAtkis), Analyse.openShape(config.path + config.gebaeudeOsm),
+						config.gebaeudeAdressfilter, config.gebaeudeBuffer, config.gebaeudeKachel);
+				return null;
+			}), pool));
+		}
+
+		List<String> fehler = new ArrayList<>();
+		for (Map.Entry<String, CompletableFuture<?>> job : jobs.entrySet()) {
+			try {
+				job.getValue().join();
+			} catch (CompletionException e) {
+				fehler.add(job.getKey() + ": " + e.getCause());
+			}
+		}
+		if (!fehler.isEmpty()) {
+			throw new Exception("Fehlgeschlagene Schritte: " + fehler);
+		}
+	}
+
+	private void add(Map<String, Aufteilung> quellen, String quelle, boolean isAtkis, String filter, String klasse, String ebene) throws IOException {
+		if (quelle == null) {
+			return;
+		}
+		Aufteilung a = quellen.get(quelle);
+		if (a == null) {
+			a = new Aufteilung(isAtkis);
+			quellen.put(quelle, a);
+		} else if (a.isAtkis != isAtkis) {
+			throw new IOException("Quelle " + quelle + " ist gleichzeitig als ATKIS- und als OSM-Quelle eingetragen");
+		}
+		a.filter.add(filter);
+		a.klassen.add(klasse);
+		a.ebenen.add(ebene);
+	}
+
+	// Klassenebene aus der Aufteilung
+	private SpaltenLayer ebene(String name) throws IOException {
+		SpaltenLayer layer = ebenen.get(name);
+		if (layer == null) {
+			throw new IOException("Klassenebene " + name + " fehlt");
+		}
+		return layer;
+	}
+
+	// Ebenen einer fertigen Klasse optional als Shapedateien schreiben und freigeben
+	private void freigeben(Konfiguration.Klasse k) throws IOException {
+		for (int i=0;i<Konfiguration.EBENEN.length;i++) {
+			for (String name : new String[] {k.name + Konfiguration.ENDUNGEN[i], k.osmKlasse + Konfiguration.ENDUNGEN[i]}) {
+				SpaltenLayer layer = ebenen.remove(name);
+				if (layer != null && config.ausgabeShapes) {
+					new File(temp).mkdirs();
+					layer.writeShape(temp + name + ".shp");
+				}
+			}
+		}
+	}
+
+	// ## Punktklasse: Schwerpunkte, Duplikatfilter, Punktzuordnung ##
+	private void punktAnalyse(Konfiguration.Klasse k, PrintStream out) throws Exception {
+		SimpleFeatureSource fs_atkis_p = ebene(k.name + "_P");
+		SimpleFeatureSource fs_osm_p = ebene(k.osmKlasse + "_P");
+		for (int i=1;i<Konfiguration.EBENEN.length;i++) {
+			if (k.atkisQuellen[i] != null) {
+				Analyse.convertAreaToPoint(out, ebene(k.name + Konfiguration.ENDUNGEN[i]), fs_atkis_p, k.innerpunkt);
+			}
+			if (k.osmQuellen[i] != null) {
+				Analyse.convertAreaToPoint(out, ebene(k.osmKlasse + Konfiguration.ENDUNGEN[i]), fs_osm_p, k.innerpunkt);
+			}
+		}
+
+		//Punkte aus dem gleichen Datensatz in Buffer löschen
+		for (double r : k.atkisDuplikatRadien) {
+			Analyse.removeDuplicatePoints(out, fs_atkis_p, r);
+		}
+		for (double r : k.osmDuplikatRadien) {
+			Analyse.removeDuplicatePoints(out, fs_osm_p, r);
+		}
+
+		out.print("Anzahl " + k.osmKlasse + "-Objekt ATKIS: " + Analyse.countFeatures(fs_atkis_p) + "\n");
+		out.print("Anzahl " + k.osmKlasse + "-Objekt OSM: " + Analyse.countFeatures(fs_osm_p) + "\n");
+
+		double[] distances = Analyse.positionPointToPoint(out, fs_atkis_p, fs_osm_p, k.radien);
+		Analyse.printDistanceHistogram(out, distances, 1.0, 21);
+	}
+
+	// ## Flächenklasse: intrinsische Überdeckung, Verschneidung, Pufferstaffel, thematische Genauigkeit ##
+	private void flaechenAnalyse(Konfiguration.Klasse k, KonfusionsMatrix matrix, PrintStream out) throws Exception {
+		final DecimalFormat df = new DecimalFormat("#0.0000");
+		String name = k.osmKlasse;
+		SimpleFeatureSource fs_atkis_f = ebene(k.name + "_F");
+		SimpleFeatureSource fs_osm_f = ebene(k.osmKlasse + "_F");
+
+		if (StichprobenSchaetzung.isActive()) {
+			stichprobenAnalyse(k, fs_atkis_f, fs_osm_f, matrix, out);
+			return;
+		}
+		double totalarea_atkis = Analyse.calculateArea(fs_atkis_f);
+		double totalarea_osm = Analyse.calculateArea(fs_osm_f);
+		if (RasterUeberdeckung.isActive()) {
+			rasterAnalyse(k, fs_atkis_f, fs_osm_f, totalarea_atkis, totalarea_osm, matrix, out);
+			return;
+		}
+		Geometry union_atkis = Analyse.bufferedUnionGeometry(fs_atkis_f, 0.0);
+		Geometry union_osm = Analyse.bufferedUnionGeometry(fs_osm_f, 0.0);
+
+		//Überdeckung im eigenen Datensatz
+		out.print("Gesamtsumme Einzelflächen: " + df.format(totalarea_atkis) + "\n");
+		out.print("Fläche Gesamtgeometrie: " + df.format(union_atkis.getArea()) + "\n");
+		out.print("Flächenunterschied intrinsisch in ATKIS-" + name + ": " + df.format(totalarea_atkis - union_atkis.getArea()) + "\n");
+		out.print("Gesamtsumme Einzelflächen: " + df.format(totalarea_osm) + "\n");
+		out.print("Fläche Gesamtgeometrie: " + df.format(union_osm.getArea()) + "\n");
+		out.print("Flächenunterschied intrinsisch in OSM-" + name + ": " + df.format(totalarea_osm - union_osm.getArea()) + "\n");
+
+		//Flächenvergleiche
+		out.print("Gesamtfläche ATKIS-" + name + ": " + df.format(union_atkis.getArea()) + "\n");
+		out.print("Gesamtfläche OSM-" + name + ": " + df.format(union_osm.getArea()) + "\n");
+		double overlap;
+		try (Messung messung = Messung.start(Messung.OVERLAY, name)) {
+			overlap = union_atkis.intersection(union_osm).getArea();
+			messung.features(union_atkis.getNumGeometries() + union_osm.getNumGeometries());
+		}
+		out.print("Überschneidungsfläche " + name + ": " + df.format(overlap) + "\n");
+		if (k.radien.length > 0) {
+			Analyse.printBufferedIntersectionAreas(out, name, union_atkis, union_osm, k.radien);
+		}
+
+		thematischeGenauigkeit(k, matrix, out);
+	}
+
+	//Thematische Genauigkeit
+	private void thematischeGenauigkeit(Konfiguration.Klasse k, KonfusionsMatrix matrix, PrintStream out) {
+		if (matrix != null && k.thematischAusschluss.length > 0) {
+			DecimalFormat df = new DecimalFormat("#0.0000");
+			double[] row = matrix.rowExcluding(k.atkisKlasse, k.thematischAusschluss);
+			out.print("Überschneidungsfläche ATKIS-" + k.osmKlasse + " mit OSM-Nicht-" + k.osmKlasse + ": "
+					+ df.format(row[0]) + (RasterUeberdeckung.isActive() ? " ± " + df.format(row[1]) : "") + "\n");
+		}
+	}
+
+	// Näherung über RasterUeberdeckung statt Union und Vektorverschneidung, Werte mit Fehlerschranke
+	private void rasterAnalyse(Konfiguration.Klasse k, SimpleFeatureSource fs_atkis_f, SimpleFeatureSource fs_osm_f,
+			double totalarea_atkis, double totalarea_osm, KonfusionsMatrix matrix, PrintStream out) throws Exception {
+		String name = k.osmKlasse;
+		List<Geometry> atkis = Normalisierung.of(fs_atkis_f).validGeometries();
+		List<Geometry> osm = Normalisierung.of(fs_osm_f).validGeometries();
+		RasterUeberdeckung.Ergebnis raster;
+		try (Messung messung = Messung.start(Messung.OVERLAY, name)) {
+			raster = RasterUeberdeckung.overlay(atkis, osm, k.radien);
+			messung.features(atkis.size() + osm.size());
+		}
+		raster.print(out, name, totalarea_atkis, totalarea_osm);
+		thematischeGenauigkeit(k, matrix, out);
+	}
+
+	// Schätzung über Zufallspunkte (StichprobenSchaetzung), Werte mit Konfidenzintervall
+	private void stichprobenAnalyse(Konfiguration.Klasse k, SimpleFeatureSource fs_atkis_f, SimpleFeatureSource fs_osm_f,
+			KonfusionsMatrix matrix, PrintStream out) throws Exception {
+		String name = k.osmKlasse;
+		List<Geometry> atkis = Normalisierung.of(fs_atkis_f).validGeometries();
+		List<Geometry> osm = Normalisierung.of(fs_osm_f).validGeometries();
+		StichprobenSchaetzung.Ergebnis schaetzung;
+		try (Messung messung = Messung.start(Messung.OVERLAY, name)) {
+			schaetzung = StichprobenSchaetzung.estimate(atkis, osm, k.radien);
+			messung.features(schaetzung.samples);
+		}
+		schaetzung.print(out, name);
+		thematischeGenauigkeit(k, matrix, out);
+	}
+
+	private interface Schritt<T> {
+		T call(PrintStream out) throws Exception;
+	}
+
+	// Ausführung mit eigener, gepufferter Ausgabe, die nach Ende des Schritts am Stück erscheint
+	private <T> T step(String name, Schritt<T> schritt) {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		PrintStream out = new PrintStream(buffer);
+		long start = System.currentTimeMillis();
+		try {
+			return schritt.call(out);
+		} catch (Exception e) {
+			throw new CompletionException(e);
+		} finally {
+			out.flush();
+			synchronized (console) {
+				console.print("### " + name + " (" + (System.currentTimeMillis() - start) / 1000.0 + " s) ###\n");
+				console.print(buffer.toString());
+			}
+		}
+	}
+}
@@ -19,39 +19,34 @@ package GeoModA.GeoTools;
 
 import java.awt.Color;
 import java.io.File;
+import java.io.PrintStream;
 import java.io.PrintWriter;
-import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import org.geotools.data.DataUtilities;
 import org.geotools.data.DefaultTransaction;
 import org.geotools.data.FileDataStore;
 import org.geotools.data.FileDataStoreFinder;
 import org.geotools.data.Transaction;
-import org.geotools.data.collection.ListFeatureCollection;
-import org.geotools.data.collection.SpatialIndexFeatureCollection;
 import org.geotools.data.collection.SpatialIndexFeatureSource;
-import org.geotools.data.shapefile.ShapefileDataStore;
-import org.geotools.data.shapefile.ShapefileDataStoreFactory;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureIterator;
 import org.geotools.data.simple.SimpleFeatureSource;
 import org.geotools.data.simple.SimpleFeatureStore;
 import org.geotools.factory.CommonFactoryFinder;
-import org.geotools.feature.DefaultFeatureCollection;
 import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
 import org.geotools.filter.text.cql2.CQL;
 import org.geotools.filter.visitor.SimplifyingFilterVisitor;
 import org.geotools.geometry.jts.GeometryBuilder;
-import org.geotools.geometry.jts.JTSFactoryFinder;
 import org.geotools.map.FeatureLayer;
 import org.geotools.map.Layer;
 import org.geotools.map.MapContent;
@@ -63,23 +58,95 @@ import org.locationtech.jts.geom.CoordinateList;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.GeometryFactory;
-import org.locationtech.jts.geom.LineString;
-import org.locationtech.jts.geom.LinearRing;
-import org.locationtech.jts.geom.MultiLineString;
-import org.locationtech.jts.geom.MultiPolygon;
-import org.locationtech.jts.geom.Point;
-import org.locationtech.jts.geom.Polygon;
-import org.locationtech.jts.operation.union.UnaryUnionOp;
+import org.locationtech.jts.geom.Polygonal;
+import org.locationtech.jts.index.strtree.GeometryItemDistance;
+import org.locationtech.jts.index.strtree.STRtree;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.filter.Filter;
 import org.opengis.filter.FilterFactory;
-import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.identity.FeatureId;
 
 public class Analyse {
+	// ## Öffnen einer Shapedatei; die Quelle wird beim ValiditaetsCache angemeldet ##
+	static SimpleFeatureSource openShape(String path) throws Exception {
+		File file = new File(path);
+		SimpleFeatureSource fs = FileDataStoreFinder.getDataStore(file).getFeatureSource();
+		ValiditaetsCache.register(fs, file);
+		return fs;
+	}
+	
 	// ## Semantische Harmonisierung: Ausgabe einer neuen Shapedatei pro Attributklasse 
 	static void createFilteredShape(SimpleFeatureSource fs, String toFilter, String attribute, String path, Boolean isAtkis) throws Exception {
-		
+		createFilteredShapes(fs, new String[]{toFilter}, new String[]{attribute}, new String[]{path}, isAtkis);
+	}
+	
+	// ## Semantische Harmonisierung in einem Durchlauf: Die Quelle wird nur einmal gelesen, jedes Objekt
+	// ## wird über den TagKlassifikator allen passenden Klassen-Shapedateien zugeordnet
+	static void createFilteredShapes(SimpleFeatureSource fs, String[] toFilter, String[] attribute, String[] path, Boolean isAtkis) throws Exception {
+		SimpleFeatureType sft = harmonisedFeatureType(fs, isAtkis);
+	    
+	    // Streamende Ausgabe: Speicherbedarf unabhängig von der Klassengröße
+	    ShapeSchreiber[] writers = new ShapeSchreiber[toFilter.length];
+	    try {
+	    	for (int k=0;k<toFilter.length;k++) {
+	    		writers[k] = new ShapeSchreiber(sft, path[k]);
+	    	}
+	    	classify(fs, toFilter, attribute, sft, writers, isAtkis);
+	    } finally {
+	        for (ShapeSchreiber writer : writers) {
+	        	if (writer != null) {
+	        		writer.close();
+	        	}
+	        }
+	    }
+	}
+	
+	// ## Wie createFilteredShapes, Ausgabe als Ebenen im Arbeitsspeicher (Schlüssel = Ebenenname) ##
+	static Map<String, SpaltenLayer> createFilteredLayers(SimpleFeatureSource fs, String[] toFilter, String[] attribute, String[] names, Boolean isAtkis) throws Exception {
+		SimpleFeatureType sft = harmonisedFeatureType(fs, isAtkis);
+		SpaltenLayer[] layers = new SpaltenLayer[toFilter.length];
+		Map<String, SpaltenLayer> result = new LinkedHashMap<>();
+		for (int k=0;k<toFilter.length;k++) {
+			layers[k] = SpaltenLayer.create(sft, names[k]);
+			result.put(names[k], layers[k]);
+		}
+		classify(fs, toFilter, attribute, sft, layers, isAtkis);
+		// Herkunft für den ErgebnisCache: jede Ebene hängt nur von der Quelle und ihrem eigenen Filter ab
+		String quelle = ErgebnisCache.identity(fs, true);
+		if (quelle != null) {
+			for (int k=0;k<toFilter.length;k++) {
+				layers[k].setHerkunft(quelle + "|" + (isAtkis ? "ATKIS" : "OSM") + "|" + toFilter[k] + "|" + attribute[k]);
+			}
+		}
+		return result;
+	}
+	
+	private static void classify(SimpleFeatureSource fs, String[] toFilter, String[] attribute, SimpleFeatureType sft, Objektziel[] targets, Boolean isAtkis) throws Exception {
+	    SimpleFeatureBuilder sfb = new SimpleFeatureBuilder(sft);
+	    
+	    TagKlassifikator classifier = new TagKlassifikator();
+	    for (int k=0;k<toFilter.length;k++) {
+	    	classifier.addClass(attribute[k], toFilter[k]);
+	    }
+	    
+	    BitSet hits = new BitSet(toFilter.length);
+	    try (Messung messung = Messung.start(Messung.FILTER, fs);
+	    		SimpleFeatureIterator it = fs.getFeatures().features()) {
+	    	messung.read(fs);
+	        while (it.hasNext()) {
+	            SimpleFeature sf = it.next();
+	            classifier.classify(sf, hits);
+	            for (int k=hits.nextSetBit(0);k>=0;k=hits.nextSetBit(k+1)) {
+	            	targets[k].write(harmonisedFeature(sfb, sf, attribute[k], isAtkis));
+	            }
+	            messung.features(1);
+	        }
+	    }
+	}
+	
+	// Zielschema der harmonisierten Klassen-Shapedateien
+	static SimpleFeatureType harmonisedFeatureType(SimpleFeatureSource fs, Boolean isAtkis) {
 		SimpleFeatureTypeBuilder stb = new SimpleFeatureTypeBuilder();
 		
 		if (isAtkis)
@@ -101,367 +168,459 @@ public class Analyse {
 		}
 
 	    stb.add("Objektart", String.class);
-	    SimpleFeatureType sft = stb.buildFeatureType();
-	    SimpleFeatureBuilder sfb = new SimpleFeatureBuilder(sft);
-	    
-	    SimpleFeatureIterator it = fs.getFeatures(CQL.toFilter(toFilter)).features();
-	    DefaultFeatureCollection collection = new DefaultFeatureCollection();
-	    if (isAtkis)
-	    {
-	    	try {
-		        while (it.hasNext()) {
-		            SimpleFeature sf = it.next();
-		            sfb.add(String.valueOf(sf.getAttribute("the_geom")));
-		            sfb.add(String.valueOf(sf.getAttribute("OBJID").toString()));
-		            sfb.add(String.valueOf(sf.getAttribute("OBJART").toString()));
-		            sfb.add(String.valueOf(sf.getAttribute("OBJART_TXT").toString()));
-		            sfb.add(String.valueOf(sf.getAttribute("BEGINN").toString()));
-		            sfb.add(String.valueOf(sf.getAttribute("ENDE")).toString());
-		            sfb.add(String.valueOf(sf.getAttribute("NAM")).toString());
-		            sfb.add(String.valueOf(attribute));
-		            collection.add(sfb.buildFeature(null));
-		        }
-		    } finally {
-		        it.close();
-		    }
-	    }
-	    else
-	    {
-	    	try {
-		        while (it.hasNext()) {
-		            SimpleFeature sf = it.next();
-		            sfb.addAll(sf.getAttributes());
-		            sfb.add(String.valueOf(attribute));
-		            collection.add(sfb.buildFeature(null));
-		        }
-		    } finally {
-		        it.close();
-		    }
-	    }    
-	    
-	    
-	    File file = new File(path);
-	
-	    ShapefileDataStoreFactory dataStoreFactory = new ShapefileDataStoreFactory();
-	
-	    Map<String, Serializable> params = new HashMap<String, Serializable>();
-	    params.put("url", file.toURI().toURL());
-	    params.put("create spatial index", Boolean.TRUE);
+	    return stb.buildFeatureType();
+	}
 	
-	    ShapefileDataStore newDataStore = (ShapefileDataStore) dataStoreFactory.createNewDataStore(params);
-	    newDataStore.createSchema(sft);
+	static SimpleFeature harmonisedFeature(SimpleFeatureBuilder sfb, SimpleFeature sf, String attribute, Boolean isAtkis) {
+		if (isAtkis)
+		{
+            sfb.add(String.valueOf(sf.getAttribute("the_geom")));
+            sfb.add(String.valueOf(sf.getAttribute("OBJID").toString()));
+            sfb.add(String.valueOf(sf.getAttribute("OBJART").toString()));
+            sfb.add(String.valueOf(sf.getAttribute("OBJART_TXT").toString()));
+            sfb.add(String.valueOf(sf.getAttribute("BEGINN").toString()));
+            sfb.add(String.valueOf(sf.getAttribute("ENDE")).toString());
+            sfb.add(String.valueOf(sf.getAttribute("NAM")).toString());
+		}
+		else
+		{
+            sfb.addAll(sf.getAttributes());
+		}
+        sfb.add(String.valueOf(attribute));
+        return sfb.buildFeature(null);
+	}
 	
-	    Transaction transaction = new DefaultTransaction("create");
+	// Pfade der Klassen-Shapedateien: dir + Name + Endung (z.B. "_P.shp")
+	static String[] shapePaths(String dir, String[] names, String suffix) {
+		String[] paths = new String[names.length];
+		for (int i=0;i<names.length;i++) {
+			paths[i] = dir + names[i] + suffix;
+		}
+		return paths;
+	}
 	
-	    String typeName = newDataStore.getTypeNames()[0];
-	    SimpleFeatureSource newFeatureSource = newDataStore.getFeatureSource(typeName);
+	// ## Schwerpunktreduzierung ##
+	static void convertAreaToPoint(SimpleFeatureSource fs_area, SimpleFeatureSource fs_p) throws Exception {
+		convertAreaToPoint(fs_area, fs_p, false);
+	}
+	// interiorPoint: innerer Punkt statt Schwerpunkt (liegt auch bei konkaven Flächen immer in der Fläche)
+	// Lesen, Berechnen und Schreiben laufen überlappend (SchwerpunktPipeline)
+	static void convertAreaToPoint(SimpleFeatureSource fs_area, SimpleFeatureSource fs_p, boolean interiorPoint) throws Exception {
+		convertAreaToPoint(System.out, fs_area, fs_p, interiorPoint);
+	}
+	static void convertAreaToPoint(PrintStream out, SimpleFeatureSource fs_area, SimpleFeatureSource fs_p, boolean interiorPoint) throws Exception {
+		try (Messung messung = Messung.start(Messung.CENTROID, fs_area)) {
+			messung.read(fs_area);
+			SchwerpunktPipeline.Block result = SchwerpunktPipeline.run(fs_area, fs_p, interiorPoint);
+			messung.features(result.read);
+			out.print("Anzahl der konvertierten Objekte von " + fs_area.getSchema().getName() + " nach " + fs_p.getSchema().getName() + ": " + result.converted + "\n");
+		}
+	}
 	
-	    if (newFeatureSource instanceof SimpleFeatureStore) {
-	        SimpleFeatureStore featureStore = (SimpleFeatureStore) newFeatureSource;
+	// Punktobjekt mit den Sachdaten von sf; null, wenn die Geometrie nicht einfach ist oder keine Fläche ergibt
+	// Konvertierung OSM: MultiLineString zu (Schwer)Punkt, Konvertierung ATKIS: MultiPolygon zu (Schwer)Punkt
+	// Liegt die Normalisierung der Quelle bereits vor (normalisierung != null), wird sie verwendet, sonst wird normalisiert
+	static SimpleFeature areaToPoint(SimpleFeatureBuilder build, SimpleFeature sf, GeometryFactory geometryFactory, boolean interiorPoint, Normalisierung normalisierung) {
+		Geometry polygon;
+		if (normalisierung != null && normalisierung.contains(sf.getID())) {
+			if (!normalisierung.isSimple(sf.getID())) {
+				return null;
+			}
+			polygon = normalisierung.geometry(sf.getID());
+		} else {
+			Geometry defaultGeom = (Geometry) sf.getDefaultGeometry();
+			if (defaultGeom == null || !defaultGeom.isSimple()) {
+				return null;
+			}
+			polygon = Normalisierung.canonical(defaultGeom, geometryFactory);
+		}
+		if (!(polygon instanceof Polygonal)) {
+			return null;
+		}
+		Object obj[] = new Object[sf.getAttributeCount()];
+		obj[0] = interiorPoint ? polygon.getInteriorPoint() : polygon.getCentroid();
+		for (int i=1;i<obj.length;i++) {
+			obj[i] = sf.getAttribute(i);
+		}
+		return build.buildFeature(null, obj);
+	}
+	// Sachdaten ohne Geometrie (Shapedatei, Geometrie dort an erster Stelle), shape aus dem ShapeLeser:
+	// bereits berechneter Schwerpunkt (Coordinate) oder die Geometrie des Satzes, null ohne Geometrie
+	static SimpleFeature areaToPoint(SimpleFeatureBuilder build, SimpleFeature attributes, Object shape, GeometryFactory geometryFactory) {
+		Geometry point;
+		if (shape instanceof Coordinate) {
+			point = geometryFactory.createPoint((Coordinate) shape);
+		} else {
+			Geometry geom = (Geometry) shape;
+			if (geom == null || !geom.isSimple()) {
+				return null;
+			}
+			Geometry polygon = Normalisierung.canonical(geom, geometryFactory);
+			if (!(polygon instanceof Polygonal)) {
+				return null;
+			}
+			point = polygon.getCentroid();
+		}
+		Object obj[] = new Object[attributes.getAttributeCount() + 1];
+		obj[0] = point;
+		for (int i=1;i<obj.length;i++) {
+			obj[i] = attributes.getAttribute(i - 1);
+		}
+		return build.buildFeature(null, obj);
+	}
 	
-	        featureStore.setTransaction(transaction);
+	// ## Filterung von Punkte, die sich auf das gleiche Real-Objekt beziehen ##
+	// Gitterindex mit Zellgröße = Radius: mögliche Nachbarn liegen nur in den 3x3 umliegenden Zellen
+	// und werden über den Punktabstand statt über Bufferpolygone geprüft. Gelöscht wird in einem Schritt.
+	static void removeDuplicatePoints(SimpleFeatureSource fs, double bufferRadius) throws Exception {
+		removeDuplicatePoints(System.out, fs, bufferRadius);
+	}
+	static void removeDuplicatePoints(PrintStream out, SimpleFeatureSource fs, double bufferRadius) throws Exception {
+		try (Messung messung = Messung.start(Messung.DEDUPE, fs)) {
+			messung.read(fs);
+			messung.features(removeDuplicates(out, fs, bufferRadius));
+		}
+	}
+	// Rückgabe: Anzahl geprüfter Punkte
+	private static int removeDuplicates(PrintStream out, SimpleFeatureSource fs, double bufferRadius) throws Exception {
+		List<String> ids = new ArrayList<>();
+		List<Coordinate> coords = new ArrayList<>();
+		if (fs instanceof SpaltenLayer) {
+			// Koordinaten direkt aus den Spalten, ohne SimpleFeatures zu erzeugen
+			SpaltenLayer layer = (SpaltenLayer) fs;
+			for (int row=0;row<layer.rows();row++) {
+				if (!layer.isRemoved(row) && !layer.isEmpty(row)) {
+					ids.add(layer.getID(row));
+					coords.add(new Coordinate(layer.getX(row), layer.getY(row)));
+				}
+			}
+		} else {
+			SimpleFeatureCollection fc = fs.getFeatures();
+	        try (SimpleFeatureIterator features = fc.features()) {
+	            while (features.hasNext()) {
+	            	SimpleFeature feature = features.next();
+	            	Geometry geom = (Geometry) feature.getDefaultGeometry();
+	            	if (geom != null && !geom.isEmpty()) {
+	            		ids.add(feature.getID());
+	            		coords.add(geom.getCoordinate());
+	            	}
+	          	}
+	        }
+		}
+        
+        double cellSize = bufferRadius > 0.0 ? bufferRadius : 1.0;
+        Map<Long, List<Integer>> grid = new HashMap<>();
+        for (int i=0;i<coords.size();i++) {
+        	Coordinate c = coords.get(i);
+        	Long key = gridKey((long) Math.floor(c.x / cellSize), (long) Math.floor(c.y / cellSize));
+        	List<Integer> cell = grid.get(key);
+        	if (cell == null) {
+        		cell = new ArrayList<>();
+        		grid.put(key, cell);
+        	}
+        	cell.add(i);
+        }
+        
+        // Punkte werden in Lesereihenfolge behalten, alle noch nicht gelöschten Punkte im Radius werden gelöscht
+        boolean[] removed = new boolean[coords.size()];
+        FilterFactory ff = CommonFactoryFinder.getFilterFactory();
+        Set<FeatureId> duplicates = new HashSet<>();
+        double radius2 = bufferRadius * bufferRadius;
+        for (int i=0;i<coords.size();i++) {
+        	if (removed[i]) {continue;}
+        	Coordinate c = coords.get(i);
+        	long cx = (long) Math.floor(c.x / cellSize);
+        	long cy = (long) Math.floor(c.y / cellSize);
+        	for (long x=cx-1;x<=cx+1;x++) {
+        		for (long y=cy-1;y<=cy+1;y++) {
+        			List<Integer> cell = grid.get(gridKey(x, y));
+        			if (cell == null) {continue;}
+        			for (int j : cell) {
+        				if (j != i && !removed[j]) {
+        					Coordinate c2 = coords.get(j);
+        					double dx = c.x - c2.x;
+        					double dy = c.y - c2.y;
+        					if (dx*dx + dy*dy <= radius2) {
+        						removed[j] = true;
+        						duplicates.add(ff.featureId(ids.get(j)));
+        					}
+        				}
+        			}
+        		}
+        	}
+        }
+        
+        if (fs instanceof SpaltenLayer) {
+        	((SpaltenLayer) fs).remove(duplicates);
+        } else if (!duplicates.isEmpty()) {
+        	SimpleFeatureStore store = (SimpleFeatureStore) fs;
+        	ShapeLeser.release(ValiditaetsCache.shapeFile(fs));
+	        Transaction transaction = new DefaultTransaction("Remove Duplicates");
+	        store.setTransaction(transaction);
 	        try {
-	            featureStore.addFeatures(collection);
+	            store.removeFeatures(ff.id(duplicates));
 	            transaction.commit();
-	
 	        } catch (Exception problem) {
 	            problem.printStackTrace();
 	            transaction.rollback();
-	
 	        } finally {
 	            transaction.close();
+	            store.setTransaction(Transaction.AUTO_COMMIT);
 	        }
-	    } else {
-	        System.out.println(typeName + " does not support read/write access");
-	        System.exit(1);
-	    }
+        }
+        out.print("Gelöschte (doppelte) Punkte in " + fs.getSchema().getName() + ": " + duplicates.size() + "\n");
+        return coords.size();
+	}
+	private static Long gridKey(long x, long y) {
+		return (x << 32) ^ (y & 0xffffffffL);
 	}
 	
-	// ## Schwerpunktreduzierung ##
-	static void convertAreaToPoint(SimpleFeatureSource fs_area, SimpleFeatureSource fs_p) throws Exception {
-		// Konvertierung OSM: MultiLineString zu (Schwer)Punkt & Speichern in Punktshape
-		// Konvertierung ATKIS: MultiPolygon zu (Schwer)Punkt & Speichern in Punktshape
-        SimpleFeatureStore store = (SimpleFeatureStore) fs_p;
-        SimpleFeatureBuilder build = new SimpleFeatureBuilder(store.getSchema());
-        GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
-        int n = 0;
+	// ## Punktzuordnung: Abstand jedes Punkts aus fs2 zum nächsten Objekt aus fs1 (STR-Baum), ##
+	// ## ausgewertet für beliebig viele Radien in einem Durchlauf ohne Buffer- und Union-Geometrien ##
+	static double[] positionPointToPoint(SimpleFeatureSource fs1, SimpleFeatureSource fs2, double[] bufferRadius) throws Exception {
+		return positionPointToPoint(System.out, fs1, fs2, bufferRadius);
+	}
+	static double[] positionPointToPoint(PrintStream out, SimpleFeatureSource fs1, SimpleFeatureSource fs2, double[] bufferRadius) throws Exception {
+		double[] distances;
+		try (Messung messung = Messung.start(Messung.MATCH, fs1.getSchema().getTypeName() + "/" + fs2.getSchema().getTypeName())) {
+			messung.read(fs1);
+			messung.read(fs2);
+			distances = nearestDistances(fs1, fs2);
+			messung.features(distances.length);
+		}
+		for (double radius : bufferRadius) {
+			int n = countWithin(distances, radius);
+	        out.print("Passende Punkte bei " + radius + " m Radius zwischen " + fs1.getSchema().getName() + " und " + fs2.getSchema().getName() + ": " + n + "\n");
+		}
+		return distances;
+	}
+	static void positionPointToPoint(SimpleFeatureSource fs1, SimpleFeatureSource fs2, double bufferRadius) throws Exception {
+		positionPointToPoint(fs1, fs2, new double[]{bufferRadius});
+	}
+	
+	// Aufsteigend sortierte Abstände aller Objekte aus fs2 zum jeweils nächsten Objekt aus fs1, Objekte ohne Geometrie zählen nicht
+	static double[] nearestDistances(SimpleFeatureSource fs1, SimpleFeatureSource fs2) throws Exception {
+		STRtree tree = new STRtree();
+        try (SimpleFeatureIterator features = fs1.getFeatures().features()) {
+            while (features.hasNext()) {
+            	Geometry geom = (Geometry) features.next().getDefaultGeometry();
+            	if (geom != null && !geom.isEmpty()) {
+            		tree.insert(geom.getEnvelopeInternal(), geom);
+            	}
+          	}
+        }
         
-        List<SimpleFeature> list = new ArrayList<>();
-        SimpleFeatureCollection fc = fs_area.getFeatures();
-        try (SimpleFeatureIterator features = fc.features()) {
+        List<Double> list = new ArrayList<>();
+        GeometryItemDistance itemDistance = new GeometryItemDistance();
+        try (SimpleFeatureIterator features = fs2.getFeatures().features()) {
             while (features.hasNext()) {
-            	SimpleFeature sf = features.next();
-            	Polygon polygon = null;
-            	
-            	Geometry defaultGeom = (Geometry) sf.getDefaultGeometry();
-            	if (defaultGeom.isSimple()) {
-	            	if (defaultGeom instanceof MultiPolygon) {
-	            		polygon = (Polygon) defaultGeom.getGeometryN(0);
-	            	} else if (defaultGeom instanceof MultiLineString) {
-		            	LineString line = (LineString) defaultGeom.getGeometryN(0);
-		            	if (line.isClosed()) {
-		            		LinearRing ring = geometryFactory.createLinearRing(line.getCoordinateSequence());
-			            	polygon = geometryFactory.createPolygon(ring);
-		            	}
-	            	}
+            	Geometry geom = (Geometry) features.next().getDefaultGeometry();
+            	if (geom == null || geom.isEmpty()) {
+            		continue;
             	}
-            	
-            	if (polygon != null) {
-	            	Object obj[] = new Object[sf.getAttributeCount()];
-	            	obj[0] = polygon.getCentroid();
-	            	for (int i=1;i<obj.length;i++) {
-	            		obj[i] = sf.getAttribute(i);
-	            	}
-	            	list.add(build.buildFeature(null, obj));
-	            	n++;
+            	if (tree.size() == 0) {
+            		list.add(Double.POSITIVE_INFINITY);
+            	} else {
+            		Geometry nearest = (Geometry) tree.nearestNeighbour(geom.getEnvelopeInternal(), geom, itemDistance);
+            		list.add(nearest.distance(geom));
             	}
-            }
+          	}
         }
-        SimpleFeatureCollection collection = new ListFeatureCollection(store.getSchema(), list);
-
-        Transaction transaction = new DefaultTransaction("Add Features");
-        store.setTransaction(transaction);
-        try {
-            store.addFeatures(collection);
-            transaction.commit();
-        } catch (Exception eek) {
-            transaction.rollback();
+        
+        double[] distances = new double[list.size()];
+        for (int i=0;i<distances.length;i++) {
+        	distances[i] = list.get(i);
         }
-        System.out.print("Anzahl der konvertierten Objekte von " + fs_area.getSchema().getName() + " nach " + fs_p.getSchema().getName() + ": " + n + "\n");
+        Arrays.sort(distances);
+        return distances;
 	}
 	
-	// ## Filterung von Punkte, die sich auf das gleiche Real-Objekt beziehen ##
-	static void removeDuplicatePoints(SimpleFeatureSource fs, double bufferRadius) throws Exception {
-		SimpleFeatureCollection fc = fs.getFeatures();
-        try (SimpleFeatureIterator features = fc.features()) {
-        	int n = 0;
-            while (features.hasNext()) {
-            	SimpleFeature feature = features.next();
-            	Geometry geom = (Geometry) feature.getDefaultGeometry();
-            	Geometry buffer = geom.buffer(bufferRadius);
-                try (SimpleFeatureIterator features2 = fc.features()) {
-                    while (features2.hasNext()) {
-                    	SimpleFeature feature2 = features2.next();
-                    	if (!feature.getID().toString().equals(feature2.getID().toString())) {
-                    		Geometry geom2 = (Geometry) feature2.getDefaultGeometry();
-                    		if (buffer.intersects(geom2)) {
-                    			SimpleFeatureStore store = (SimpleFeatureStore) fs;
-                    	        FilterFactory ff = CommonFactoryFinder.getFilterFactory();
-                    	        Filter filter = ff.id(Collections.singleton(ff.featureId(feature2.getID())));
-                    			store.removeFeatures(filter);
-                    			n++;
-                    		}
-                    	}
-                  	}
-                }
-          	}
-            System.out.print("Gelöschte (doppelte) Punkte in " + fs.getSchema().getName() + ": " + n + "\n");
-        }
+	// Anzahl der Abstände <= radius in einem sortierten Abstandsfeld
+	static int countWithin(double[] distances, double radius) {
+		int low = 0;
+		int high = distances.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (distances[mid] <= radius) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
 	}
 	
-	// ## Punktzuordnung: Buffern von fs1, Verschneidung mit Punktdatensatz fs2 ##
-	static void positionPointToPoint(SimpleFeatureSource fs1, SimpleFeatureSource fs2, double bufferRadius) throws Exception {
-		SimpleFeatureCollection fc = fs1.getFeatures();
-		Polygon[] polygons = new Polygon[fc.size()];
-		int i = 0;
-        try (SimpleFeatureIterator features = fc.features()) {
-            while (features.hasNext()) {
-            	SimpleFeature feature = features.next();
-            	Geometry geom = (Geometry) feature.getDefaultGeometry();
-            	Polygon buffer = (Polygon) geom.buffer(bufferRadius);
-            	polygons[i] = buffer;
-            	i++;
-          	}
-        }
-		Collection<Geometry> collection = Arrays.asList(polygons);
-        UnaryUnionOp geomUnion = new UnaryUnionOp(collection);
-        Geometry combined = geomUnion.union();
-
-		SimpleFeatureCollection fc2 = fs2.getFeatures();
-		
-        int n = 0;
-        try (SimpleFeatureIterator features = fc2.features()) {
-            while (features.hasNext()) {
-            	SimpleFeature feature = features.next();
-            	Geometry geom = (Geometry) feature.getDefaultGeometry();
-        		if (geom.intersects(combined)) {
-        			n++;
-        		}
-          	}
-        }
-        System.out.print("Passende Punkte bei " + bufferRadius + " m Radius zwischen " + fs1.getSchema().getName() + " und " + fs2.getSchema().getName() + ": " + n + "\n");
+	// ## Abstandshistogramm: Klassen der Breite binWidth, die letzte Klasse enthält alle größeren Abstände ##
+	static int[] distanceHistogram(double[] distances, double binWidth, int bins) {
+		int[] histogram = new int[bins];
+		for (double d : distances) {
+			int bin = (int) Math.min(bins - 1, Math.floor(d / binWidth));
+			histogram[bin]++;
+		}
+		return histogram;
+	}
+	static void printDistanceHistogram(double[] distances, double binWidth, int bins) {
+		printDistanceHistogram(System.out, distances, binWidth, bins);
+	}
+	static void printDistanceHistogram(PrintStream out, double[] distances, double binWidth, int bins) {
+		int[] histogram = distanceHistogram(distances, binWidth, bins);
+		for (int i=0;i<bins;i++) {
+			String range = (i < bins - 1) ? (i * binWidth) + " - " + ((i + 1) * binWidth) + " m" : ">= " + (i * binWidth) + " m";
+			out.print(range + "\t" + histogram[i] + "\n");
+		}
 	}
 		
 	// ## Rückgabe aller gebufferten Einzelgeometrien einer FS in einer einzelnen Geometrie ##
+	// Buffern und Vereinigen erfolgen parallel (ParalleleVereinigung), das Ergebnis wird im ErgebnisCache abgelegt
+	// Die Einzelgeometrien (alle Teilflächen) stammen aus der Normalisierung der Ebene
+	// Mit Praezision.gridSize > 0 werden sie vorher auf das Raster gerundet, die Union liegt im selben Raster
 	static Geometry bufferedUnionGeometry(SimpleFeatureSource fs, double bufferRadius) throws Exception {
-		SimpleFeatureCollection fc = fs.getFeatures();
-		GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
-		int size = fc.size();
-		Polygon[] polygons = new Polygon[size];
-		int i = 0;
-		int nonvalid = 0;
-        try (SimpleFeatureIterator features = fc.features()) {
-            while (features.hasNext()) {
-            	SimpleFeature feature = features.next();
-            	Geometry geom = (Geometry) feature.getDefaultGeometry();
-            	if (geom.isSimple() && geom.isValid()) {
-            		Polygon polygon = null;
-	            	if (geom instanceof MultiPolygon) {
-	            		polygon = (Polygon) geom.getGeometryN(0);
-	            		if (bufferRadius != 0.0) {polygon = (Polygon) polygon.buffer(bufferRadius);}
-	            	} 
-	            	else if (geom instanceof MultiLineString) {
-		            	LineString line = (LineString) geom.getGeometryN(0);
-		            	if (line.isClosed()) {
-		            		LinearRing ring = geometryFactory.createLinearRing(line.getCoordinateSequence());
-			            	polygon = geometryFactory.createPolygon(ring);
-			            	if (bufferRadius != 0.0) {polygon = (Polygon) polygon.buffer(bufferRadius);}
-		            	}
-	            	}
-	            	else if (geom instanceof Point) {
-	            		if (bufferRadius != 0.0) {polygon = (Polygon) geom.buffer(bufferRadius);}
-	            	}
-            		
-	            	if (polygon!=null) {
-	                	polygons[i] = polygon;
-	                	i++;
-	            	}
-            	}
-            	else 
-            	{
-            		++nonvalid;
-            	}
-          	}
-        }
-		Collection<Geometry> collection = Arrays.asList(Arrays.copyOfRange(polygons, 0, size-nonvalid));
-        UnaryUnionOp geomUnion = new UnaryUnionOp(collection);
-        Geometry combined = geomUnion.union();
-        return combined;
+		try (Messung messung = Messung.start(Messung.UNION, fs)) {
+			return Praezision.fixed(ErgebnisCache.geometry(ErgebnisCache.key(Praezision.key("bufferedUnion"), fs, null, bufferRadius), () -> {
+				List<Geometry> geometries = Praezision.reduce(fs.getSchema().getTypeName(), Normalisierung.of(fs).validGeometries());
+				messung.read(fs);
+				messung.features(geometries.size());
+				return ParalleleVereinigung.bufferedUnion(geometries, bufferRadius, false);
+			}));
+		}
 	}
 	static Geometry bufferedUnionGeometry(SimpleFeatureSource fs, double bufferRadius, String toFilter) throws Exception {
-		SimpleFeatureCollection fc = fs.getFeatures(CQL.toFilter(toFilter));
-		GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
-		int size = fc.size();
-		Polygon[] polygons = new Polygon[size];
-		int i = 0;
-		int nonvalid = 0;
-        try (SimpleFeatureIterator features = fc.features()) {
-            while (features.hasNext()) {
-            	SimpleFeature feature = features.next();
-            	Geometry geom = (Geometry) feature.getDefaultGeometry();
-            	if (geom.isSimple() && geom.isValid()) {
-            		Polygon polygon = null;
-	            	if (geom instanceof MultiPolygon) {
-	            		polygon = (Polygon) geom.getGeometryN(0);
-	            		polygon = (Polygon) polygon.buffer(bufferRadius);
-	            	} 
-	            	else if (geom instanceof MultiLineString) {
-		            	LineString line = (LineString) geom.getGeometryN(0);
-		            	if (line.isClosed()) {
-		            		LinearRing ring = geometryFactory.createLinearRing(line.getCoordinateSequence());
-			            	polygon = geometryFactory.createPolygon(ring);
-			            	polygon = (Polygon) polygon.buffer(bufferRadius);
-		            	}
-	            	}
-	            	else if (geom instanceof Point) {
-	            		polygon = (Polygon) geom.buffer(bufferRadius);
-	            	}
-            		
-	            	if (polygon!=null) {
-	                	polygons[i] = polygon;
-	                	i++;
-	            	}
-            	}
-            	else
-            	{
-            		++nonvalid;
-            	}
-          	}
-        }
-		Collection<Geometry> collection = Arrays.asList(Arrays.copyOfRange(polygons, 0, size-nonvalid));
-        UnaryUnionOp geomUnion = new UnaryUnionOp(collection);
-        Geometry combined = geomUnion.union();
-        return combined;
+		try (Messung messung = Messung.start(Messung.UNION, fs)) {
+			return Praezision.fixed(ErgebnisCache.geometry(ErgebnisCache.key(Praezision.key("bufferedUnionAlwaysBuffer"), fs, toFilter, bufferRadius), () -> {
+				List<Geometry> geometries = Praezision.reduce(fs.getSchema().getTypeName(), Normalisierung.of(fs).validGeometries(fs.getFeatures(CQL.toFilter(toFilter))));
+				messung.read(fs);
+				messung.features(geometries.size());
+				return ParalleleVereinigung.bufferedUnion(geometries, bufferRadius, true);
+			}));
+		}
+	}
+	
+	// ## Pufferstaffel: Überschneidungsfläche von gebufferter ATKIS-Union und OSM-Union für mehrere Radien ##
+	// Die Union wird nicht je Radius neu aus der Datei aufgebaut, sondern schrittweise um die Differenz
+	// zum vorherigen Radius weitergebuffert (Puffer(Puffer(U, r1), r2 - r1) = Puffer(U, r2)).
+	// Die Teilflächen der OSM-Union liegen einmalig in einem STR-Baum und werden für alle Radien genutzt.
+	// Die Staffel gilt nur für wachsende Buffer: negative Radien werden abgewiesen.
+	static double[] bufferedIntersectionAreas(Geometry union_atkis, Geometry union_osm, double[] bufferRadius) {
+		for (double r : bufferRadius) {
+			if (!(r >= 0.0)) {
+				throw new IllegalArgumentException("Bufferradius " + r + " für die Pufferstaffel, erlaubt sind nur Radien >= 0");
+			}
+		}
+		STRtree tree = new STRtree();
+		for (int i=0;i<union_osm.getNumGeometries();i++) {
+			Geometry part = union_osm.getGeometryN(i);
+			tree.insert(part.getEnvelopeInternal(), part);
+		}
+		tree.build();
+		
+		double[] sorted = bufferRadius.clone();
+		Arrays.sort(sorted);
+		Map<Double, Double> areas = new HashMap<>();
+		Geometry buffered = union_atkis;
+		double radius = 0.0;
+		for (double r : sorted) {
+			if (r != radius) {
+				buffered = ParalleleVereinigung.bufferedUnion(parts(buffered), r - radius, true);
+				radius = r;
+			}
+			areas.put(r, indexedIntersectionArea(buffered, tree));
+		}
+		
+		double[] result = new double[bufferRadius.length];
+		for (int i=0;i<result.length;i++) {
+			result[i] = areas.get(bufferRadius[i]);
+		}
+		return result;
+	}
+	static double[] printBufferedIntersectionAreas(String name, Geometry union_atkis, Geometry union_osm, double[] bufferRadius) {
+		return printBufferedIntersectionAreas(System.out, name, union_atkis, union_osm, bufferRadius);
+	}
+	static double[] printBufferedIntersectionAreas(PrintStream out, String name, Geometry union_atkis, Geometry union_osm, double[] bufferRadius) {
+		double[] areas;
+		try (Messung messung = Messung.start(Messung.OVERLAY, name)) {
+			areas = bufferedIntersectionAreas(union_atkis, union_osm, bufferRadius);
+			messung.features(union_atkis.getNumGeometries() + union_osm.getNumGeometries());
+		}
+		DecimalFormat rf = new DecimalFormat("0.##");
+		for (int i=0;i<areas.length;i++) {
+			out.print("Überschneidungsfläche " + name + " (" + rf.format(bufferRadius[i]) + "m Buffer ATKIS): " + new DecimalFormat("#0.0000").format(areas[i]) + "\n");
+		}
+		return areas;
 	}
 	
-	// ## Rückgabe der Gesamtsumme aller Einzelflächen einer FeatureSource ##
+	// Teilflächen einer (Multi-)Geometrie
+	static List<Geometry> parts(Geometry geom) {
+		List<Geometry> parts = new ArrayList<>(geom.getNumGeometries());
+		for (int i=0;i<geom.getNumGeometries();i++) {
+			parts.add(geom.getGeometryN(i));
+		}
+		return parts;
+	}
+	
+	// Die Teilflächen einer Union überlappen sich nicht, die Summe der Einzelverschneidungen ist daher exakt
+	private static double indexedIntersectionArea(Geometry union, STRtree tree) {
+		return parts(union).parallelStream()
+				.mapToDouble(part -> {
+					double area = 0.0;
+					for (Object candidate : tree.query(part.getEnvelopeInternal())) {
+						Geometry other = (Geometry) candidate;
+						if (part.intersects(other)) {
+							area += part.intersection(other).getArea();
+						}
+					}
+					return area;
+				})
+				.sum();
+	}
+	
+	// ## Rückgabe der Gesamtsumme aller Einzelflächen einer FeatureSource (über den ErgebnisCache) ##
+	// Alle Teilflächen einfacher und valider Objekte, geschlossene Linien als Flächen (Normalisierung)
 	static double calculateArea(SimpleFeatureSource fs) throws Exception {
-		SimpleFeatureCollection fc = fs.getFeatures();
-		double area = 0;
-        try (SimpleFeatureIterator features = fc.features()) {
-            while (features.hasNext()) {
-            	SimpleFeature feature = features.next();
-            	Geometry geom = (Geometry) feature.getDefaultGeometry();
-            	if (geom.isSimple() && geom.isValid()) {
-	            	if (geom instanceof MultiPolygon || geom instanceof MultiLineString) {
-	            		area += geom.getGeometryN(0).getArea();
-	            	}
-            	}
-          	}
-        }
-        return area;
+		return ErgebnisCache.metric(ErgebnisCache.key("calculateArea", fs, null, 0.0), () -> Normalisierung.area(fs));
+	}
+	
+	// ## Objektanzahl; bei Shapedateien aus .shx/.dbf ohne die Geometrien zu lesen ##
+	static int countFeatures(SimpleFeatureSource fs) throws Exception {
+		try (ShapeLeser leser = ShapeLeser.of(fs)) {
+			return (leser != null) ? leser.count() : fs.getFeatures().size();
+		}
+	}
+	// Nach CQL-Filter; bei Shapedateien über die DBF-Felder (TagKlassifikator.bind), sofern sich der
+	// Filter vollständig übersetzen lässt, sonst über den DataStore
+	static int countFeatures(SimpleFeatureSource fs, String toFilter) throws Exception {
+		TagKlassifikator classifier = new TagKlassifikator();
+		classifier.addClass(toFilter, toFilter);
+		try (ShapeLeser leser = ShapeLeser.of(fs)) {
+			TagKlassifikator.Felder felder = (leser != null) ? classifier.bind(leser) : null;
+			if (felder != null) {
+				return ParalleleAbtastung.reduce(leser, cursor -> {
+					BitSet hits = new BitSet(1);
+					int n = 0;
+					while (cursor.next()) {
+						if (!cursor.isDeleted()) {
+							felder.classify(cursor, hits);
+							if (hits.get(0)) {
+								n++;
+							}
+						}
+					}
+					return n;
+				}, Integer::sum);
+			}
+		}
+		return fs.getFeatures(CQL.toFilter(toFilter)).size();
 	}
 	
 	// ## Topologische Konsistenz ##
+	// Auswertung über LayerProfil; wird mehr als eine Kennzahl benötigt, das Profil direkt verwenden
 	static void topologicalConsistency(SimpleFeatureSource fs) throws Exception {
-		SimpleFeatureCollection fc = fs.getFeatures();
-		int validFeatures = 0;
-		int simpleFeatures = 0;
-        try (SimpleFeatureIterator features = fc.features()) {
-            while (features.hasNext()) {
-            	SimpleFeature feature = features.next();
-            	Geometry geom = (Geometry) feature.getDefaultGeometry();
-            	if (!geom.isValid())  {validFeatures++;}
-            	if (!geom.isSimple()) {simpleFeatures++;}
-          	}	
-        }
-        System.out.print("Objektanzahl in " + fs.getSchema().getName() + ": " + fc.size() + "\n");
-        System.out.print("Nichtvalide Objekte in " + fs.getSchema().getName() + ": " + validFeatures + "\n");
-        System.out.print("Nicht-Simple Features in " + fs.getSchema().getName() + ": " + simpleFeatures + "\n");
+		LayerProfil.scan(fs).print();
 	}
 	static void printNotSimpleFeatures(SimpleFeatureSource fs) throws Exception {
-		SimpleFeatureCollection fc = fs.getFeatures();
-        try (SimpleFeatureIterator features = fc.features()) {
-            while (features.hasNext()) {
-            	SimpleFeature feature = features.next();
-            	Geometry geom = (Geometry) feature.getDefaultGeometry();
-            	if (!geom.isSimple()) {
-	            	System.out.print(geom.getNumGeometries() + " ");
-	            	if (geom instanceof MultiLineString) {
-		            	MultiLineString line = (MultiLineString) geom;
-		            	System.out.print(line.isClosed() + " ");
-	            	}
-	            	for (int i=1;i<feature.getAttributeCount();i++) {
-	            		if (!feature.getAttribute(i).equals("")) {
-	            			System.out.print(fc.getSchema().getDescriptor(i).getName() + "=" + feature.getAttribute(i) + "  ");
-	            		}
-	            	}
-	            	System.out.print("\n");
-            	}
-          	}
-        }
+		LayerProfil.scan(fs).printNotSimpleFeatures();
 	}
 	static void printInvalidFeatures(SimpleFeatureSource fs) throws Exception {
-		SimpleFeatureCollection fc = fs.getFeatures();
-        try (SimpleFeatureIterator features = fc.features()) {
-            while (features.hasNext()) {
-            	SimpleFeature feature = features.next();
-            	Geometry geom = (Geometry) feature.getDefaultGeometry();
-            	if (!geom.isValid()) {
-	            	System.out.print(geom.getNumGeometries() + " ");
-	            	if (geom instanceof MultiLineString) {
-		            	MultiLineString line = (MultiLineString) geom;
-		            	System.out.print(line.isClosed() + " ");
-	            	}
-	            	for (int i=1;i<feature.getAttributeCount();i++) {
-	            		if (!feature.getAttribute(i).equals("")) {
-	            			System.out.print(fc.getSchema().getDescriptor(i).getName() + "=" + feature.getAttribute(i) + "  ");
-	            		}
-	            	}
-	            	System.out.print("\n");
-            	}
-          	}
-        }
+		LayerProfil.scan(fs).printInvalidFeatures();
 	}
 	
 	// ## Schreibt eine Liste an Attributen einer FeatureSource in eine Textdatei 
@@ -501,68 +660,180 @@ public class Analyse {
         }
 	}
 	
+	// ## Gebäudevergleich ganzer Ebenen ohne Filter: Adressfelder in OSM, intrinsische Überdeckung, ##
+	// ## kachelweise Verschneidung (KachelVerschneidung) bzw. Rasterverschneidung mit ATKIS-Buffer ##
+	static void compareBuildings(PrintStream out, SimpleFeatureSource fs_atkis, SimpleFeatureSource fs_osm, String addressFilter,
+			double bufferRadius, double tileSize) throws Exception {
+		final DecimalFormat df = new DecimalFormat("#0.0000");
+		DecimalFormat rf = new DecimalFormat("0.##");
+		//Intrinsisch: Adressfelder
+		out.print("Gebäude mit Adressfeld: " + countFeatures(fs_osm, addressFilter) + "\n");
+
+		double totalarea_atkis = calculateArea(fs_atkis);
+		double totalarea_osm = calculateArea(fs_osm);
+
+		//Kachelweise Verschneidung statt globaler Union-Geometrien
+		List<Geometry> geometries_atkis = Praezision.reduce("AX_Gebaeude", Normalisierung.of(fs_atkis).validGeometries());
+		List<Geometry> geometries_osm = Praezision.reduce("OSM_Gebaeude", Normalisierung.of(fs_osm).validGeometries());
+		if (RasterUeberdeckung.isActive()) {
+			//Näherung über Rasterung, alle Flächenwerte mit Fehlerschranke
+			RasterUeberdeckung.Ergebnis raster;
+			try (Messung messung = Messung.start(Messung.OVERLAY, "Gebaeude")) {
+				raster = RasterUeberdeckung.overlay(geometries_atkis, geometries_osm, new double[] {bufferRadius});
+				messung.features(geometries_atkis.size() + geometries_osm.size());
+			}
+			raster.print(out, "Gebaeude", totalarea_atkis, totalarea_osm);
+			return;
+		}
+		KachelVerschneidung.Ergebnis overlay;
+		try (Messung messung = Messung.start(Messung.OVERLAY, "Gebaeude")) {
+			overlay = KachelVerschneidung.overlay(geometries_atkis, geometries_osm, tileSize);
+			messung.features(geometries_atkis.size() + geometries_osm.size());
+		}
+
+		//Überdeckung im eigenen Datensatz: Differenz zwischen Summe Einzelflächengröße und Flächengröße von Union-Geometrie
+		out.print("Flächenunterschied intrinsisch in ATKIS-Gebaeude: " + df.format(totalarea_atkis - overlay.areaA) + "\n");
+		out.print("Flächenunterschied intrinsisch in OSM-Gebaeude: " + df.format(totalarea_osm - overlay.areaB) + "\n");
+
+		//Flächenvergleiche
+		out.print("Gesamtfläche ATKIS-Gebaeude: " + df.format(totalarea_atkis) + "\n");
+		out.print("Gesamtfläche OSM-Gebaeude: " + df.format(totalarea_osm) + "\n");
+
+		//** Gebufferte ATKIS-Daten mit OSM-Einzelflächen -- Nachteil: Flächenüberlagerungen werden nicht berücksichtigt bzw. gefiltert**
+		List<Geometry> geometries_atkis_buffered = KachelVerschneidung.buffer(geometries_atkis, bufferRadius);
+		out.print("Überschneidungsfläche Gebaeude: " + df.format(KachelVerschneidung.intersectingArea(geometries_osm, geometries_atkis)) + "\n");
+		out.print("Überschneidungsfläche Gebaeude: (" + rf.format(bufferRadius) + "m Buffer ATKIS): " + df.format(KachelVerschneidung.intersectingArea(geometries_osm, geometries_atkis_buffered)) + "\n");
+
+		//** Gebufferte ATKIS-Daten mit OSM-Einzelflächen -- mit Filterung doppelter Flächen **
+		out.print("Überschneidungsfläche Gebaeude: " + df.format(overlay.intersection) + "\n");
+		out.print("Überschneidungsfläche Gebaeude (" + rf.format(bufferRadius) + "m Buffer ATKIS): " + df.format(KachelVerschneidung.overlay(geometries_atkis_buffered, geometries_osm, tileSize).intersection) + "\n");
+	}
+	
 	public static void main(String[] args) throws Exception {
+		// Mit Konfigurationsdatei (z.B. klassen.properties): alle Klassen nebenläufig über die Ablaufplanung
+		if (args.length > 0) {
+			Ablaufplanung.run(Konfiguration.load(args[0]));
+			return;
+		}
+		
     	String path ="D:/Hochschule/Master/GeoModA/shapefiles/";
         String osmFilter = "";
-        String atkisFilter = "";
         final DecimalFormat df = new DecimalFormat("#0.0000");
+        ErgebnisCache.open(path+"cache/", 4L << 30); // Unions und Kennzahlen über Läufe hinweg, höchstens 4 GB
+        Praezision.gridSize = 0.0; // z.B. 0.01: Unions und Verschneidungen auf einem 1-cm-Raster
+        RasterUeberdeckung.cellSize = 0.0; // z.B. 1.0: Überschneidungsflächen näherungsweise über ein 1-m-Raster
     	
     	//###########################
         //##  Alle Featuresources  ##
         //###########################
-    	SimpleFeatureSource fs_sie01_f = FileDataStoreFinder.getDataStore(new File(path+"ATKIS/sie01_f.shp")).getFeatureSource();
-        SimpleFeatureSource fs_sie02_f = FileDataStoreFinder.getDataStore(new File(path+"ATKIS/sie02_f.shp")).getFeatureSource();
-        SimpleFeatureSource fs_sie03_f = FileDataStoreFinder.getDataStore(new File(path+"ATKIS/sie03_f.shp")).getFeatureSource();
-        SimpleFeatureSource fs_sie03_l = FileDataStoreFinder.getDataStore(new File(path+"ATKIS/sie03_l.shp")).getFeatureSource();
-        SimpleFeatureSource fs_sie03_p = FileDataStoreFinder.getDataStore(new File(path+"ATKIS/sie03_p.shp")).getFeatureSource();
-        SimpleFeatureSource fs_sie04_f = FileDataStoreFinder.getDataStore(new File(path+"ATKIS/sie04_f.shp")).getFeatureSource();
-        SimpleFeatureSource fs_sie04_l = FileDataStoreFinder.getDataStore(new File(path+"ATKIS/sie04_l.shp")).getFeatureSource();
-        SimpleFeatureSource fs_sie05_f = FileDataStoreFinder.getDataStore(new File(path+"ATKIS/sie05_f.shp")).getFeatureSource();
-        SimpleFeatureSource fs_sie05_p = FileDataStoreFinder.getDataStore(new File(path+"ATKIS/sie05_p.shp")).getFeatureSource();
-        SimpleFeatureSource fs_atkis_gebaeude_f = FileDataStoreFinder.getDataStore(new File(path+"ATKIS/gebaeude.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_p = FileDataStoreFinder.getDataStore(new File(path+"OSM/OSM_point.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_l = FileDataStoreFinder.getDataStore(new File(path+"OSM/OSM_line.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_f = FileDataStoreFinder.getDataStore(new File(path+"OSM/OSM_polygon.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_landuse_p = FileDataStoreFinder.getDataStore(new File(path+"OSM/landuse/OSM_point_landuse.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_landuse_l = FileDataStoreFinder.getDataStore(new File(path+"OSM/landuse/OSM_line_landuse.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_landuse_f = FileDataStoreFinder.getDataStore(new File(path+"OSM/landuse/OSM_polygon_landuse.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_gebaeude_p = FileDataStoreFinder.getDataStore(new File(path+"OSM/building/OSM_point_building.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_gebaeude_l = FileDataStoreFinder.getDataStore(new File(path+"OSM/building/OSM_line_building.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_gebaeude_f = FileDataStoreFinder.getDataStore(new File(path+"OSM/building/OSM_polygon_building.shp")).getFeatureSource();
+    	SimpleFeatureSource fs_sie01_f = openShape(path+"ATKIS/sie01_f.shp");
+        SimpleFeatureSource fs_sie02_f = openShape(path+"ATKIS/sie02_f.shp");
+        SimpleFeatureSource fs_sie03_f = openShape(path+"ATKIS/sie03_f.shp");
+        SimpleFeatureSource fs_sie03_l = openShape(path+"ATKIS/sie03_l.shp");
+        SimpleFeatureSource fs_sie03_p = openShape(path+"ATKIS/sie03_p.shp");
+        SimpleFeatureSource fs_sie04_f = openShape(path+"ATKIS/sie04_f.shp");
+        SimpleFeatureSource fs_sie04_l = openShape(path+"ATKIS/sie04_l.shp");
+        SimpleFeatureSource fs_sie05_f = openShape(path+"ATKIS/sie05_f.shp");
+        SimpleFeatureSource fs_sie05_p = openShape(path+"ATKIS/sie05_p.shp");
+        SimpleFeatureSource fs_atkis_gebaeude_f = openShape(path+"ATKIS/gebaeude.shp");
+        SimpleFeatureSource fs_osm_p = openShape(path+"OSM/OSM_point.shp");
+        SimpleFeatureSource fs_osm_l = openShape(path+"OSM/OSM_line.shp");
+        SimpleFeatureSource fs_osm_f = openShape(path+"OSM/OSM_polygon.shp");
+        SimpleFeatureSource fs_osm_landuse_p = openShape(path+"OSM/landuse/OSM_point_landuse.shp");
+        SimpleFeatureSource fs_osm_landuse_l = openShape(path+"OSM/landuse/OSM_line_landuse.shp");
+        SimpleFeatureSource fs_osm_landuse_f = openShape(path+"OSM/landuse/OSM_polygon_landuse.shp");
+        SimpleFeatureSource fs_osm_gebaeude_p = openShape(path+"OSM/building/OSM_point_building.shp");
+        SimpleFeatureSource fs_osm_gebaeude_l = openShape(path+"OSM/building/OSM_line_building.shp");
+        SimpleFeatureSource fs_osm_gebaeude_f = openShape(path+"OSM/building/OSM_polygon_building.shp");
 
+        //#########################################
+        //##  Ebenenprofile (ein Lesedurchlauf)  ##
+        //#########################################
+        LayerProfil profil_osm_p = LayerProfil.scan(fs_osm_p);
+        LayerProfil profil_osm_l = LayerProfil.scan(fs_osm_l);
+        LayerProfil profil_osm_f = LayerProfil.scan(fs_osm_f);
+        
         //############################
         //##  Anzahl Gesamtobjekte  ##
         //############################
-        System.out.println("Punkte: " + fs_osm_p.getFeatures().size());
-        System.out.println("Linien: " + fs_osm_l.getFeatures().size());
-        System.out.println("Flächen: " + fs_osm_f.getFeatures().size());
+        System.out.println("Punkte: " + profil_osm_p.count);
+        System.out.println("Linien: " + profil_osm_l.count);
+        System.out.println("Flächen: " + profil_osm_f.count);
         
         //############################################
         //##  Prüfung der topologischen Konsistenz  ##
         //############################################
-        topologicalConsistency(fs_osm_p);
-        topologicalConsistency(fs_osm_l);
-        topologicalConsistency(fs_osm_f);
-        printNotSimpleFeatures(fs_osm_l);
-        printInvalidFeatures(fs_osm_f);
+        profil_osm_p.print();
+        profil_osm_l.print();
+        profil_osm_f.print();
+        //Fehlerbericht (Art und Stelle je Fehler) statt Konsolenausgabe
+        KonsistenzPruefung.check(fs_osm_l, path+"temp/Defekte_OSM_line.csv");
+        KonsistenzPruefung.check(fs_osm_f, path+"temp/Defekte_OSM_polygon.csv");
+        
+        //#####################################################
+        //##  Semantische Harmonisierung (ein Lesedurchlauf)  ##
+        //#####################################################
+        String temp = path+"temp/";
+        boolean write_temp = false; // Klassenebenen am Ende zusätzlich nach temp/ schreiben
+        
+        // Punktobjekte: ATKIS sie03/sie05, OSM point/line/polygon
+        String atkisTurm = "OBJART_TXT='AX_Turm'";
+        String[] atkisPunktFilter = {
+        		"OBJART_TXT='AX_VorratsbehaelterSpeicherbauwerk'",
+        		"OBJART_TXT='AX_HistorischesBauwerkOderHistorischeEinrichtung'",
+        		"OBJART_TXT='AX_SonstigesBauwerkOderSonstigeEinrichtung'",
+        		"OBJART_TXT='AX_EinrichtungInOeffentlichenBereichen'"};
+        String[] atkisPunktKlassen = {"AX_Vorratsbehaelter", "AX_Historisch", "Sonstiges", "AX_Oeffentlich"};
+        String[] atkisPunktDateien = {"AX_Vorratsbehaelter", "AX_Historisch", "AX_Sonstiges", "AX_Oeffentlich"};
+        String[] osmPunktFilter = {
+        		"man_made='tower' or man_made='water_tower' or man_made='communications_tower' or man_made='chimney' or building='transformer_tower' or historic='tower'",
+        		"man_made='silo' or man_made='storage_tank' or man_made='gasometer' or man_made='bunker_silo'",
+        		"historic NOT like '' and historic NOT like 'tower' and historic NOT like 'monument'",
+        		"historic='monument' or historic='boundary_stone' or historic='milestone' or historic='rune_stone' or historic='highwater_mark' or amenity='fountain' or boundary='marker'",
+        		"amenity NOT like '' and amenity NOT like 'fountain'"};
+        String[] osmPunktKlassen = {"Turm", "Vorratsbehaelter", "Historisch", "SonstigesP", "Oeffentlich"};
+        
+        // Klassenebenen im Arbeitsspeicher, Name wie die frühere Shapedatei in temp/ (z.B. "AX_Turm_P")
+        Map<String, SpaltenLayer> ebenen = new HashMap<>();
+        ebenen.putAll(createFilteredLayers(fs_sie05_p, new String[]{atkisTurm}, new String[]{"AX_Turm"}, new String[]{"AX_Turm_P"}, true));
+        ebenen.putAll(createFilteredLayers(fs_sie05_f, new String[]{atkisTurm}, new String[]{"AX_Turm"}, new String[]{"AX_Turm_F"}, true));
+        ebenen.putAll(createFilteredLayers(fs_sie03_p, atkisPunktFilter, atkisPunktKlassen, shapePaths("", atkisPunktDateien, "_P"), true));
+        ebenen.putAll(createFilteredLayers(fs_sie03_f, Arrays.copyOf(atkisPunktFilter, 2), Arrays.copyOf(atkisPunktKlassen, 2), shapePaths("", Arrays.copyOf(atkisPunktDateien, 2), "_F"), true));
+        ebenen.putAll(createFilteredLayers(fs_osm_p, osmPunktFilter, osmPunktKlassen, shapePaths("", osmPunktKlassen, "_P"), false));
+        ebenen.putAll(createFilteredLayers(fs_osm_l, osmPunktFilter, osmPunktKlassen, shapePaths("", osmPunktKlassen, "_L"), false));
+        ebenen.putAll(createFilteredLayers(fs_osm_f, osmPunktFilter, osmPunktKlassen, shapePaths("", osmPunktKlassen, "_F"), false));
+        
+        // Flächenobjekte: ATKIS sie02_f, OSM landuse
+        String[] atkisFlaechenKlassen = {"AX_Halde", "AX_Friedhof", "AX_Wohnbauflaeche", "AX_SportFreizeitUndErholungsflaeche", 
+        		"AX_IndustrieUndGewerbeflaeche", "AX_TagebauGrubeSteinbruch", "AX_Bergbaubetrieb"};
+        String[] atkisFlaechenFilter = new String[atkisFlaechenKlassen.length];
+        for (int i=0;i<atkisFlaechenKlassen.length;i++) {
+        	atkisFlaechenFilter[i] = "OBJART_TXT='" + atkisFlaechenKlassen[i] + "'";
+        }
+        String[] osmFlaechenFilter = {
+        		"landuse='landfill'",
+        		"landuse='cemetery'",
+        		"landuse='residential'",
+        		"landuse='recreation_ground' or landuse='grass' or landuse='allotments'",
+        		"landuse='industrial' or landuse='commercial' or landuse='retail'",
+        		"landuse='quarry'",
+        		"landuse='industrial'"}; //Bergbaubetrieb: man_made='mineshaft'->keine Überschneidung ||| landuse='mine' nicht vorhanden (keine Fehler) ||| landuse='quarry'->Überschneidung nur 55145,0731
+        String[] osmFlaechenKlassen = {"Halde", "Friedhof", "Wohnbauflaeche", "SportFreizeitUndErholungsflaeche", 
+        		"IndustrieUndGewerbeflaeche", "TagebauGrubeSteinbruch", "Bergbaubetrieb"};
+        
+        ebenen.putAll(createFilteredLayers(fs_sie02_f, atkisFlaechenFilter, atkisFlaechenKlassen, shapePaths("", atkisFlaechenKlassen, "_F"), true));
+        ebenen.putAll(createFilteredLayers(fs_osm_landuse_p, osmFlaechenFilter, osmFlaechenKlassen, shapePaths("", osmFlaechenKlassen, "_P"), false));
+        ebenen.putAll(createFilteredLayers(fs_osm_landuse_l, osmFlaechenFilter, osmFlaechenKlassen, shapePaths("", osmFlaechenKlassen, "_L"), false));
+        ebenen.putAll(createFilteredLayers(fs_osm_landuse_f, osmFlaechenFilter, osmFlaechenKlassen, shapePaths("", osmFlaechenKlassen, "_F"), false));
         
         //###############
         //##  AX_Turm  ##
         //###############
-        atkisFilter = "OBJART_TXT='AX_Turm'";
-        osmFilter = "man_made='tower' or man_made='water_tower' or man_made='communications_tower' or man_made='chimney' or building='transformer_tower' or historic='tower'";
-        
-        createFilteredShape(fs_sie05_p, atkisFilter, "AX_Turm", path+"temp/AX_Turm_P.shp", true);
-        createFilteredShape(fs_sie05_f, atkisFilter, "AX_Turm", path+"temp/AX_Turm_F.shp", true);
-        createFilteredShape(fs_osm_p, osmFilter, "Turm", path+"temp/Turm_P.shp", false);
-        createFilteredShape(fs_osm_l, osmFilter, "Turm", path+"temp/Turm_L.shp", false);
-        createFilteredShape(fs_osm_f, osmFilter, "Turm", path+"temp/Turm_F.shp", false);
-
-        SimpleFeatureSource fs_atkis_turm_p = FileDataStoreFinder.getDataStore(new File(path+"temp/AX_Turm_P.shp")).getFeatureSource();
-        SimpleFeatureSource fs_atkis_turm_f = FileDataStoreFinder.getDataStore(new File(path+"temp/AX_Turm_F.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_turm_p = FileDataStoreFinder.getDataStore(new File(path+"temp/Turm_P.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_turm_l = FileDataStoreFinder.getDataStore(new File(path+"temp/Turm_L.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_turm_f = FileDataStoreFinder.getDataStore(new File(path+"temp/Turm_F.shp")).getFeatureSource();
+        SimpleFeatureSource fs_atkis_turm_p = ebenen.get("AX_Turm_P");
+        SimpleFeatureSource fs_atkis_turm_f = ebenen.get("AX_Turm_F");
+        SimpleFeatureSource fs_osm_turm_p = ebenen.get("Turm_P");
+        SimpleFeatureSource fs_osm_turm_l = ebenen.get("Turm_L");
+        SimpleFeatureSource fs_osm_turm_f = ebenen.get("Turm_F");
         
         //**Konvertierung ATKIS & OSM: Flächen zu Schwerpunkt**
         convertAreaToPoint(fs_atkis_turm_f, fs_atkis_turm_p);
@@ -577,10 +848,8 @@ public class Analyse {
         System.out.print("Anzahl Turm-Objekt ATKIS: " + fs_atkis_turm_p.getFeatures().size() + "\n");
         System.out.print("Anzahl Turm-Objekt OSM: " + fs_osm_turm_p.getFeatures().size() + "\n");
         
-        positionPointToPoint(fs_atkis_turm_p, fs_osm_turm_p, 1.0); //17
-        positionPointToPoint(fs_atkis_turm_p, fs_osm_turm_p, 2.0); //39
-        positionPointToPoint(fs_atkis_turm_p, fs_osm_turm_p, 5.0); //87
-        positionPointToPoint(fs_atkis_turm_p, fs_osm_turm_p,10.0); //127
+        double[] distances_turm = positionPointToPoint(fs_atkis_turm_p, fs_osm_turm_p, new double[]{1.0, 2.0, 5.0, 10.0}); // 17 | 39 | 87 | 127
+        printDistanceHistogram(distances_turm, 1.0, 21);
         //####################
         //##  Ende AX_Turm  ##
         //####################
@@ -589,20 +858,11 @@ public class Analyse {
         //########################################
         //## AX_VorratsbehaelterSpeicherbauwerk ##
         //########################################
-        atkisFilter = "OBJART_TXT='AX_VorratsbehaelterSpeicherbauwerk'";
-        osmFilter = "man_made='silo' or man_made='storage_tank' or man_made='gasometer' or man_made='bunker_silo'";
-
-        createFilteredShape(fs_sie03_p, atkisFilter, "AX_Vorratsbehaelter", path+"temp/AX_Vorratsbehaelter_P.shp", true);
-        createFilteredShape(fs_sie03_f, atkisFilter, "AX_Vorratsbehaelter", path+"temp/AX_Vorratsbehaelter_F.shp", true);
-        createFilteredShape(fs_osm_p, osmFilter, "Vorratsbehaelter", path+"temp/Vorratsbehaelter_P.shp", false);
-        createFilteredShape(fs_osm_l, osmFilter, "Vorratsbehaelter", path+"temp/Vorratsbehaelter_L.shp", false);
-        createFilteredShape(fs_osm_f, osmFilter, "Vorratsbehaelter", path+"temp/Vorratsbehaelter_F.shp", false);
-
-        SimpleFeatureSource fs_atkis_silo_p = FileDataStoreFinder.getDataStore(new File(path+"temp/AX_Vorratsbehaelter_P.shp")).getFeatureSource();
-        SimpleFeatureSource fs_atkis_silo_f = FileDataStoreFinder.getDataStore(new File(path+"temp/AX_Vorratsbehaelter_F.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_silo_p = FileDataStoreFinder.getDataStore(new File(path+"temp/Vorratsbehaelter_P.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_silo_l = FileDataStoreFinder.getDataStore(new File(path+"temp/Vorratsbehaelter_L.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_silo_f = FileDataStoreFinder.getDataStore(new File(path+"temp/Vorratsbehaelter_F.shp")).getFeatureSource();
+        SimpleFeatureSource fs_atkis_silo_p = ebenen.get("AX_Vorratsbehaelter_P");
+        SimpleFeatureSource fs_atkis_silo_f = ebenen.get("AX_Vorratsbehaelter_F");
+        SimpleFeatureSource fs_osm_silo_p = ebenen.get("Vorratsbehaelter_P");
+        SimpleFeatureSource fs_osm_silo_l = ebenen.get("Vorratsbehaelter_L");
+        SimpleFeatureSource fs_osm_silo_f = ebenen.get("Vorratsbehaelter_F");
         
         //**Konvertierung ATKIS & OSM: Flächen zu Schwerpunkt**
         convertAreaToPoint(fs_atkis_silo_f, fs_atkis_silo_p);
@@ -621,10 +881,8 @@ public class Analyse {
         System.out.print("Anzahl Vorratbehaelter-Objekt ATKIS: " + fs_atkis_silo_p.getFeatures().size() + "\n");
         System.out.print("Anzahl Vorratbehaelter-Objekt OSM: " + fs_osm_silo_p.getFeatures().size() + "\n");
         
-        positionPointToPoint(fs_atkis_silo_p, fs_osm_silo_p, 1.0);
-        positionPointToPoint(fs_atkis_silo_p, fs_osm_silo_p, 2.0);
-        positionPointToPoint(fs_atkis_silo_p, fs_osm_silo_p, 5.0);
-        positionPointToPoint(fs_atkis_silo_p, fs_osm_silo_p,10.0);
+        double[] distances_silo = positionPointToPoint(fs_atkis_silo_p, fs_osm_silo_p, new double[]{1.0, 2.0, 5.0, 10.0});
+        printDistanceHistogram(distances_silo, 1.0, 21);
         //#############################################
         //## Ende AX_VorratsbehaelterSpeicherbauwerk ##
         //#############################################
@@ -633,20 +891,11 @@ public class Analyse {
         //######################################################
         //## AX_HistorischesBauwerkOderHistorischeEinrichtung ##
         //######################################################
-        atkisFilter = "OBJART_TXT='AX_HistorischesBauwerkOderHistorischeEinrichtung'";
-        osmFilter = "historic NOT like '' and historic NOT like 'tower' and historic NOT like 'monument'";
-
-        createFilteredShape(fs_sie03_p, atkisFilter, "AX_Historisch", path+"temp/AX_Historisch_P.shp", true);
-        createFilteredShape(fs_sie03_f, atkisFilter, "AX_Historisch", path+"temp/AX_Historisch_F.shp", true);
-        createFilteredShape(fs_osm_p, osmFilter, "Historisch", path+"temp/Historisch_P.shp", false);
-        createFilteredShape(fs_osm_l, osmFilter, "Historisch", path+"temp/Historisch_L.shp", false);
-        createFilteredShape(fs_osm_f, osmFilter, "Historisch", path+"temp/Historisch_F.shp", false);
-
-        SimpleFeatureSource fs_atkis_hist_p = FileDataStoreFinder.getDataStore(new File(path+"temp/AX_Historisch_P.shp")).getFeatureSource();
-        SimpleFeatureSource fs_atkis_hist_f = FileDataStoreFinder.getDataStore(new File(path+"temp/AX_Historisch_F.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_hist_p = FileDataStoreFinder.getDataStore(new File(path+"temp/Historisch_P.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_hist_l = FileDataStoreFinder.getDataStore(new File(path+"temp/Historisch_L.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_hist_f = FileDataStoreFinder.getDataStore(new File(path+"temp/Historisch_F.shp")).getFeatureSource();
+        SimpleFeatureSource fs_atkis_hist_p = ebenen.get("AX_Historisch_P");
+        SimpleFeatureSource fs_atkis_hist_f = ebenen.get("AX_Historisch_F");
+        SimpleFeatureSource fs_osm_hist_p = ebenen.get("Historisch_P");
+        SimpleFeatureSource fs_osm_hist_l = ebenen.get("Historisch_L");
+        SimpleFeatureSource fs_osm_hist_f = ebenen.get("Historisch_F");
 
         System.out.print("Anzahl Historisch-Objekt ATKIS: " + fs_atkis_hist_p.getFeatures().size() + "\n");
         System.out.print("Anzahl Historisch-Objekt OSM: " + fs_osm_hist_p.getFeatures().size() + "\n");
@@ -665,11 +914,8 @@ public class Analyse {
         System.out.print("Anzahl Historisch-Objekt ATKIS: " + fs_atkis_hist_p.getFeatures().size() + "\n");
         System.out.print("Anzahl Historisch-Objekt OSM: " + fs_osm_hist_p.getFeatures().size() + "\n");
         
-        positionPointToPoint(fs_atkis_hist_p, fs_osm_hist_p, 1.0);
-        positionPointToPoint(fs_atkis_hist_p, fs_osm_hist_p, 2.0);
-        positionPointToPoint(fs_atkis_hist_p, fs_osm_hist_p, 5.0);
-        positionPointToPoint(fs_atkis_hist_p, fs_osm_hist_p,10.0);
-        positionPointToPoint(fs_atkis_hist_p, fs_osm_hist_p,20.0);
+        double[] distances_hist = positionPointToPoint(fs_atkis_hist_p, fs_osm_hist_p, new double[]{1.0, 2.0, 5.0, 10.0, 20.0});
+        printDistanceHistogram(distances_hist, 1.0, 21);
         //###########################################################
         //## Ende AX_HistorischesBauwerkOderHistorischeEinrichtung ##
         //###########################################################
@@ -678,18 +924,10 @@ public class Analyse {
         //#######################################################
         //## AX_SonstigesBauwerkOderSonstigeEinrichtung Punkte ##
         //#######################################################
-        atkisFilter = "OBJART_TXT='AX_SonstigesBauwerkOderSonstigeEinrichtung'";
-        osmFilter = "historic='monument' or historic='boundary_stone' or historic='milestone' or historic='rune_stone' or historic='highwater_mark' or amenity='fountain' or boundary='marker'";
-
-        createFilteredShape(fs_sie03_p, atkisFilter, "Sonstiges", path+"temp/AX_Sonstiges_P.shp", true); // 9309
-        createFilteredShape(fs_osm_p, osmFilter, "SonstigesP", path+"temp/SonstigesP_P.shp", false); // 1942
-        createFilteredShape(fs_osm_l, osmFilter, "SonstigesP", path+"temp/SonstigesP_L.shp", false); // 0
-        createFilteredShape(fs_osm_f, osmFilter, "SonstigesP", path+"temp/SonstigesP_F.shp", false); // 34
-
-        SimpleFeatureSource fs_atkis_sonstiges_p = FileDataStoreFinder.getDataStore(new File(path+"temp/AX_Sonstiges_P.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_sonstigesP_p = FileDataStoreFinder.getDataStore(new File(path+"temp/SonstigesP_P.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_sonstigesP_l = FileDataStoreFinder.getDataStore(new File(path+"temp/SonstigesP_L.shp")).getFeatureSource();
-        SimpleFeatureSource fs_osm_sonstigesP_f = FileDataStoreFinder.getDataStore(new File(path+"temp/SonstigesP_F.shp")).getFeatureSource();
+        SimpleFeatureSource fs_atkis_sonstiges_p = ebenen.get("AX_Sonstiges_P");
+        SimpleFeatureSource fs_osm_sonstigesP_p = ebenen.get("SonstigesP_P");
+        SimpleFeatureSource fs_osm_sonstigesP_l = ebenen.get("SonstigesP_L");
+        SimpleFeatureSource fs_osm_sonstigesP_f = ebenen.get("SonstigesP_F");
 
         System.out.print("Anzahl Sonstiges-Objekt ATKIS: " + fs_atkis_sonstiges_p.getFeatures().size() + "\n");
         System.out.print("Anzahl Sonstiges-Objekt OSM: " + fs_osm_sonstigesP_p.getFeatures().size() + "\n");
@@ -710,9 +948,8 @@ public class Analyse {
         System.out.print("Anzahl Sonstiges-Objekt ATKIS: " + fs_atkis_sonstiges_p.getFeatures().size() + "\n");// 
         System.out.print("Anzahl Sonstiges-Objekt OSM: " + fs_osm_sonstigesP_p.getFeatures().size() + "\n");	// 
         
-        positionPointToPoint(fs_atkis_sonstiges_p, fs_osm_sonstigesP_p, 1.0); // 42
-        positionPointToPoint(fs_atkis_sonstiges_p, fs_osm_sonstigesP_p, 2.0); // 64
-        positionPointToPoint(fs_atkis_sonstiges_p, fs_osm_sonstigesP_p, 5.0); // 115
+        double[] distances_sonstiges = positionPointToPoint(fs_atkis_sonstiges_p, fs_osm_sonstigesP_p, new double[]{1.0, 2.0, 5.0}); // 42 | 64 | 115
+        printDistanceHistogram(distances_sonstiges, 1.0, 21);
         //############################################################
         //## Ende AX_SonstigesBauwerkOderSonstigeEinrichtung Punkte ##
         //############################################################
@@ -721,18 +958,10 @@ public class Analyse {
       //############################################
       //## AX_EinrichtungInOeffentlichenBereichen ##
       //############################################
-      atkisFilter = "OBJART_TXT='AX_EinrichtungInOeffentlichenBereichen'";
-      osmFilter = "amenity NOT like '' and amenity NOT like 'fountain'";
-
-      createFilteredShape(fs_sie03_p, atkisFilter, "AX_Oeffentlich", path+"temp/AX_Oeffentlich_P.shp", true); // 2383
-      createFilteredShape(fs_osm_p, osmFilter, "Oeffentlich", path+"temp/Oeffentlich_P.shp", false); // 35474
-      createFilteredShape(fs_osm_l, osmFilter, "Oeffentlich", path+"temp/Oeffentlich_L.shp", false); // 78
-      createFilteredShape(fs_osm_f, osmFilter, "Oeffentlich", path+"temp/Oeffentlich_F.shp", false); // 7232
-
-      SimpleFeatureSource fs_atkis_oeffentlich_p = FileDataStoreFinder.getDataStore(new File(path+"temp/AX_Oeffentlich_P.shp")).getFeatureSource();
-      SimpleFeatureSource fs_osm_oeffentlich_p = FileDataStoreFinder.getDataStore(new File(path+"temp/Oeffentlich_P.shp")).getFeatureSource();
-      SimpleFeatureSource fs_osm_oeffentlich_l = FileDataStoreFinder.getDataStore(new File(path+"temp/Oeffentlich_L.shp")).getFeatureSource();
-      SimpleFeatureSource fs_osm_oeffentlich_f = FileDataStoreFinder.getDataStore(new File(path+"temp/Oeffentlich_F.shp")).getFeatureSource();
+      SimpleFeatureSource fs_atkis_oeffentlich_p = ebenen.get("AX_Oeffentlich_P");
+      SimpleFeatureSource fs_osm_oeffentlich_p = ebenen.get("Oeffentlich_P");
+      SimpleFeatureSource fs_osm_oeffentlich_l = ebenen.get("Oeffentlich_L");
+      SimpleFeatureSource fs_osm_oeffentlich_f = ebenen.get("Oeffentlich_F");
 
       convertAreaToPoint(fs_osm_oeffentlich_l, fs_osm_oeffentlich_p); // 2
       convertAreaToPoint(fs_osm_oeffentlich_f, fs_osm_oeffentlich_p); // 7232
@@ -751,11 +980,8 @@ public class Analyse {
       System.out.print("Anzahl Oeffentlich-Objekt ATKIS: " + fs_atkis_oeffentlich_p.getFeatures().size() + "\n"); // 2383
       System.out.print("Anzahl Oeffentlich-Objekt OSM: " + fs_osm_oeffentlich_p.getFeatures().size() + "\n");	// 38157
       
-      positionPointToPoint(fs_atkis_oeffentlich_p, fs_osm_oeffentlich_p, 1.0); // 0 sowohl Punkte als auch Flächenpunkte
-      positionPointToPoint(fs_atkis_oeffentlich_p, fs_osm_oeffentlich_p, 2.0); // 0
-      positionPointToPoint(fs_atkis_oeffentlich_p, fs_osm_oeffentlich_p, 5.0); // 1
-      positionPointToPoint(fs_atkis_oeffentlich_p, fs_osm_oeffentlich_p,10.0); // 3
-      positionPointToPoint(fs_atkis_oeffentlich_p, fs_osm_oeffentlich_p,20.0); // 11
+      double[] distances_oeffentlich = positionPointToPoint(fs_atkis_oeffentlich_p, fs_osm_oeffentlich_p, new double[]{1.0, 2.0, 5.0, 10.0, 20.0}); // 0 | 0 | 1 | 3 | 11 (sowohl Punkte als auch Flächenpunkte)
+      printDistanceHistogram(distances_oeffentlich, 1.0, 21);
       //#################################################
       //## Ende AX_EinrichtungInOeffentlichenBereichen ##
       //#################################################
@@ -772,7 +998,7 @@ public class Analyse {
     System.out.print("Gesamtsumme Einzelflächen: " + df.format(totalarea_sie02_f) + "\n");
     System.out.print("Fläche Gesamtgeometrie: " + df.format(union_sie02_f.getArea()) + "\n");
 	System.out.print("Flächenunterschied intrinsisch in sie02_f: " + df.format(deltaarea_sie02_f) + "\n");
-	System.out.println("Anzahl Polygone: " + fs_sie02_f.getFeatures().size());
+	System.out.println("Anzahl Polygone: " + countFeatures(fs_sie02_f));
 	
 	//Intrinsische Überdeckungsprüfung OSM
 	System.out.println("### Intrinsische Überdeckungsprüfung OSM ###");
@@ -782,7 +1008,13 @@ public class Analyse {
     System.out.print("Gesamtsumme Einzelflächen: " + df.format(totalarea_osm_landuse_f) + "\n");
     System.out.print("Fläche Gesamtgeometrie: " + df.format(union_osm_landuse_f.getArea()) + "\n");
 	System.out.print("Flächenunterschied intrinsisch in OSM Landuse: " + df.format(deltaarea_osm_landuse_f) + "\n");
-	System.out.println("Anzahl Polygone: " + fs_osm_landuse_f.getFeatures().size());
+	System.out.println("Anzahl Polygone: " + countFeatures(fs_osm_landuse_f));
+	System.out.println("######");
+	
+	//Thematische Genauigkeit: Konfusionsmatrix aller ATKIS-Klassen mit allen OSM-Landuse-Werten in einer Verschneidung
+	System.out.println("### Konfusionsmatrix sie02_f (OBJART_TXT) / OSM Landuse (landuse) ###");
+	KonfusionsMatrix konfusion = KonfusionsMatrix.compute(fs_sie02_f, "OBJART_TXT", fs_osm_landuse_f, "landuse");
+	konfusion.print(df);
 	System.out.println("######");
     //############################
     //## Ende sie02_f / landuse ##
@@ -791,18 +1023,10 @@ public class Analyse {
 	//##############
 	//## AX_Halde ##
 	//##############
-	atkisFilter = "OBJART_TXT='AX_Halde'";
-	osmFilter = "landuse='landfill'";
-	
-	createFilteredShape(fs_sie02_f, atkisFilter, "AX_Halde", path+"temp/AX_Halde_F.shp", true);
-	createFilteredShape(fs_osm_landuse_p, osmFilter, "Halde", path+"temp/Halde_P.shp", false);
-	createFilteredShape(fs_osm_landuse_l, osmFilter, "Halde", path+"temp/Halde_L.shp", false);
-	createFilteredShape(fs_osm_landuse_f, osmFilter, "Halde", path+"temp/Halde_F.shp", false);
-	
-	SimpleFeatureSource fs_atkis_halde_f = FileDataStoreFinder.getDataStore(new File(path+"temp/AX_Halde_F.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_halde_p = FileDataStoreFinder.getDataStore(new File(path+"temp/Halde_P.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_halde_l = FileDataStoreFinder.getDataStore(new File(path+"temp/Halde_L.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_halde_f = FileDataStoreFinder.getDataStore(new File(path+"temp/Halde_F.shp")).getFeatureSource();
+	SimpleFeatureSource fs_atkis_halde_f = ebenen.get("AX_Halde_F");
+	SimpleFeatureSource fs_osm_halde_p = ebenen.get("Halde_P");
+	SimpleFeatureSource fs_osm_halde_l = ebenen.get("Halde_L");
+	SimpleFeatureSource fs_osm_halde_f = ebenen.get("Halde_F");
 	
 	double totalarea_atkis_halde = calculateArea(fs_atkis_halde_f);
 	double totalarea_osm_halde = calculateArea(fs_osm_halde_f);
@@ -824,14 +1048,10 @@ public class Analyse {
 	System.out.print("Gesamtfläche OSM-Halde: " + df.format(union_osm_halde.getArea()) + "\n");
 	
 	System.out.print("Überschneidungsfläche Halde: " + df.format(union_atkis_halde.intersection(union_osm_halde).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche Halde (5m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_halde_f, 5.0).intersection(union_osm_halde).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche Halde (10m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_halde_f, 10.0).intersection(union_osm_halde).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche Halde (15m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_halde_f, 15.0).intersection(union_osm_halde).getArea()) + "\n");
+	double[] bufferarea_halde = printBufferedIntersectionAreas("Halde", union_atkis_halde, union_osm_halde, new double[]{5.0, 10.0, 15.0});
 	
 	//Thematische Genauigkeit
-	osmFilter = "landuse NOT LIKE 'landfill'";
-	Geometry union_osm_nicht_halde = bufferedUnionGeometry(fs_osm_landuse_f, 0.0, osmFilter);
-	System.out.print("Überschneidungsfläche ATKIS-Halde mit OSM-Nicht-Halde: " + df.format(union_atkis_halde.intersection(union_osm_nicht_halde).getArea()) + "\n");
+	System.out.print("Überschneidungsfläche ATKIS-Halde mit OSM-Nicht-Halde: " + df.format(konfusion.rowSumExcluding("AX_Halde", "landfill")) + "\n");
 	
 //	//Ausgabe für Excel
 //	System.out.print("Intrinsische Datensatzparameter\t\t\t\n");
@@ -841,12 +1061,12 @@ public class Analyse {
 //	System.out.print("Intrinsische Überlappung\t"+df.format(deltaarea_atkis_halde)+"\t"+df.format(deltaarea_osm_halde)+"\n");
 //	System.out.print("Verschneiden von ATKIS und OSM\t\t\t\n");
 //	System.out.print(" 0 m Buffer\t"+df.format(union_atkis_halde.intersection(union_osm_halde).getArea())+"\tkm²\t\n");
-//	System.out.print(" 5 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_halde_f, 5.0).intersection(union_osm_halde).getArea())+"\tkm²\t\n");
-//	System.out.print("10 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_halde_f, 10.0).intersection(union_osm_halde).getArea())+"\tkm²\t\n");
-//	System.out.print("15 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_halde_f, 15.0).intersection(union_osm_halde).getArea())+"\tkm²\t\n");
+//	System.out.print(" 5 m Buffer\t"+df.format(bufferarea_halde[0])+"\tkm²\t\n");
+//	System.out.print("10 m Buffer\t"+df.format(bufferarea_halde[1])+"\tkm²\t\n");
+//	System.out.print("15 m Buffer\t"+df.format(bufferarea_halde[2])+"\tkm²\t\n");
 //	System.out.print("\t\t\t\n");
 //	System.out.print("Verschneiden von AX_Halde mit OSM-Nicht-Halde-Daten\t\t\t\n");
-//	System.out.print("\t"+df.format(union_atkis_halde.intersection(union_osm_nicht_halde).getArea())+"\tkm²\t\n");
+//	System.out.print("\t"+df.format(konfusion.rowSumExcluding("AX_Halde", "landfill"))+"\tkm²\t\n");
 	//###################
 	//## Ende AX_Halde ##
 	//###################
@@ -855,18 +1075,10 @@ public class Analyse {
 	//#################
 	//## AX_Friedhof ##
 	//#################
-	atkisFilter = "OBJART_TXT='AX_Friedhof'";
-	osmFilter = "landuse='cemetery'";
-	
-	createFilteredShape(fs_sie02_f, atkisFilter, "AX_Friedhof", path+"temp/AX_Friedhof_F.shp", true);
-	createFilteredShape(fs_osm_landuse_p, osmFilter, "Friedhof", path+"temp/Friedhof_P.shp", false);
-	createFilteredShape(fs_osm_landuse_l, osmFilter, "Friedhof", path+"temp/Friedhof_L.shp", false);
-	createFilteredShape(fs_osm_landuse_f, osmFilter, "Friedhof", path+"temp/Friedhof_F.shp", false);
-	
-	SimpleFeatureSource fs_atkis_friedhof_f = FileDataStoreFinder.getDataStore(new File(path+"temp/AX_Friedhof_F.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_friedhof_p = FileDataStoreFinder.getDataStore(new File(path+"temp/Friedhof_P.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_friedhof_l = FileDataStoreFinder.getDataStore(new File(path+"temp/Friedhof_L.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_friedhof_f = FileDataStoreFinder.getDataStore(new File(path+"temp/Friedhof_F.shp")).getFeatureSource();
+	SimpleFeatureSource fs_atkis_friedhof_f = ebenen.get("AX_Friedhof_F");
+	SimpleFeatureSource fs_osm_friedhof_p = ebenen.get("Friedhof_P");
+	SimpleFeatureSource fs_osm_friedhof_l = ebenen.get("Friedhof_L");
+	SimpleFeatureSource fs_osm_friedhof_f = ebenen.get("Friedhof_F");
 	
 	double totalarea_atkis_friedhof = calculateArea(fs_atkis_friedhof_f);
 	double totalarea_osm_friedhof = calculateArea(fs_osm_friedhof_f);
@@ -884,14 +1096,10 @@ public class Analyse {
 	System.out.print("Gesamtfläche OSM-Friedhof: " + df.format(union_osm_friedhof.getArea()) + "\n");
 	
 	System.out.print("Überschneidungsfläche Friedhof: " + df.format(union_atkis_friedhof.intersection(union_osm_friedhof).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche Friedhof (5m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_friedhof_f, 5.0).intersection(union_osm_friedhof).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche Friedhof (10m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_friedhof_f, 10.0).intersection(union_osm_friedhof).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche Friedhof (15m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_friedhof_f, 15.0).intersection(union_osm_friedhof).getArea()) + "\n");
+	double[] bufferarea_friedhof = printBufferedIntersectionAreas("Friedhof", union_atkis_friedhof, union_osm_friedhof, new double[]{5.0, 10.0, 15.0});
 	
 	//Thematische Genauigkeit
-	osmFilter = "landuse NOT LIKE 'cemetery'";
-	Geometry union_osm_nicht_friedhof = bufferedUnionGeometry(fs_osm_landuse_f, 0.0, osmFilter);
-	System.out.print("Überschneidungsfläche ATKIS-Friedhof mit OSM-Nicht-Friedhof: " + df.format(union_atkis_friedhof.intersection(union_osm_nicht_friedhof).getArea()) + "\n");
+	System.out.print("Überschneidungsfläche ATKIS-Friedhof mit OSM-Nicht-Friedhof: " + df.format(konfusion.rowSumExcluding("AX_Friedhof", "cemetery")) + "\n");
 
 //	//Ausgabe für Excel
 //	System.out.print("Intrinsische Datensatzparameter\t\t\t\n");
@@ -901,12 +1109,12 @@ public class Analyse {
 //	System.out.print("Intrinsische Überlappung\t"+df.format(deltaarea_atkis_friedhof)+"\t"+df.format(deltaarea_osm_friedhof)+"\n");
 //	System.out.print("Verschneiden von ATKIS und OSM\t\t\t\n");
 //	System.out.print(" 0 m Buffer\t"+df.format(union_atkis_friedhof.intersection(union_osm_friedhof).getArea())+"\tkm²\t\n");
-//	System.out.print(" 5 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_friedhof_f, 5.0).intersection(union_osm_friedhof).getArea())+"\tkm²\t\n");
-//	System.out.print("10 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_friedhof_f, 10.0).intersection(union_osm_friedhof).getArea())+"\tkm²\t\n");
-//	System.out.print("15 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_friedhof_f, 15.0).intersection(union_osm_friedhof).getArea())+"\tkm²\t\n");
+//	System.out.print(" 5 m Buffer\t"+df.format(bufferarea_friedhof[0])+"\tkm²\t\n");
+//	System.out.print("10 m Buffer\t"+df.format(bufferarea_friedhof[1])+"\tkm²\t\n");
+//	System.out.print("15 m Buffer\t"+df.format(bufferarea_friedhof[2])+"\tkm²\t\n");
 //	System.out.print("\t\t\t\n");
 //	System.out.print("Verschneiden von AX_Friedhof mit OSM-Nicht-Friedhof-Daten\t\t\t\n");
-//	System.out.print("\t"+df.format(union_atkis_friedhof.intersection(union_osm_nicht_friedhof).getArea())+"\tkm²\t\n");
+//	System.out.print("\t"+df.format(konfusion.rowSumExcluding("AX_Friedhof", "cemetery"))+"\tkm²\t\n");
 	//######################
 	//## Ende AX_Friedhof ##
 	//######################
@@ -915,18 +1123,10 @@ public class Analyse {
 	//#######################
 	//## AX_Wohnbauflaeche ##
 	//#######################
-	atkisFilter = "OBJART_TXT='AX_Wohnbauflaeche'";
-	osmFilter = "landuse='residential'";
-	
-	createFilteredShape(fs_sie02_f, atkisFilter, "AX_Wohnbauflaeche", path+"temp/AX_Wohnbauflaeche_F.shp", true);
-	createFilteredShape(fs_osm_landuse_p, osmFilter, "Wohnbauflaeche", path+"temp/Wohnbauflaeche_P.shp", false);
-	createFilteredShape(fs_osm_landuse_l, osmFilter, "Wohnbauflaeche", path+"temp/Wohnbauflaeche_L.shp", false);
-	createFilteredShape(fs_osm_landuse_f, osmFilter, "Wohnbauflaeche", path+"temp/Wohnbauflaeche_F.shp", false);
-	
-	SimpleFeatureSource fs_atkis_wohnbauflaeche_f = FileDataStoreFinder.getDataStore(new File(path+"temp/AX_Wohnbauflaeche_F.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_wohnbauflaeche_p = FileDataStoreFinder.getDataStore(new File(path+"temp/Wohnbauflaeche_P.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_wohnbauflaeche_l = FileDataStoreFinder.getDataStore(new File(path+"temp/Wohnbauflaeche_L.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_wohnbauflaeche_f = FileDataStoreFinder.getDataStore(new File(path+"temp/Wohnbauflaeche_F.shp")).getFeatureSource();
+	SimpleFeatureSource fs_atkis_wohnbauflaeche_f = ebenen.get("AX_Wohnbauflaeche_F");
+	SimpleFeatureSource fs_osm_wohnbauflaeche_p = ebenen.get("Wohnbauflaeche_P");
+	SimpleFeatureSource fs_osm_wohnbauflaeche_l = ebenen.get("Wohnbauflaeche_L");
+	SimpleFeatureSource fs_osm_wohnbauflaeche_f = ebenen.get("Wohnbauflaeche_F");
 	
 	double totalarea_atkis_wohnbauflaeche = calculateArea(fs_atkis_wohnbauflaeche_f);
 	double totalarea_osm_wohnbauflaeche = calculateArea(fs_osm_wohnbauflaeche_f);
@@ -944,14 +1144,10 @@ public class Analyse {
 	System.out.print("Gesamtfläche OSM-Wohnbauflaeche: " + df.format(union_osm_wohnbauflaeche.getArea()) + "\n");
 	
 	System.out.print("Überschneidungsfläche Wohnbauflaeche: " + df.format(union_atkis_wohnbauflaeche.intersection(union_osm_wohnbauflaeche).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche Wohnbauflaeche (5m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_wohnbauflaeche_f, 5.0).intersection(union_osm_wohnbauflaeche).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche Wohnbauflaeche (10m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_wohnbauflaeche_f, 10.0).intersection(union_osm_wohnbauflaeche).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche Wohnbauflaeche (15m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_wohnbauflaeche_f, 15.0).intersection(union_osm_wohnbauflaeche).getArea()) + "\n");
+	double[] bufferarea_wohnbauflaeche = printBufferedIntersectionAreas("Wohnbauflaeche", union_atkis_wohnbauflaeche, union_osm_wohnbauflaeche, new double[]{5.0, 10.0, 15.0});
 	
 	//Thematische Genauigkeit
-	osmFilter = "landuse NOT LIKE 'residential'";
-	Geometry union_osm_nicht_wohnbauflaeche = bufferedUnionGeometry(fs_osm_landuse_f, 0.0, osmFilter);
-	System.out.print("Überschneidungsfläche ATKIS-Wohnbauflaeche mit OSM-Nicht-Wohnbauflaeche: " + df.format(union_atkis_wohnbauflaeche.intersection(union_osm_nicht_wohnbauflaeche).getArea()) + "\n");
+	System.out.print("Überschneidungsfläche ATKIS-Wohnbauflaeche mit OSM-Nicht-Wohnbauflaeche: " + df.format(konfusion.rowSumExcluding("AX_Wohnbauflaeche", "residential")) + "\n");
 
 //	//Ausgabe für Excel
 //	System.out.print("Intrinsische Datensatzparameter\t\t\t\n");
@@ -961,12 +1157,12 @@ public class Analyse {
 //	System.out.print("Intrinsische Überlappung\t"+df.format(deltaarea_atkis_wohnbauflaeche)+"\t"+df.format(deltaarea_osm_wohnbauflaeche)+"\n");
 //	System.out.print("Verschneiden von ATKIS und OSM\t\t\t\n");
 //	System.out.print(" 0 m Buffer\t"+df.format(union_atkis_wohnbauflaeche.intersection(union_osm_wohnbauflaeche).getArea())+"\tkm²\t\n");
-//	System.out.print(" 5 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_wohnbauflaeche_f, 5.0).intersection(union_osm_wohnbauflaeche).getArea())+"\tkm²\t\n");
-//	System.out.print("10 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_wohnbauflaeche_f, 10.0).intersection(union_osm_wohnbauflaeche).getArea())+"\tkm²\t\n");
-//	System.out.print("15 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_wohnbauflaeche_f, 15.0).intersection(union_osm_wohnbauflaeche).getArea())+"\tkm²\t\n");
+//	System.out.print(" 5 m Buffer\t"+df.format(bufferarea_wohnbauflaeche[0])+"\tkm²\t\n");
+//	System.out.print("10 m Buffer\t"+df.format(bufferarea_wohnbauflaeche[1])+"\tkm²\t\n");
+//	System.out.print("15 m Buffer\t"+df.format(bufferarea_wohnbauflaeche[2])+"\tkm²\t\n");
 //	System.out.print("\t\t\t\n");
 //	System.out.print("Verschneiden von AX_Wohnbauflaeche mit OSM-Nicht-Wohnbauflaeche-Daten\t\t\t\n");
-//	System.out.print("\t"+df.format(union_atkis_wohnbauflaeche.intersection(union_osm_nicht_wohnbauflaeche).getArea())+"\tkm²\t\n");
+//	System.out.print("\t"+df.format(konfusion.rowSumExcluding("AX_Wohnbauflaeche", "residential"))+"\tkm²\t\n");
 	//############################
 	//## Ende AX_Wohnbauflaeche ##
 	//############################
@@ -975,18 +1171,10 @@ public class Analyse {
 	//#########################################
 	//## AX_SportFreizeitUndErholungsflaeche ##
 	//#########################################
-	atkisFilter = "OBJART_TXT='AX_SportFreizeitUndErholungsflaeche'";
-	osmFilter = "landuse='recreation_ground' or landuse='grass' or landuse='allotments'";
-	
-	createFilteredShape(fs_sie02_f, atkisFilter, "AX_SportFreizeitUndErholungsflaeche", path+"temp/AX_SportFreizeitUndErholungsflaeche_F.shp", true);
-	createFilteredShape(fs_osm_landuse_p, osmFilter, "SportFreizeitUndErholungsflaeche", path+"temp/SportFreizeitUndErholungsflaeche_P.shp", false);
-	createFilteredShape(fs_osm_landuse_l, osmFilter, "SportFreizeitUndErholungsflaeche", path+"temp/SportFreizeitUndErholungsflaeche_L.shp", false);
-	createFilteredShape(fs_osm_landuse_f, osmFilter, "SportFreizeitUndErholungsflaeche", path+"temp/SportFreizeitUndErholungsflaeche_F.shp", false);
-	
-	SimpleFeatureSource fs_atkis_sportfreizeit_f = FileDataStoreFinder.getDataStore(new File(path+"temp/AX_SportFreizeitUndErholungsflaeche_F.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_sportfreizeit_p = FileDataStoreFinder.getDataStore(new File(path+"temp/SportFreizeitUndErholungsflaeche_P.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_sportfreizeit_l = FileDataStoreFinder.getDataStore(new File(path+"temp/SportFreizeitUndErholungsflaeche_L.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_sportfreizeit_f = FileDataStoreFinder.getDataStore(new File(path+"temp/SportFreizeitUndErholungsflaeche_F.shp")).getFeatureSource();
+	SimpleFeatureSource fs_atkis_sportfreizeit_f = ebenen.get("AX_SportFreizeitUndErholungsflaeche_F");
+	SimpleFeatureSource fs_osm_sportfreizeit_p = ebenen.get("SportFreizeitUndErholungsflaeche_P");
+	SimpleFeatureSource fs_osm_sportfreizeit_l = ebenen.get("SportFreizeitUndErholungsflaeche_L");
+	SimpleFeatureSource fs_osm_sportfreizeit_f = ebenen.get("SportFreizeitUndErholungsflaeche_F");
 	
 	double totalarea_atkis_sportfreizeit = calculateArea(fs_atkis_sportfreizeit_f);
 	double totalarea_osm_sportfreizeit = calculateArea(fs_osm_sportfreizeit_f);
@@ -1004,14 +1192,10 @@ public class Analyse {
 	System.out.print("Gesamtfläche OSM-SportFreizeitUndErholungsflaeche: " + df.format(union_osm_sportfreizeit.getArea()) + "\n");
 	
 	System.out.print("Überschneidungsfläche SportFreizeitUndErholungsflaeche: " + df.format(union_atkis_sportfreizeit.intersection(union_osm_sportfreizeit).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche SportFreizeitUndErholungsflaeche (5m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_sportfreizeit_f, 5.0).intersection(union_osm_sportfreizeit).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche SportFreizeitUndErholungsflaeche (10m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_sportfreizeit_f, 10.0).intersection(union_osm_sportfreizeit).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche SportFreizeitUndErholungsflaeche (15m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_sportfreizeit_f, 15.0).intersection(union_osm_sportfreizeit).getArea()) + "\n");
+	double[] bufferarea_sportfreizeit = printBufferedIntersectionAreas("SportFreizeitUndErholungsflaeche", union_atkis_sportfreizeit, union_osm_sportfreizeit, new double[]{5.0, 10.0, 15.0});
 	
 	//Thematische Genauigkeit
-	osmFilter = "landuse NOT LIKE 'recreation_ground' and landuse NOT LIKE 'grass' and landuse NOT LIKE 'allotments'";
-	Geometry union_osm_nicht_sportfreizeit = bufferedUnionGeometry(fs_osm_landuse_f, 0.0, osmFilter);
-	System.out.print("Überschneidungsfläche ATKIS-SportFreizeitUndErholungsflaeche mit OSM-Nicht-SportFreizeitUndErholungsflaeche: " + df.format(union_atkis_sportfreizeit.intersection(union_osm_nicht_sportfreizeit).getArea()) + "\n");
+	System.out.print("Überschneidungsfläche ATKIS-SportFreizeitUndErholungsflaeche mit OSM-Nicht-SportFreizeitUndErholungsflaeche: " + df.format(konfusion.rowSumExcluding("AX_SportFreizeitUndErholungsflaeche", "recreation_ground", "grass", "allotments")) + "\n");
 
 //	//Ausgabe für Excel
 //	System.out.print("Intrinsische Datensatzparameter\t\t\t\n");
@@ -1021,12 +1205,12 @@ public class Analyse {
 //	System.out.print("Intrinsische Überlappung\t"+df.format(deltaarea_atkis_sportfreizeit)+"\t"+df.format(deltaarea_osm_sportfreizeit)+"\n");
 //	System.out.print("Verschneiden von ATKIS und OSM\t\t\t\n");
 //	System.out.print(" 0 m Buffer\t"+df.format(union_atkis_sportfreizeit.intersection(union_osm_sportfreizeit).getArea())+"\tkm²\t\n");
-//	System.out.print(" 5 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_sportfreizeit_f, 5.0).intersection(union_osm_sportfreizeit).getArea())+"\tkm²\t\n");
-//	System.out.print("10 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_sportfreizeit_f, 10.0).intersection(union_osm_sportfreizeit).getArea())+"\tkm²\t\n");
-//	System.out.print("15 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_sportfreizeit_f, 15.0).intersection(union_osm_sportfreizeit).getArea())+"\tkm²\t\n");
+//	System.out.print(" 5 m Buffer\t"+df.format(bufferarea_sportfreizeit[0])+"\tkm²\t\n");
+//	System.out.print("10 m Buffer\t"+df.format(bufferarea_sportfreizeit[1])+"\tkm²\t\n");
+//	System.out.print("15 m Buffer\t"+df.format(bufferarea_sportfreizeit[2])+"\tkm²\t\n");
 //	System.out.print("\t\t\t\n");
 //	System.out.print("Verschneiden von AX_SportFreizeitUndErholungsflaeche mit OSM-Nicht-SportFreizeitUndErholungsflaeche-Daten\t\t\t\n");
-//	System.out.print("\t"+df.format(union_atkis_sportfreizeit.intersection(union_osm_nicht_sportfreizeit).getArea())+"\tkm²\t\n");
+//	System.out.print("\t"+df.format(konfusion.rowSumExcluding("AX_SportFreizeitUndErholungsflaeche", "recreation_ground", "grass", "allotments"))+"\tkm²\t\n");
 	//##############################################
 	//## Ende AX_SportFreizeitUndErholungsflaeche ##
 	//##############################################
@@ -1035,18 +1219,10 @@ public class Analyse {
 	//###################################
 	//## AX_IndustrieUndGewerbeflaeche ##
 	//###################################
-	atkisFilter = "OBJART_TXT='AX_IndustrieUndGewerbeflaeche'";
-	osmFilter = "landuse='industrial' or landuse='commercial' or landuse='retail'";
-	
-	createFilteredShape(fs_sie02_f, atkisFilter, "AX_IndustrieUndGewerbeflaeche", path+"temp/AX_IndustrieUndGewerbeflaeche_F.shp", true);
-	createFilteredShape(fs_osm_landuse_p, osmFilter, "IndustrieUndGewerbeflaeche", path+"temp/IndustrieUndGewerbeflaeche_P.shp", false);
-	createFilteredShape(fs_osm_landuse_l, osmFilter, "IndustrieUndGewerbeflaeche", path+"temp/IndustrieUndGewerbeflaeche_L.shp", false);
-	createFilteredShape(fs_osm_landuse_f, osmFilter, "IndustrieUndGewerbeflaeche", path+"temp/IndustrieUndGewerbeflaeche_F.shp", false);
-	
-	SimpleFeatureSource fs_atkis_industrie_f = FileDataStoreFinder.getDataStore(new File(path+"temp/AX_IndustrieUndGewerbeflaeche_F.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_industrie_p = FileDataStoreFinder.getDataStore(new File(path+"temp/IndustrieUndGewerbeflaeche_P.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_industrie_l = FileDataStoreFinder.getDataStore(new File(path+"temp/IndustrieUndGewerbeflaeche_L.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_industrie_f = FileDataStoreFinder.getDataStore(new File(path+"temp/IndustrieUndGewerbeflaeche_F.shp")).getFeatureSource();
+	SimpleFeatureSource fs_atkis_industrie_f = ebenen.get("AX_IndustrieUndGewerbeflaeche_F");
+	SimpleFeatureSource fs_osm_industrie_p = ebenen.get("IndustrieUndGewerbeflaeche_P");
+	SimpleFeatureSource fs_osm_industrie_l = ebenen.get("IndustrieUndGewerbeflaeche_L");
+	SimpleFeatureSource fs_osm_industrie_f = ebenen.get("IndustrieUndGewerbeflaeche_F");
 	
 	double totalarea_atkis_industrie = calculateArea(fs_atkis_industrie_f);
 	double totalarea_osm_industrie = calculateArea(fs_osm_industrie_f);
@@ -1064,14 +1240,10 @@ public class Analyse {
 	System.out.print("Gesamtfläche OSM-IndustrieUndGewerbeflaeche: " + df.format(union_osm_industrie.getArea()) + "\n");
 	
 	System.out.print("Überschneidungsfläche IndustrieUndGewerbeflaeche: " + df.format(union_atkis_industrie.intersection(union_osm_industrie).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche IndustrieUndGewerbeflaeche (5m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_industrie_f, 5.0).intersection(union_osm_industrie).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche IndustrieUndGewerbeflaeche (10m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_industrie_f, 10.0).intersection(union_osm_industrie).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche IndustrieUndGewerbeflaeche (15m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_industrie_f, 15.0).intersection(union_osm_industrie).getArea()) + "\n");
+	double[] bufferarea_industrie = printBufferedIntersectionAreas("IndustrieUndGewerbeflaeche", union_atkis_industrie, union_osm_industrie, new double[]{5.0, 10.0, 15.0});
 	
 	//Thematische Genauigkeit
-	osmFilter = "landuse NOT LIKE 'industrial' and landuse NOT LIKE 'commercial' and landuse NOT LIKE 'retail'";
-	Geometry union_osm_nicht_industrie = bufferedUnionGeometry(fs_osm_landuse_f, 0.0, osmFilter);
-	System.out.print("Überschneidungsfläche ATKIS-IndustrieUndGewerbeflaeche mit OSM-Nicht-IndustrieUndGewerbeflaeche: " + df.format(union_atkis_industrie.intersection(union_osm_nicht_industrie).getArea()) + "\n");
+	System.out.print("Überschneidungsfläche ATKIS-IndustrieUndGewerbeflaeche mit OSM-Nicht-IndustrieUndGewerbeflaeche: " + df.format(konfusion.rowSumExcluding("AX_IndustrieUndGewerbeflaeche", "industrial", "commercial", "retail")) + "\n");
 
 //	//Ausgabe für Excel
 //	System.out.print("Intrinsische Datensatzparameter\t\t\t\n");
@@ -1081,12 +1253,12 @@ public class Analyse {
 //	System.out.print("Intrinsische Überlappung\t"+df.format(deltaarea_atkis_industrie)+"\t"+df.format(deltaarea_osm_industrie)+"\n");
 //	System.out.print("Verschneiden von ATKIS und OSM\t\t\t\n");
 //	System.out.print(" 0 m Buffer\t"+df.format(union_atkis_industrie.intersection(union_osm_industrie).getArea())+"\tkm²\t\n");
-//	System.out.print(" 5 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_industrie_f, 5.0).intersection(union_osm_industrie).getArea())+"\tkm²\t\n");
-//	System.out.print("10 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_industrie_f, 10.0).intersection(union_osm_industrie).getArea())+"\tkm²\t\n");
-//	System.out.print("15 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_industrie_f, 15.0).intersection(union_osm_industrie).getArea())+"\tkm²\t\n");
+//	System.out.print(" 5 m Buffer\t"+df.format(bufferarea_industrie[0])+"\tkm²\t\n");
+//	System.out.print("10 m Buffer\t"+df.format(bufferarea_industrie[1])+"\tkm²\t\n");
+//	System.out.print("15 m Buffer\t"+df.format(bufferarea_industrie[2])+"\tkm²\t\n");
 //	System.out.print("\t\t\t\n");
 //	System.out.print("Verschneiden von AX_IndustrieUndGewerbeflaeche mit OSM-Nicht-IndustrieUndGewerbeflaeche-Daten\t\t\t\n");
-//	System.out.print("\t"+df.format(union_atkis_industrie.intersection(union_osm_nicht_industrie).getArea())+"\tkm²\t\n");
+//	System.out.print("\t"+df.format(konfusion.rowSumExcluding("AX_IndustrieUndGewerbeflaeche", "industrial", "commercial", "retail"))+"\tkm²\t\n");
 	//########################################
 	//## Ende AX_IndustrieUndGewerbeflaeche ##
 	//########################################
@@ -1095,18 +1267,10 @@ public class Analyse {
 	//###############################
 	//## AX_TagebauGrubeSteinbruch ##
 	//###############################
-	atkisFilter = "OBJART_TXT='AX_TagebauGrubeSteinbruch'";
-	osmFilter = "landuse='quarry'";
-	
-	createFilteredShape(fs_sie02_f, atkisFilter, "AX_TagebauGrubeSteinbruch", path+"temp/AX_TagebauGrubeSteinbruch_F.shp", true);
-	createFilteredShape(fs_osm_landuse_p, osmFilter, "TagebauGrubeSteinbruch", path+"temp/TagebauGrubeSteinbruch_P.shp", false);
-	createFilteredShape(fs_osm_landuse_l, osmFilter, "TagebauGrubeSteinbruch", path+"temp/TagebauGrubeSteinbruch_L.shp", false);
-	createFilteredShape(fs_osm_landuse_f, osmFilter, "TagebauGrubeSteinbruch", path+"temp/TagebauGrubeSteinbruch_F.shp", false);
-	
-	SimpleFeatureSource fs_atkis_tagebau_f = FileDataStoreFinder.getDataStore(new File(path+"temp/AX_TagebauGrubeSteinbruch_F.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_tagebau_p = FileDataStoreFinder.getDataStore(new File(path+"temp/TagebauGrubeSteinbruch_P.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_tagebau_l = FileDataStoreFinder.getDataStore(new File(path+"temp/TagebauGrubeSteinbruch_L.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_tagebau_f = FileDataStoreFinder.getDataStore(new File(path+"temp/TagebauGrubeSteinbruch_F.shp")).getFeatureSource();
+	SimpleFeatureSource fs_atkis_tagebau_f = ebenen.get("AX_TagebauGrubeSteinbruch_F");
+	SimpleFeatureSource fs_osm_tagebau_p = ebenen.get("TagebauGrubeSteinbruch_P");
+	SimpleFeatureSource fs_osm_tagebau_l = ebenen.get("TagebauGrubeSteinbruch_L");
+	SimpleFeatureSource fs_osm_tagebau_f = ebenen.get("TagebauGrubeSteinbruch_F");
 	
 	double totalarea_atkis_tagebau = calculateArea(fs_atkis_tagebau_f);
 	double totalarea_osm_tagebau = calculateArea(fs_osm_tagebau_f);
@@ -1124,14 +1288,10 @@ public class Analyse {
 	System.out.print("Gesamtfläche OSM-TagebauGrubeSteinbruch: " + df.format(union_osm_tagebau.getArea()) + "\n");
 	
 	System.out.print("Überschneidungsfläche TagebauGrubeSteinbruch: " + df.format(union_atkis_tagebau.intersection(union_osm_tagebau).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche TagebauGrubeSteinbruch (5m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_tagebau_f, 5.0).intersection(union_osm_tagebau).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche TagebauGrubeSteinbruch (10m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_tagebau_f, 10.0).intersection(union_osm_tagebau).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche TagebauGrubeSteinbruch (15m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_tagebau_f, 15.0).intersection(union_osm_tagebau).getArea()) + "\n");
+	double[] bufferarea_tagebau = printBufferedIntersectionAreas("TagebauGrubeSteinbruch", union_atkis_tagebau, union_osm_tagebau, new double[]{5.0, 10.0, 15.0});
 	
 	//Thematische Genauigkeit
-	osmFilter = "landuse NOT LIKE 'quarry'";
-	Geometry union_osm_nicht_tagebau = bufferedUnionGeometry(fs_osm_landuse_f, 0.0, osmFilter);
-	System.out.print("Überschneidungsfläche ATKIS-TagebauGrubeSteinbruch mit OSM-Nicht-TagebauGrubeSteinbruch: " + df.format(union_atkis_tagebau.intersection(union_osm_nicht_tagebau).getArea()) + "\n");
+	System.out.print("Überschneidungsfläche ATKIS-TagebauGrubeSteinbruch mit OSM-Nicht-TagebauGrubeSteinbruch: " + df.format(konfusion.rowSumExcluding("AX_TagebauGrubeSteinbruch", "quarry")) + "\n");
 
 //	//Ausgabe für Excel
 //	System.out.print("Intrinsische Datensatzparameter\t\t\t\n");
@@ -1141,12 +1301,12 @@ public class Analyse {
 //	System.out.print("Intrinsische Überlappung\t"+df.format(deltaarea_atkis_tagebau)+"\t"+df.format(deltaarea_osm_tagebau)+"\n");
 //	System.out.print("Verschneiden von ATKIS und OSM\t\t\t\n");
 //	System.out.print(" 0 m Buffer\t"+df.format(union_atkis_tagebau.intersection(union_osm_tagebau).getArea())+"\tkm²\t\n");
-//	System.out.print(" 5 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_tagebau_f, 5.0).intersection(union_osm_tagebau).getArea())+"\tkm²\t\n");
-//	System.out.print("10 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_tagebau_f, 10.0).intersection(union_osm_tagebau).getArea())+"\tkm²\t\n");
-//	System.out.print("15 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_tagebau_f, 15.0).intersection(union_osm_tagebau).getArea())+"\tkm²\t\n");
+//	System.out.print(" 5 m Buffer\t"+df.format(bufferarea_tagebau[0])+"\tkm²\t\n");
+//	System.out.print("10 m Buffer\t"+df.format(bufferarea_tagebau[1])+"\tkm²\t\n");
+//	System.out.print("15 m Buffer\t"+df.format(bufferarea_tagebau[2])+"\tkm²\t\n");
 //	System.out.print("\t\t\t\n");
 //	System.out.print("Verschneiden von AX_TagebauGrubeSteinbruch mit OSM-Nicht-TagebauGrubeSteinbruch-Daten\t\t\t\n");
-//	System.out.print("\t"+df.format(union_atkis_tagebau.intersection(union_osm_nicht_tagebau).getArea())+"\tkm²\t\n");
+//	System.out.print("\t"+df.format(konfusion.rowSumExcluding("AX_TagebauGrubeSteinbruch", "quarry"))+"\tkm²\t\n");
 	//####################################
 	//## Ende AX_TagebauGrubeSteinbruch ##
 	//####################################
@@ -1155,18 +1315,10 @@ public class Analyse {
 	//#######################		// sehr schwierig einzuordnen, da kein eindeutiger OSM-Tag besteht (Untertage)
 	//## AX_Bergbaubetrieb ##		// Thematische Genauigkeit als möglicher Indikator für falsche Zuordnung 
 	//#######################		// https://wiki.openstreetmap.org/wiki/DE:Tag:landuse%3Dquarry   https://wiki.openstreetmap.org/wiki/Tag:industrial%3Dmine
-	atkisFilter = "OBJART_TXT='AX_Bergbaubetrieb'";
-	osmFilter = "landuse='industrial'"; //man_made='mineshaft'->keine Überschneidung ||| landuse='mine' nicht vorhanden (keine Fehler) ||| landuse='quarry'->Überschneidung nur 55145,0731
-	
-	createFilteredShape(fs_sie02_f, atkisFilter, "AX_Bergbaubetrieb", path+"temp/AX_Bergbaubetrieb_F.shp", true);
-	createFilteredShape(fs_osm_landuse_p, osmFilter, "Bergbaubetrieb", path+"temp/Bergbaubetrieb_P.shp", false);
-	createFilteredShape(fs_osm_landuse_l, osmFilter, "Bergbaubetrieb", path+"temp/Bergbaubetrieb_L.shp", false);
-	createFilteredShape(fs_osm_landuse_f, osmFilter, "Bergbaubetrieb", path+"temp/Bergbaubetrieb_F.shp", false);
-	
-	SimpleFeatureSource fs_atkis_bergbaubetrieb_f = FileDataStoreFinder.getDataStore(new File(path+"temp/AX_Bergbaubetrieb_F.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_bergbaubetrieb_p = FileDataStoreFinder.getDataStore(new File(path+"temp/Bergbaubetrieb_P.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_bergbaubetrieb_l = FileDataStoreFinder.getDataStore(new File(path+"temp/Bergbaubetrieb_L.shp")).getFeatureSource();
-	SimpleFeatureSource fs_osm_bergbaubetrieb_f = FileDataStoreFinder.getDataStore(new File(path+"temp/Bergbaubetrieb_F.shp")).getFeatureSource();
+	SimpleFeatureSource fs_atkis_bergbaubetrieb_f = ebenen.get("AX_Bergbaubetrieb_F");
+	SimpleFeatureSource fs_osm_bergbaubetrieb_p = ebenen.get("Bergbaubetrieb_P");
+	SimpleFeatureSource fs_osm_bergbaubetrieb_l = ebenen.get("Bergbaubetrieb_L");
+	SimpleFeatureSource fs_osm_bergbaubetrieb_f = ebenen.get("Bergbaubetrieb_F");
 	
 	double totalarea_atkis_bergbaubetrieb = calculateArea(fs_atkis_bergbaubetrieb_f);
 	double totalarea_osm_bergbaubetrieb = calculateArea(fs_osm_bergbaubetrieb_f);
@@ -1184,14 +1336,10 @@ public class Analyse {
 	System.out.print("Gesamtfläche OSM-Bergbaubetrieb: " + df.format(union_osm_bergbaubetrieb.getArea()) + "\n");
 	
 	System.out.print("Überschneidungsfläche Bergbaubetrieb: " + df.format(union_atkis_bergbaubetrieb.intersection(union_osm_bergbaubetrieb).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche Bergbaubetrieb (5m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_bergbaubetrieb_f, 5.0).intersection(union_osm_bergbaubetrieb).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche Bergbaubetrieb (10m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_bergbaubetrieb_f, 10.0).intersection(union_osm_bergbaubetrieb).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche Bergbaubetrieb (15m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_bergbaubetrieb_f, 15.0).intersection(union_osm_bergbaubetrieb).getArea()) + "\n");
+	double[] bufferarea_bergbaubetrieb = printBufferedIntersectionAreas("Bergbaubetrieb", union_atkis_bergbaubetrieb, union_osm_bergbaubetrieb, new double[]{5.0, 10.0, 15.0});
 	
 	//Thematische Genauigkeit
-	osmFilter = "landuse NOT LIKE 'industrial'";
-	Geometry union_osm_nicht_bergbaubetrieb = bufferedUnionGeometry(fs_osm_landuse_f, 0.0, osmFilter);
-	System.out.print("Überschneidungsfläche ATKIS-Bergbaubetrieb mit OSM-Nicht-Bergbaubetrieb: " + df.format(union_atkis_bergbaubetrieb.intersection(union_osm_nicht_bergbaubetrieb).getArea()) + "\n");
+	System.out.print("Überschneidungsfläche ATKIS-Bergbaubetrieb mit OSM-Nicht-Bergbaubetrieb: " + df.format(konfusion.rowSumExcluding("AX_Bergbaubetrieb", "industrial")) + "\n");
 
 //	//Ausgabe für Excel
 //	System.out.print("Intrinsische Datensatzparameter\t\t\t\n");
@@ -1201,12 +1349,12 @@ public class Analyse {
 //	System.out.print("Intrinsische Überlappung\t"+df.format(deltaarea_atkis_bergbaubetrieb)+"\t"+df.format(deltaarea_osm_bergbaubetrieb)+"\n");
 //	System.out.print("Verschneiden von ATKIS und OSM\t\t\t\n");
 //	System.out.print(" 0 m Buffer\t"+df.format(union_atkis_bergbaubetrieb.intersection(union_osm_bergbaubetrieb).getArea())+"\tkm²\t\n");
-//	System.out.print(" 5 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_bergbaubetrieb_f, 5.0).intersection(union_osm_bergbaubetrieb).getArea())+"\tkm²\t\n");
-//	System.out.print("10 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_bergbaubetrieb_f, 10.0).intersection(union_osm_bergbaubetrieb).getArea())+"\tkm²\t\n");
-//	System.out.print("15 m Buffer\t"+df.format(bufferedUnionGeometry(fs_atkis_bergbaubetrieb_f, 15.0).intersection(union_osm_bergbaubetrieb).getArea())+"\tkm²\t\n");
+//	System.out.print(" 5 m Buffer\t"+df.format(bufferarea_bergbaubetrieb[0])+"\tkm²\t\n");
+//	System.out.print("10 m Buffer\t"+df.format(bufferarea_bergbaubetrieb[1])+"\tkm²\t\n");
+//	System.out.print("15 m Buffer\t"+df.format(bufferarea_bergbaubetrieb[2])+"\tkm²\t\n");
 //	System.out.print("\t\t\t\n");
 //	System.out.print("Verschneiden von AX_Bergbaubetrieb mit OSM-Nicht-Bergbaubetrieb-Daten\t\t\t\n");
-//	System.out.print("\t"+df.format(union_atkis_bergbaubetrieb.intersection(union_osm_nicht_bergbaubetrieb).getArea())+"\tkm²\t\n");
+//	System.out.print("\t"+df.format(konfusion.rowSumExcluding("AX_Bergbaubetrieb", "industrial"))+"\tkm²\t\n");
 	//############################
 	//## Ende AX_Bergbaubetrieb ##
 	//############################
@@ -1222,42 +1370,8 @@ public class Analyse {
 //	createFilteredShape(fs_osm_l, osmFilter, "Gebaeude", path+"temp/Gebaeude_L.shp", false);
 //	createFilteredShape(fs_osm_f, osmFilter, "Gebaeude", path+"temp/Gebaeude_F.shp", false);
 	
-	//Intrinsisch: Adressfelder
-	SimpleFeatureCollection fc_adresse = fs_osm_gebaeude_f.getFeatures(CQL.toFilter("addr_stree NOT LIKE ''"));
-	System.out.print("Gebäude mit Adressfeld: " + fc_adresse.size() + "\n");
-    
-	double totalarea_atkis_gebaeude = calculateArea(fs_atkis_gebaeude_f);
-	double totalarea_osm_gebaeude = calculateArea(fs_osm_gebaeude_f);
-	Geometry union_osm_gebaeude = bufferedUnionGeometry(fs_osm_gebaeude_f, 0.0);
-	Geometry union_atkis_gebaeude = bufferedUnionGeometry(fs_atkis_gebaeude_f, 0.0);
-	
-	//Überdeckung im eigenen Datensatz: Differenz zwischen Summe Einzelflächengröße und Flächengröße von Union-Geometrie
-	double deltaarea_atkis_gebaeude = totalarea_atkis_gebaeude - union_atkis_gebaeude.getArea();
-	double deltaarea_osm_gebaeude = totalarea_osm_gebaeude - union_osm_gebaeude.getArea();
-	System.out.print("Flächenunterschied intrinsisch in ATKIS-Gebaeude: " + df.format(deltaarea_atkis_gebaeude) + "\n");
-	System.out.print("Flächenunterschied intrinsisch in OSM-Gebaeude: " + df.format(deltaarea_osm_gebaeude) + "\n");
-
-	//Flächenvergleiche
-	System.out.print("Gesamtfläche ATKIS-Gebaeude: " + df.format(totalarea_atkis_gebaeude) + "\n");
-	System.out.print("Gesamtfläche OSM-Gebaeude: " + df.format(totalarea_osm_gebaeude) + "\n");
-
-	//** Gebufferte ATKIS-Daten mit OSM-Einzelflächen -- Nachteil: Flächenüberlagerungen werden nicht berücksichtigt bzw. gefiltert**	
-	FilterFactory2 ff = CommonFactoryFinder.getFilterFactory2();
-	SimpleFeatureCollection indexedPolygonCollection = new SpatialIndexFeatureCollection(fs_osm_gebaeude_f.getFeatures());
-	SimpleFeatureSource source = DataUtilities.source(indexedPolygonCollection);
-	Filter filter = ff.intersects(ff.property("the_geom"), ff.literal(union_atkis_gebaeude));
-	SimpleFeatureCollection results = source.getFeatures(filter);
-	SimpleFeatureSource gebaeude = DataUtilities.source(results);
-	System.out.println("Überschneidungsfläche Gebaeude: " + df.format(calculateArea(gebaeude)));
-	// Zu hoher Rechenaufwand
-	filter = ff.intersects(ff.property("the_geom"), ff.literal(bufferedUnionGeometry(fs_atkis_gebaeude_f, 1.0)));
-	System.out.println("Überschneidungsfläche Gebaeude: (1m Buffer ATKIS): " + df.format(calculateArea(DataUtilities.source(source.getFeatures(filter)))));
-	// *********************************************************************
-	
-	//** Gebufferte ATKIS-Daten mit OSM-Einzelflächen (ohne Spatial Index) -- mit Filterung doppelter Flächen **
-	System.out.print("Überschneidungsfläche Gebaeude: " + df.format(union_atkis_gebaeude.intersection(union_osm_gebaeude).getArea()) + "\n");
-	System.out.print("Überschneidungsfläche Gebaeude (1m Buffer ATKIS): " + df.format(bufferedUnionGeometry(fs_atkis_gebaeude_f, 1.0).intersection(union_osm_gebaeude).getArea()) + "\n");
-	//*********************************************************************
+	//Adressfelder, Verschneidung mit Kacheln von 1 km, ATKIS-Buffer 1 m
+	compareBuildings(System.out, fs_atkis_gebaeude_f, fs_osm_gebaeude_f, "addr_stree NOT LIKE ''", 1.0, 1000.0);
 
 //	//Ausgabe für Excel
 //	System.out.print("Intrinsische Datensatzparameter\t\t\t\n");
@@ -1278,6 +1392,15 @@ public class Analyse {
 	//##################
 
 
+    //##############################################
+    //## Optional: Klassenebenen als Shapedateien ##
+    //##############################################
+    if (write_temp) {
+    	for (Map.Entry<String, SpaltenLayer> ebene : ebenen.entrySet()) {
+    		ebene.getValue().writeShape(temp + ebene.getKey() + ".shp");
+    	}
+    }
+
     //##################################
     //## Attributlisten als Textdatei ##
     //##################################
@@ -1290,6 +1413,11 @@ public class Analyse {
     //## Ende Attributlisten als Textdatei ##
     //#######################################
 
+    //###############################
+    //## Messwerte je Stufe/Klasse ##
+    //###############################
+    Messung.write(temp + "messung.json", temp + "messung.prom");
+
     //#########
     //## Map ##
     //#########
@@ -0,0 +1,248 @@
+package GeoModA.GeoTools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.InputStreamInStream;
+import org.locationtech.jts.io.OutputStreamOutStream;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+
+/*
+Dauerhafter Zwischenspeicher für aufwendige Zwischenergebnisse (Union-Geometrien als WKB,
+Kennzahlen als double) in einem lokalen Verzeichnis, z.B. pfad/cache/.
+Schlüssel: Operation, Kennung der Eingabe, Filter und Bufferradius. Die Kennung einer Shapedatei
+ist der MD5-Hash der .shp (bei Filtern zusätzlich der .dbf ohne den 32-Byte-Dateikopf, der das Datum
+der letzten Änderung enthält), die einer Klassenebene im
+Arbeitsspeicher ihre Herkunft (Quelle, Filter, Klasse, siehe SpaltenLayer). Ändert sich nur eine
+Klassenzuordnung, bleiben die Ergebnisse aller anderen Klassen gültig.
+Die Hashes werden je Datei mit Größe und Änderungszeit vermerkt und nur bei Änderung neu berechnet.
+Übersteigt der Cache maxBytes, werden die am längsten nicht benutzten Einträge gelöscht (LRU über
+die Änderungszeit der Dateien, die bei jedem Treffer aktualisiert wird).
+Schreibfehler werden gemeldet, das berechnete Ergebnis wird trotzdem zurückgegeben.
+Ohne open() ist der Cache abgeschaltet und jede Berechnung läuft direkt.
+*/
+public class ErgebnisCache {
+	// Erhöhen, wenn sich die Bedeutung gespeicherter Ergebnisse ändert
+	static final int VERSION = 2;
+	private static File directory = null;
+	private static long maxBytes = 0;
+	// Dateikopf einer .dbf (Version, Datum, Satzanzahl, Längen), danach Felddefinitionen und Sätze
+	private static final int DBF_HEADER = 32;
+	// Je Datei ein Sperrobjekt, damit verschiedene Dateien parallel gehasht werden
+	private static final ConcurrentMap<File, Object> locks = new ConcurrentHashMap<>();
+
+	interface Berechnung<T> {
+		T compute() throws Exception;
+	}
+
+	// ## Cache im Verzeichnis dir mit höchstens maxBytes Inhalt; maxBytes <= 0 schaltet ihn ab ##
+	static synchronized void open(String dir, long maxBytes) {
+		if (maxBytes <= 0) {
+			directory = null;
+			return;
+		}
+		directory = new File(dir);
+		new File(directory, "dateien").mkdirs();
+		ErgebnisCache.maxBytes = maxBytes;
+	}
+
+	static synchronized boolean isEnabled() {
+		return directory != null;
+	}
+
+	// ## Schlüssel für operation auf fs; null, wenn der Cache aus ist oder fs keine feste Kennung hat ##
+	static String key(String operation, SimpleFeatureSource fs, String filter, double bufferRadius) throws IOException {
+		String input = identity(fs, filter != null);
+		if (input == null) {
+			return null;
+		}
+		return VERSION + "|" + operation + "|" + input + "|" + filter + "|" + bufferRadius;
+	}
+
+	// Kennung des Inhalts von fs; withAttributes: auch die Sachdaten (für gefilterte Auswertungen)
+	static String identity(SimpleFeatureSource fs, boolean withAttributes) throws IOException {
+		if (!isEnabled()) {
+			return null;
+		}
+		if (fs instanceof SpaltenLayer) {
+			return ((SpaltenLayer) fs).getHerkunft();
+		}
+		File shp = ValiditaetsCache.shapeFile(fs);
+		if (shp == null) {
+			return null;
+		}
+		String identity = "shp:" + fileChecksum(shp, 0);
+		if (withAttributes) {
+			String name = shp.getName();
+			File dbf = new File(shp.getParentFile(), name.substring(0, name.lastIndexOf('.')) + ".dbf");
+			identity += ",dbf:" + fileChecksum(dbf, DBF_HEADER);
+		}
+		return identity;
+	}
+
+	// ## Geometrie aus dem Cache oder berechnen und ablegen ##
+	static Geometry geometry(String key, Berechnung<Geometry> computation) throws Exception {
+		File file = (key == null) ? null : entry(key, ".wkb");
+		if (file != null && file.exists()) {
+			try (InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+				Geometry geom = new WKBReader(JTSFactoryFinder.getGeometryFactory()).read(new InputStreamInStream(in));
+				touch(file);
+				return geom;
+			} catch (IOException | ParseException e) {
+				System.out.print("Cache-Eintrag " + file.getName() + " nicht lesbar, wird neu berechnet\n");
+			}
+		}
+		Geometry geom = computation.compute();
+		if (file != null) {
+			store(file, out -> new WKBWriter(2).write(geom, new OutputStreamOutStream(out)));
+		}
+		return geom;
+	}
+
+	// ## Kennzahl aus dem Cache oder berechnen und ablegen ##
+	static double metric(String key, Berechnung<Double> computation) throws Exception {
+		File file = (key == null) ? null : entry(key, ".val");
+		if (file != null && file.exists()) {
+			try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+				double value = in.readDouble();
+				touch(file);
+				return value;
+			} catch (IOException e) {
+				System.out.print("Cache-Eintrag " + file.getName() + " nicht lesbar, wird neu berechnet\n");
+			}
+		}
+		double value = computation.compute();
+		if (file != null) {
+			store(file, out -> new DataOutputStream(out).writeDouble(value));
+		}
+		return value;
+	}
+
+	private interface Ausgabe {
+		void write(OutputStream out) throws IOException;
+	}
+
+	// Schreiben über eine temporäre Datei, damit parallele Läufe nie halbe Einträge lesen;
+	// ein Fehler (z.B. volles Laufwerk) kostet nur den Cache-Eintrag, nicht das Ergebnis
+	private static void store(File file, Ausgabe content) {
+		File tmp = new File(file.getPath() + "." + Thread.currentThread().getId() + ".tmp");
+		try {
+			try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16)) {
+				content.write(out);
+			}
+			try {
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			System.out.print("Cache-Eintrag " + file.getName() + " nicht gespeichert: " + e + "\n");
+			tmp.delete();
+			return;
+		}
+		evict();
+	}
+
+	// ## Älteste Einträge löschen, bis der Inhalt wieder unter maxBytes liegt ##
+	private static synchronized void evict() {
+		File[] entries = directory.listFiles((dir, name) -> name.endsWith(".wkb") || name.endsWith(".val"));
+		if (entries == null) {
+			return;
+		}
+		long total = 0;
+		for (File entry : entries) {
+			total += entry.length();
+		}
+		if (total <= maxBytes) {
+			return;
+		}
+		Arrays.sort(entries, Comparator.comparingLong(File::lastModified));
+		for (File entry : entries) {
+			if (total <= maxBytes) {
+				break;
+			}
+			long length = entry.length();
+			if (entry.delete()) {
+				total -= length;
+			}
+		}
+	}
+
+	private static void touch(File file) {
+		file.setLastModified(System.currentTimeMillis());
+	}
+
+	private static synchronized File entry(String key, String suffix) {
+		return (directory == null) ? null : new File(directory, hex(sha1(key.getBytes(StandardCharsets.UTF_8))) + suffix);
+	}
+
+	// MD5 einer Datei ab Byte offset; vermerkt unter dateien/ mit Größe und Änderungszeit
+	private static String fileChecksum(File file, long offset) throws IOException {
+		File absolute = file.getAbsoluteFile();
+		File notes;
+		synchronized (ErgebnisCache.class) {
+			notes = new File(directory, "dateien");
+		}
+		synchronized (locks.computeIfAbsent(absolute, f -> new Object())) {
+			String name = (offset == 0) ? absolute.getPath() : absolute.getPath() + "@" + offset;
+			return fileChecksum(absolute, offset, new File(notes, hex(sha1(name.getBytes(StandardCharsets.UTF_8)))));
+		}
+	}
+	private static String fileChecksum(File file, long offset, File note) throws IOException {
+		if (note.exists()) {
+			try (DataInputStream in = new DataInputStream(new FileInputStream(note))) {
+				if (in.readLong() == file.length() && in.readLong() == file.lastModified()) {
+					return in.readUTF();
+				}
+			} catch (IOException e) {
+				// Vermerk unbrauchbar, Hash neu berechnen
+			}
+		}
+		String checksum = hex(ValiditaetsCache.checksum(file, offset));
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(note))) {
+			out.writeLong(file.length());
+			out.writeLong(file.lastModified());
+			out.writeUTF(checksum);
+		}
+		return checksum;
+	}
+
+	private static byte[] sha1(byte[] data) {
+		try {
+			return MessageDigest.getInstance("SHA-1").digest(data);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String hex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(2 * bytes.length);
+		for (byte b : bytes) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+}
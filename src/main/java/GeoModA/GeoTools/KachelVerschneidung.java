@@ -0,0 +1,139 @@
+package GeoModA.GeoTools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.util.PolygonExtracter;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
+
+/*
+Flächenverschneidung zweier Ebenen ohne globale Union-Geometrie. Die Ausdehnung beider
+Ebenen wird in quadratische Kacheln zerlegt, jede Kachel wird unabhängig (und parallel)
+berechnet: Zuschneiden der Einzelgeometrien auf die Kachel, Union je Ebene, Verschneidung.
+Da sich die Kacheln nicht überlappen, ergeben die Summen der Kachelflächen die Gesamtflächen.
+Die Einzelgeometrien beider Ebenen liegen vollständig im Arbeitsspeicher (STR-Bäume); eingespart
+wird die globale Union, je gerade berechneter Kachel entstehen nur die zugeschnittenen Flächen
+und deren Unions.
+Mit Praezision.gridSize > 0 liegen auch die Kachelgrenzen auf dem Raster (Eingaben vorher mit
+Praezision.reduce runden, sonst rechnet die Verschneidung mit Gleitkommagenauigkeit).
+*/
+public class KachelVerschneidung {
+
+	// ## Flächenkennwerte einer Verschneidung von Ebene A mit Ebene B ##
+	static class Ergebnis {
+		double areaA = 0;		// Fläche der Union von A
+		double areaB = 0;		// Fläche der Union von B
+		double intersection = 0;	// Fläche A ∩ B
+
+		double union() {
+			return areaA + areaB - intersection;
+		}
+		double differenceAB() {
+			return areaA - intersection;
+		}
+		double differenceBA() {
+			return areaB - intersection;
+		}
+		Ergebnis add(Ergebnis other) {
+			Ergebnis sum = new Ergebnis();
+			sum.areaA = areaA + other.areaA;
+			sum.areaB = areaB + other.areaB;
+			sum.intersection = intersection + other.intersection;
+			return sum;
+		}
+	}
+
+	// ## Verschneidung der Ebenen a und b in Kacheln der Kantenlänge tileSize (Einheit des KBS) ##
+	static Ergebnis overlay(List<Geometry> a, List<Geometry> b, double tileSize) {
+		STRtree treeA = index(a);
+		STRtree treeB = index(b);
+		Envelope extent = new Envelope();
+		for (Geometry g : a) {extent.expandToInclude(g.getEnvelopeInternal());}
+		for (Geometry g : b) {extent.expandToInclude(g.getEnvelopeInternal());}
+		if (extent.isNull()) {
+			return new Ergebnis();
+		}
+
+		int nx = Math.max(1, (int) Math.ceil(extent.getWidth() / tileSize));
+		int ny = Math.max(1, (int) Math.ceil(extent.getHeight() / tileSize));
+		GeometryFactory geometryFactory = Praezision.geometryFactory();
+		PrecisionModel precisionModel = geometryFactory.getPrecisionModel();
+		return IntStream.range(0, nx * ny).parallel()
+				.mapToObj(t -> {
+					double minX = precisionModel.makePrecise(extent.getMinX() + (t % nx) * tileSize);
+					double minY = precisionModel.makePrecise(extent.getMinY() + (t / nx) * tileSize);
+					double maxX = precisionModel.makePrecise(extent.getMinX() + (t % nx + 1) * tileSize);
+					double maxY = precisionModel.makePrecise(extent.getMinY() + (t / nx + 1) * tileSize);
+					return overlayTile(treeA, treeB, new Envelope(minX, maxX, minY, maxY), geometryFactory);
+				})
+				.reduce(new Ergebnis(), Ergebnis::add);
+	}
+
+	// ## Summe der Einzelflächen aller Geometrien, die mindestens eine Referenzgeometrie schneiden ##
+	static double intersectingArea(List<Geometry> geometries, List<Geometry> reference) {
+		STRtree tree = index(reference);
+		return geometries.parallelStream()
+				.filter(g -> {
+					for (Object candidate : tree.query(g.getEnvelopeInternal())) {
+						if (((Geometry) candidate).intersects(g)) {return true;}
+					}
+					return false;
+				})
+				.mapToDouble(Geometry::getArea)
+				.sum();
+	}
+
+	// ## Paralleles Buffern einer Ebene ##
+	static List<Geometry> buffer(List<Geometry> geometries, double bufferRadius) {
+		List<Geometry> buffered = new ArrayList<>(geometries.size());
+		geometries.parallelStream().map(g -> g.buffer(bufferRadius)).forEachOrdered(buffered::add);
+		return buffered;
+	}
+
+	private static Ergebnis overlayTile(STRtree treeA, STRtree treeB, Envelope tile, GeometryFactory geometryFactory) {
+		Ergebnis result = new Ergebnis();
+		Geometry rect = geometryFactory.toGeometry(tile);
+		Geometry unionA = clippedUnion(treeA, tile, rect);
+		Geometry unionB = clippedUnion(treeB, tile, rect);
+		if (unionA != null) {result.areaA = unionA.getArea();}
+		if (unionB != null) {result.areaB = unionB.getArea();}
+		if (unionA != null && unionB != null) {
+			result.intersection = unionA.intersection(unionB).getArea();
+		}
+		return result;
+	}
+
+	// Union aller auf die Kachel zugeschnittenen Flächen, null wenn die Kachel leer ist
+	@SuppressWarnings("unchecked")
+	private static Geometry clippedUnion(STRtree tree, Envelope tile, Geometry rect) {
+		List<Geometry> clipped = new ArrayList<>();
+		for (Object item : tree.query(tile)) {
+			Geometry g = (Geometry) item;
+			if (tile.contains(g.getEnvelopeInternal())) {
+				clipped.addAll(PolygonExtracter.getPolygons(g));
+			} else {
+				// Nur flächenhafte Anteile übernehmen, Berührungen an der Kachelgrenze entfallen
+				clipped.addAll(PolygonExtracter.getPolygons(g.intersection(rect)));
+			}
+		}
+		if (clipped.isEmpty()) {
+			return null;
+		}
+		return UnaryUnionOp.union(clipped);
+	}
+
+	private static STRtree index(List<Geometry> geometries) {
+		STRtree tree = new STRtree();
+		for (Geometry g : geometries) {
+			tree.insert(g.getEnvelopeInternal(), g);
+		}
+		tree.build();
+		return tree;
+	}
+}
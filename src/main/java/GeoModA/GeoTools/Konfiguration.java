@@ -0,0 +1,208 @@
+package GeoModA.GeoTools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/*
+Deklarative Beschreibung eines Analyselaufs (Properties-Datei, Beispiel: klassen.properties).
+ pfad                      Basisverzeichnis der Shapedateien, Ausgaben landen in pfad/temp/
+ threads                   Anzahl gleichzeitig laufender Klassenanalysen (Standard: Anzahl Kerne)
+ cache.mb                  Größe des ErgebnisCache in pfad/cache/ in MB (Standard: 4096, 0 = aus)
+ ausgabe.shapes            true: Klassenebenen nach jeder Klassenanalyse zusätzlich als Shapedateien
+                           nach pfad/temp/ schreiben (Standard: false, die Ebenen bleiben im Arbeitsspeicher)
+ praezision                Rasterweite in m für Unions und Verschneidungen, z.B. 0.01 (Standard: 0 = volle Genauigkeit)
+ raster                    Zellgröße in m für die näherungsweise Rasterverschneidung, z.B. 0.5 oder 1 (Standard: 0 = exakt)
+ stichprobe.fehler         Zielgenauigkeit der Stichprobenschätzung relativ zur ATKIS-Fläche, z.B. 0.01 (Standard: 0 = exakt)
+ stichprobe.sekunden       Zeitbudget je Klasse für die Stichprobenschätzung (Standard: 30)
+ klassen                   Liste der Klassen, Reihenfolge = Reihenfolge der Ausgabe
+ konfusion.atkis / .osm    Quellen der Konfusionsmatrix (Dateipfad relativ zu pfad)
+ konfusion.atkis.attribut / konfusion.osm.attribut
+ profil                    Quellen, deren Ebenenprofil (Objektanzahl, nicht valide, nicht simpel) vorab ausgegeben wird
+ konsistenz                Quellen für die KonsistenzPruefung, Fehlerbericht nach pfad/temp/Defekte_<Datei>.csv
+ gebaeude.atkis / .osm     Gebäudevergleich ganzer Dateien ohne Filter (Analyse.compareBuildings), nur wenn beide eingetragen
+ gebaeude.adressfilter     CQL-Filter für OSM-Gebäude mit Adresse (Standard: addr_stree NOT LIKE '')
+ gebaeude.buffer           ATKIS-Buffer in m (Standard: 1)
+ gebaeude.kachel           Kachelgröße der Verschneidung in m (Standard: 1000)
+Je Klasse <k>:
+ <k>.typ                   punkt (Punktzuordnung, benötigt .atkis.punkte und .osm.punkte) oder
+                           flaeche (Flächenverschneidung, benötigt .atkis.flaechen und .osm.flaechen)
+ <k>.atkis.filter          CQL-Filter auf den ATKIS-Quellen
+ <k>.atkis.klasse          Klassenbezeichnung in der Ausgabe (Standard: <k>)
+ <k>.atkis.punkte / .linien / .flaechen   ATKIS-Quellen, Klassenebenen <k>_P/_L/_F
+ <k>.osm.filter            CQL-Filter auf den OSM-Quellen
+ <k>.osm.klasse            Klassenbezeichnung und Dateiname der OSM-Ausgabe, je Klasse verschieden
+ <k>.osm.punkte / .linien / .flaechen     OSM-Quellen
+ <k>.radien                Suchradien (punkt) bzw. Bufferradien (flaeche) in m
+ <k>.atkis.duplikatradien / <k>.osm.duplikatradien   Radien für removeDuplicatePoints, in dieser Reihenfolge
+ <k>.innerpunkt            true: Linien und Flächen als innerer Punkt statt als Schwerpunkt (punkt, Standard: false)
+ <k>.thematisch.ausschluss OSM-Werte der Klasse in der Konfusionsmatrix (flaeche)
+*/
+public class Konfiguration {
+	static final String PUNKT = "punkt";
+	static final String FLAECHE = "flaeche";
+	// Namensendungen der harmonisierten Klassenebenen je Geometrietyp der Quelle
+	static final String[] EBENEN = {"punkte", "linien", "flaechen"};
+	static final String[] ENDUNGEN = {"_P", "_L", "_F"};
+
+	String path;
+	int threads;
+	long cacheMB;
+	boolean ausgabeShapes;
+	double praezision;
+	double raster;
+	double stichprobeFehler;
+	double stichprobeSekunden;
+	String konfusionAtkis;
+	String konfusionAtkisAttribut;
+	String konfusionOsm;
+	String konfusionOsmAttribut;
+	String[] profil;
+	String[] konsistenz;
+	String gebaeudeAtkis;
+	String gebaeudeOsm;
+	String gebaeudeAdressfilter;
+	double gebaeudeBuffer;
+	double gebaeudeKachel;
+	final List<Klasse> klassen = new ArrayList<>();
+
+	static class Klasse {
+		String name;
+		String typ;
+		String atkisFilter;
+		String atkisKlasse;
+		String osmFilter;
+		String osmKlasse;
+		// Quellen je Geometrietyp (Index wie EBENEN), null wenn nicht vorhanden
+		final String[] atkisQuellen = new String[EBENEN.length];
+		final String[] osmQuellen = new String[EBENEN.length];
+		double[] radien;
+		double[] atkisDuplikatRadien;
+		double[] osmDuplikatRadien;
+		String[] thematischAusschluss;
+		boolean innerpunkt;
+
+		boolean isPunkt() {
+			return PUNKT.equals(typ);
+		}
+	}
+
+	// ## Laden aus einer Datei oder, falls nicht vorhanden, aus dem Klassenpfad ##
+	static Konfiguration load(String file) throws IOException {
+		Properties properties = new Properties();
+		InputStream in = new File(file).exists() ? new FileInputStream(file) : Konfiguration.class.getResourceAsStream("/" + file);
+		if (in == null) {
+			throw new IOException("Konfiguration " + file + " nicht gefunden");
+		}
+		try (InputStreamReader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		}
+		return parse(properties);
+	}
+
+	static Konfiguration parse(Properties p) throws IOException {
+		Konfiguration config = new Konfiguration();
+		config.path = required(p, "pfad");
+		config.threads = Integer.parseInt(p.getProperty("threads", String.valueOf(Runtime.getRuntime().availableProcessors())).trim());
+		config.cacheMB = Long.parseLong(p.getProperty("cache.mb", "4096").trim());
+		config.ausgabeShapes = Boolean.parseBoolean(p.getProperty("ausgabe.shapes", "false").trim());
+		config.praezision = Double.parseDouble(p.getProperty("praezision", "0").trim());
+		config.raster = Double.parseDouble(p.getProperty("raster", "0").trim());
+		config.stichprobeFehler = Double.parseDouble(p.getProperty("stichprobe.fehler", "0").trim());
+		config.stichprobeSekunden = Double.parseDouble(p.getProperty("stichprobe.sekunden", "30").trim());
+		config.konfusionAtkis = p.getProperty("konfusion.atkis");
+		config.konfusionAtkisAttribut = p.getProperty("konfusion.atkis.attribut", "OBJART_TXT");
+		config.konfusionOsm = p.getProperty("konfusion.osm");
+		config.konfusionOsmAttribut = p.getProperty("konfusion.osm.attribut", "landuse");
+		config.profil = list(p.getProperty("profil", ""));
+		config.konsistenz = list(p.getProperty("konsistenz", ""));
+		config.gebaeudeAtkis = trimmed(p.getProperty("gebaeude.atkis"));
+		config.gebaeudeOsm = trimmed(p.getProperty("gebaeude.osm"));
+		config.gebaeudeAdressfilter = p.getProperty("gebaeude.adressfilter", "addr_stree NOT LIKE ''").trim();
+		config.gebaeudeBuffer = Double.parseDouble(p.getProperty("gebaeude.buffer", "1").trim());
+		config.gebaeudeKachel = Double.parseDouble(p.getProperty("gebaeude.kachel", "1000").trim());
+
+		Set<String> names = new HashSet<>();
+		Set<String> osmKlassen = new HashSet<>();
+		for (String name : list(required(p, "klassen"))) {
+			if (!names.add(name)) {
+				throw new IOException("Klasse " + name + " ist mehrfach eingetragen");
+			}
+			Klasse k = new Klasse();
+			k.name = name;
+			k.typ = required(p, name + ".typ");
+			if (!PUNKT.equals(k.typ) && !FLAECHE.equals(k.typ)) {
+				throw new IOException("Unbekannter Typ " + k.typ + " für Klasse " + name);
+			}
+			k.atkisFilter = required(p, name + ".atkis.filter");
+			k.atkisKlasse = p.getProperty(name + ".atkis.klasse", name).trim();
+			k.osmFilter = required(p, name + ".osm.filter");
+			k.osmKlasse = required(p, name + ".osm.klasse");
+			// Die OSM-Ausgaben werden nach osm.klasse benannt
+			if (!osmKlassen.add(k.osmKlasse)) {
+				throw new IOException("osm.klasse " + k.osmKlasse + " von Klasse " + name + " ist bereits vergeben");
+			}
+			for (int i=0;i<EBENEN.length;i++) {
+				k.atkisQuellen[i] = trimmed(p.getProperty(name + ".atkis." + EBENEN[i]));
+				k.osmQuellen[i] = trimmed(p.getProperty(name + ".osm." + EBENEN[i]));
+			}
+			// Punktklassen schreiben die Schwerpunkte von Linien und Flächen in die Punktebene,
+			// Flächenklassen verschneiden die Flächenebenen: beide Ebenen müssen auf beiden Seiten vorhanden sein
+			int ebene = k.isPunkt() ? 0 : 2;
+			if (k.atkisQuellen[ebene] == null || k.osmQuellen[ebene] == null) {
+				throw new IOException("Klasse " + name + " benötigt " + name + ".atkis." + EBENEN[ebene] + " und " + name + ".osm." + EBENEN[ebene]);
+			}
+			k.radien = numbers(p.getProperty(name + ".radien", ""));
+			for (double r : k.radien) {
+				if (r < 0) {
+					throw new IOException("Negativer Radius " + r + " in " + name + ".radien");
+				}
+			}
+			k.atkisDuplikatRadien = numbers(p.getProperty(name + ".atkis.duplikatradien", ""));
+			k.osmDuplikatRadien = numbers(p.getProperty(name + ".osm.duplikatradien", ""));
+			k.thematischAusschluss = list(p.getProperty(name + ".thematisch.ausschluss", ""));
+			k.innerpunkt = Boolean.parseBoolean(p.getProperty(name + ".innerpunkt", "false").trim());
+			config.klassen.add(k);
+		}
+		return config;
+	}
+
+	private static String required(Properties p, String key) throws IOException {
+		String value = p.getProperty(key);
+		if (value == null || value.trim().isEmpty()) {
+			throw new IOException("Eintrag " + key + " fehlt in der Konfiguration");
+		}
+		return value.trim();
+	}
+
+	private static String trimmed(String value) {
+		return (value == null || value.trim().isEmpty()) ? null : value.trim();
+	}
+
+	private static String[] list(String value) {
+		List<String> items = new ArrayList<>();
+		for (String item : value.split(",")) {
+			if (!item.trim().isEmpty()) {
+				items.add(item.trim());
+			}
+		}
+		return items.toArray(new String[0]);
+	}
+
+	private static double[] numbers(String value) {
+		String[] items = list(value);
+		double[] numbers = new double[items.length];
+		for (int i=0;i<items.length;i++) {
+			numbers[i] = Double.parseDouble(items[i]);
+		}
+		return numbers;
+	}
+}
@@ -0,0 +1,240 @@
+package GeoModA.GeoTools;
+
+import java.io.PrintStream;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygonal;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.opengis.feature.simple.SimpleFeature;
+
+/*
+Thematische Konfusionsmatrix zweier Flächenebenen: Für jedes Paar (ATKIS-Klasse, OSM-Wert)
+die Fläche der Vereinigung aller Schnittstücke der sich überlagernden Einzelflächen. Die OSM-Flächen
+liegen in einem STR-Baum, jede ATKIS-Fläche wird einmal gegen die Kandidaten aus dem Baum verschnitten.
+Es werden wie bei bufferedUnionGeometry nur einfache und valide Flächen berücksichtigt.
+Überlappen sich Flächen innerhalb einer Ebene, zählt die gemeinsame Fläche je Paar einfach; über
+verschiedene OSM-Werte hinweg kann sie in mehreren Spalten stehen. Die Schnittstücke je Paar bleiben
+erhalten, rowSumExcluding vereinigt sie über die gewählten Werte (ohne Mehrfachzählung).
+Mit Praezision.gridSize > 0 werden die Flächen vor der Verschneidung auf das Raster gerundet.
+Mit RasterUeberdeckung.cellSize > 0 werden die Schnittflächen näherungsweise über Rasterung
+berechnet, je Paar mit Fehlerschranke; Überlappungen innerhalb eines Werts zählen dann einfach.
+*/
+public class KonfusionsMatrix {
+	// ATKIS-Klasse -> OSM-Wert -> Schnittfläche
+	private final Map<String, Map<String, Double>> areas = new TreeMap<>();
+	private final Set<String> osmValues = new TreeSet<>();
+	// Fehlerschranken der Rasterverschneidung, leer bei exakter Berechnung
+	private final Map<String, Map<String, Double>> errors = new TreeMap<>();
+	// Exakt: vereinigte Schnittstücke je Paar; Raster: die Flächen beider Ebenen (sonst null)
+	private final Map<String, Map<String, Geometry>> pieces = new TreeMap<>();
+	private List<Flaeche> atkisFlaechen;
+	private List<Flaeche> osmFlaechen;
+
+	private static class Flaeche {
+		final Geometry geom;
+		final String value;
+		Flaeche(Geometry geom, String value) {
+			this.geom = geom;
+			this.value = value;
+		}
+	}
+
+	// ## Verschneidung von atkis (Klasse in atkisAttribute) mit osm (Wert in osmAttribute) ##
+	static KonfusionsMatrix compute(SimpleFeatureSource atkis, String atkisAttribute, SimpleFeatureSource osm, String osmAttribute) throws Exception {
+		if (RasterUeberdeckung.isActive()) {
+			return computeRaster(atkis, atkisAttribute, osm, osmAttribute);
+		}
+		STRtree tree = new STRtree();
+		for (Flaeche f : read(osm, osmAttribute)) {
+			tree.insert(f.geom.getEnvelopeInternal(), f);
+		}
+		tree.build();
+
+		// Schnittstücke je Paar sammeln, danach je Paar vereinigen
+		Map<String, Map<String, List<Geometry>>> rows = read(atkis, atkisAttribute).parallelStream()
+				.collect(() -> new HashMap<String, Map<String, List<Geometry>>>(),
+						(Map<String, Map<String, List<Geometry>>> partial, Flaeche f) -> {
+							Map<String, List<Geometry>> row = partial.computeIfAbsent(f.value, k -> new HashMap<>());
+							for (Object candidate : tree.query(f.geom.getEnvelopeInternal())) {
+								Flaeche other = (Flaeche) candidate;
+								if (f.geom.intersects(other.geom)) {
+									Geometry piece = f.geom.intersection(other.geom);
+									if (piece.getArea() > 0) {
+										row.computeIfAbsent(other.value, v -> new ArrayList<>()).add(piece);
+									}
+								}
+							}
+						},
+						KonfusionsMatrix::merge);
+
+		KonfusionsMatrix matrix = new KonfusionsMatrix();
+		for (Map.Entry<String, Map<String, List<Geometry>>> entry : rows.entrySet()) {
+			Map<String, Double> areas = new TreeMap<>();
+			Map<String, Geometry> pieces = new TreeMap<>();
+			entry.getValue().forEach((v, list) -> {
+				Geometry union = ParalleleVereinigung.union(list.toArray(new Geometry[0]));
+				pieces.put(v, union);
+				areas.put(v, union.getArea());
+			});
+			matrix.areas.put(entry.getKey(), areas);
+			matrix.pieces.put(entry.getKey(), pieces);
+			matrix.osmValues.addAll(areas.keySet());
+		}
+		return matrix;
+	}
+
+	// Näherung über RasterUeberdeckung: alle Flächen eines Werts gemeinsam gerastert
+	private static KonfusionsMatrix computeRaster(SimpleFeatureSource atkis, String atkisAttribute, SimpleFeatureSource osm, String osmAttribute) throws Exception {
+		KonfusionsMatrix matrix = new KonfusionsMatrix();
+		matrix.atkisFlaechen = read(atkis, atkisAttribute);
+		matrix.osmFlaechen = read(osm, osmAttribute);
+		List<Geometry> atkisGeometries = new ArrayList<>();
+		List<String> atkisValues = new ArrayList<>();
+		for (Flaeche f : matrix.atkisFlaechen) {
+			atkisGeometries.add(f.geom);
+			atkisValues.add(f.value);
+		}
+		List<Geometry> osmGeometries = new ArrayList<>();
+		List<String> osmValues = new ArrayList<>();
+		for (Flaeche f : matrix.osmFlaechen) {
+			osmGeometries.add(f.geom);
+			osmValues.add(f.value);
+		}
+
+		RasterUeberdeckung.matrix(atkisGeometries, atkisValues, osmGeometries, osmValues).forEach((k, row) -> {
+			Map<String, Double> areas = new TreeMap<>();
+			Map<String, Double> errors = new TreeMap<>();
+			row.forEach((v, result) -> {
+				areas.put(v, result[0]);
+				errors.put(v, result[1]);
+			});
+			matrix.areas.put(k, areas);
+			matrix.errors.put(k, errors);
+			matrix.osmValues.addAll(areas.keySet());
+		});
+		return matrix;
+	}
+
+	private static void merge(Map<String, Map<String, List<Geometry>>> a, Map<String, Map<String, List<Geometry>>> b) {
+		for (Map.Entry<String, Map<String, List<Geometry>>> entry : b.entrySet()) {
+			Map<String, List<Geometry>> row = a.computeIfAbsent(entry.getKey(), k -> new HashMap<>());
+			entry.getValue().forEach((v, list) -> row.computeIfAbsent(v, x -> new ArrayList<>()).addAll(list));
+		}
+	}
+
+	double get(String atkisClass, String osmValue) {
+		Map<String, Double> row = areas.get(atkisClass);
+		if (row == null || !row.containsKey(osmValue)) {
+			return 0.0;
+		}
+		return row.get(osmValue);
+	}
+
+	// ## Schnittfläche einer ATKIS-Klasse mit der Vereinigung aller OSM-Werte außer den angegebenen ##
+	double rowSumExcluding(String atkisClass, String... osmValue) {
+		return rowExcluding(atkisClass, osmValue)[0];
+	}
+	// {Fläche, Fehlerschranke}; die Schranke ist 0 bei exakter Berechnung
+	double[] rowExcluding(String atkisClass, String... osmValue) {
+		Set<String> excluded = new HashSet<>(Arrays.asList(osmValue));
+		if (atkisFlaechen != null) {
+			List<Geometry> a = new ArrayList<>();
+			for (Flaeche f : atkisFlaechen) {
+				if (f.value.equals(atkisClass)) {a.add(f.geom);}
+			}
+			List<Geometry> b = new ArrayList<>();
+			for (Flaeche f : osmFlaechen) {
+				if (!excluded.contains(f.value)) {b.add(f.geom);}
+			}
+			RasterUeberdeckung.Ergebnis raster = RasterUeberdeckung.overlay(a, b, new double[0]);
+			return new double[] {raster.intersection, raster.errorIntersection};
+		}
+		List<Geometry> included = new ArrayList<>();
+		Map<String, Geometry> row = pieces.get(atkisClass);
+		if (row != null) {
+			for (Map.Entry<String, Geometry> entry : row.entrySet()) {
+				if (!excluded.contains(entry.getKey())) {
+					included.add(entry.getValue());
+				}
+			}
+		}
+		return new double[] {ParalleleVereinigung.union(included.toArray(new Geometry[0])).getArea(), 0.0};
+	}
+
+	Set<String> getAtkisClasses() {
+		return areas.keySet();
+	}
+
+	Set<String> getOsmValues() {
+		return osmValues;
+	}
+
+	// ## Ausgabe als Tabelle (tabulatorgetrennt, für Excel) ##
+	void print(DecimalFormat df) {
+		print(System.out, df);
+	}
+	void print(PrintStream out, DecimalFormat df) {
+		StringBuilder header = new StringBuilder("ATKIS / OSM");
+		for (String v : osmValues) {
+			header.append("\t").append(v);
+		}
+		out.print(header + "\n");
+		for (String k : areas.keySet()) {
+			StringBuilder line = new StringBuilder(k);
+			for (String v : osmValues) {
+				line.append("\t").append(df.format(get(k, v)));
+			}
+			out.print(line + "\n");
+		}
+		if (!errors.isEmpty()) {
+			out.print("Fehlerschranke (Raster " + RasterUeberdeckung.cellSize + " m)" + header.substring("ATKIS / OSM".length()) + "\n");
+			for (String k : errors.keySet()) {
+				StringBuilder line = new StringBuilder(k);
+				for (String v : osmValues) {
+					Double error = errors.get(k).get(v);
+					line.append("\t").append(df.format(error == null ? 0.0 : error));
+				}
+				out.print(line + "\n");
+			}
+		}
+	}
+
+	// Einfache und valide Flächen mit ihrem Attributwert, fehlende Werte als ""
+	private static List<Flaeche> read(SimpleFeatureSource fs, String attribute) throws Exception {
+		GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+		Normalisierung normalisierung = Normalisierung.of(fs);
+		List<Geometry> polygons = new ArrayList<>();
+		List<String> values = new ArrayList<>();
+		try (SimpleFeatureIterator features = fs.getFeatures().features()) {
+			while (features.hasNext()) {
+				SimpleFeature feature = features.next();
+				Geometry polygon = normalisierung.validGeometry(feature, geometryFactory);
+				if (polygon instanceof Polygonal) {
+					Object value = feature.getAttribute(attribute);
+					polygons.add(polygon);
+					values.add(value == null ? "" : value.toString());
+				}
+			}
+		}
+		polygons = Praezision.reduce(fs.getSchema().getTypeName(), polygons);
+		List<Flaeche> list = new ArrayList<>(polygons.size());
+		for (int i=0;i<polygons.size();i++) {
+			list.add(new Flaeche(polygons.get(i), values.get(i)));
+		}
+		return list;
+	}
+}
@@ -0,0 +1,168 @@
+package GeoModA.GeoTools;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.operation.IsSimpleOp;
+import org.locationtech.jts.operation.valid.IsValidOp;
+import org.locationtech.jts.operation.valid.TopologyValidationError;
+import org.opengis.feature.simple.SimpleFeature;
+
+/*
+Parallele Prüfung der topologischen Konsistenz mit Fehlerbericht. Die Objekte werden
+blockweise gelesen, jeder Block wird auf alle Kerne verteilt geprüft: IsValidOp liefert
+Fehlerart und Fehlerstelle, IsSimpleOp die erste nicht simple Stelle. Shapedateien werden
+über den ShapeLeser in Satzbereichen parallel gelesen (ParalleleAbtastung). Die Fehler werden
+in Lesereihenfolge über einen gepufferten Writer als CSV oder NDJSON (Dateiendung .ndjson)
+geschrieben, auf der Konsole erscheint nur eine Zusammenfassung.
+Bereits im ValiditaetsCache als valide und simpel bekannte Objekte werden übersprungen.
+*/
+public class KonsistenzPruefung {
+	// Anzahl Objekte, die gemeinsam gelesen und parallel geprüft werden
+	static int blockSize = 10000;
+	private static final String NOT_SIMPLE = "Not simple";
+
+	static class Defekt {
+		final String fid;
+		final String geometryType;
+		final String reason;
+		final Coordinate location;
+		Defekt(String fid, String geometryType, String reason, Coordinate location) {
+			this.fid = fid;
+			this.geometryType = geometryType;
+			this.reason = reason;
+			this.location = location;
+		}
+	}
+
+	// Ergebnis eines Blocks bzw. Satzbereichs
+	static class Block {
+		int count = 0;
+		final List<Defekt> defects = new ArrayList<>();
+	}
+
+	// ## Prüfung aller Objekte von fs, Bericht nach reportPath, Rückgabe Anzahl Fehler ##
+	// Shapedateien werden über den ShapeLeser parallel in Satzbereichen gelesen und in Satzreihenfolge geschrieben
+	static int check(SimpleFeatureSource fs, String reportPath) throws Exception {
+		return check(System.out, fs, reportPath);
+	}
+	static int check(PrintStream out, SimpleFeatureSource fs, String reportPath) throws Exception {
+		ValiditaetsCache cache = ValiditaetsCache.of(fs);
+		boolean ndjson = reportPath.toLowerCase(Locale.ROOT).endsWith(".ndjson");
+		// Objekte, nicht valide, nicht simpel
+		int[] totals = new int[3];
+		try (ShapeLeser leser = ShapeLeser.of(fs);
+				Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(reportPath), StandardCharsets.UTF_8), 1 << 16)) {
+			if (!ndjson) {
+				writer.write("fid,geomtype,reason,x,y\n");
+			}
+			if (leser != null) {
+				String prefix = fs.getSchema().getTypeName() + ".";
+				ParalleleAbtastung.forEachOrdered(leser, cursor -> check(cursor, prefix, cache), block -> write(writer, block, ndjson, totals));
+			} else {
+				try (SimpleFeatureIterator features = fs.getFeatures().features()) {
+					List<SimpleFeature> objects = new ArrayList<>(blockSize);
+					while (features.hasNext()) {
+						objects.add(features.next());
+						if (objects.size() == blockSize || !features.hasNext()) {
+							Block block = new Block();
+							block.count = objects.size();
+							List<List<Defekt>> results = objects.parallelStream()
+									.map(feature -> check(feature, cache))
+									.collect(Collectors.toList());
+							results.forEach(block.defects::addAll);
+							write(writer, block, ndjson, totals);
+							objects.clear();
+						}
+					}
+				}
+			}
+		}
+		cache.save();
+		out.print("Konsistenzprüfung " + fs.getSchema().getName() + ": " + totals[0] + " Objekte, "
+				+ totals[1] + " nicht valide, " + totals[2] + " nicht simpel (Bericht: " + reportPath + ")\n");
+		return totals[1] + totals[2];
+	}
+
+	private static Block check(ShapeLeser.Cursor cursor, String prefix, ValiditaetsCache cache) throws Exception {
+		Block block = new Block();
+		while (cursor.next()) {
+			if (cursor.isDeleted()) {
+				continue;
+			}
+			block.count++;
+			int record = cursor.record();
+			Boolean known = cache.knownSimpleAndValid(record);
+			if (!cursor.isNull() && (known == null || !known)) {
+				Geometry geom = cursor.geometry();
+				block.defects.addAll(check(prefix + record, geom, cache.isValid(record, geom), cache.isSimple(record, geom)));
+			}
+		}
+		return block;
+	}
+
+	private static void write(Writer writer, Block block, boolean ndjson, int[] totals) throws IOException {
+		totals[0] += block.count;
+		for (Defekt d : block.defects) {
+			if (d.reason.equals(NOT_SIMPLE)) {totals[2]++;} else {totals[1]++;}
+			writer.write(ndjson ? toJson(d) : toCsv(d));
+		}
+	}
+
+	private static List<Defekt> check(SimpleFeature feature, ValiditaetsCache cache) {
+		Geometry geom = (Geometry) feature.getDefaultGeometry();
+		if (geom == null) {
+			return new ArrayList<>();
+		}
+		return check(feature.getID(), geom, cache.isValid(feature, geom), cache.isSimple(feature, geom));
+	}
+
+	// Fehlerart und -stelle nur für Objekte, die laut Cache bzw. Prüfung nicht valide oder nicht simpel sind
+	private static List<Defekt> check(String fid, Geometry geom, boolean valid, boolean simple) {
+		List<Defekt> defects = new ArrayList<>(2);
+		if (!valid) {
+			TopologyValidationError error = new IsValidOp(geom).getValidationError();
+			if (error != null) {
+				defects.add(new Defekt(fid, geom.getGeometryType(), error.getMessage(), error.getCoordinate()));
+			}
+		}
+		if (!simple) {
+			IsSimpleOp op = new IsSimpleOp(geom);
+			if (!op.isSimple()) {
+				defects.add(new Defekt(fid, geom.getGeometryType(), NOT_SIMPLE, op.getNonSimpleLocation()));
+			}
+		}
+		return defects;
+	}
+
+	private static String toCsv(Defekt d) {
+		return quote(d.fid) + "," + d.geometryType + "," + quote(d.reason) + ","
+				+ (d.location == null ? "," : d.location.x + "," + d.location.y) + "\n";
+	}
+
+	private static String toJson(Defekt d) {
+		return "{\"fid\":\"" + escape(d.fid) + "\",\"geomtype\":\"" + d.geometryType + "\",\"reason\":\"" + escape(d.reason) + "\""
+				+ (d.location == null ? "" : ",\"x\":" + d.location.x + ",\"y\":" + d.location.y) + "}\n";
+	}
+
+	private static String quote(String value) {
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+}
@@ -0,0 +1,220 @@
+package GeoModA.GeoTools;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.MultiLineString;
+import org.opengis.feature.simple.SimpleFeature;
+
+/*
+Kennwerte einer Ebene aus einem einzigen Lesedurchlauf: Objektanzahl, valide und simple
+Objekte, Flächensumme (wie calculateArea), Ausdehnung, Stützpunktanzahl sowie die
+FIDs und Attributbeschreibungen der nicht validen bzw. nicht simplen Objekte.
+isValid() und isSimple() werden je Objekt höchstens einmal ausgewertet (ValiditaetsCache).
+*/
+public class LayerProfil {
+	private static final GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+
+	final String name;
+	int count = 0;
+	int validCount = 0;
+	int simpleCount = 0;
+	double area = 0;
+	long vertices = 0;
+	final Envelope envelope = new Envelope();
+	final List<String> invalidFids = new ArrayList<>();
+	final List<String> notSimpleFids = new ArrayList<>();
+	private final List<String> invalidDescriptions = new ArrayList<>();
+	private final List<String> notSimpleDescriptions = new ArrayList<>();
+
+	private LayerProfil(String name) {
+		this.name = name;
+	}
+
+	// ## Ein Lesedurchlauf über alle Objekte der FeatureSource ##
+	// Shapedateien werden über den ShapeLeser parallel in Satzbereichen gelesen
+	static LayerProfil scan(SimpleFeatureSource fs) throws Exception {
+		String name = fs.getSchema().getName().toString();
+		ValiditaetsCache cache = ValiditaetsCache.of(fs);
+		try (ShapeLeser leser = ShapeLeser.of(fs)) {
+			if (leser != null) {
+				String prefix = fs.getSchema().getTypeName() + ".";
+				LayerProfil profil = ParalleleAbtastung.reduce(leser, cursor -> scan(cursor, name, prefix, cache), LayerProfil::add);
+				cache.save();
+				return profil;
+			}
+		}
+		LayerProfil profil = new LayerProfil(name);
+		try (SimpleFeatureIterator features = fs.getFeatures().features()) {
+			while (features.hasNext()) {
+				SimpleFeature feature = features.next();
+				Geometry geom = (Geometry) feature.getDefaultGeometry();
+				profil.count++;
+				if (geom == null) {
+					continue;
+				}
+				profil.vertices += geom.getNumPoints();
+				profil.envelope.expandToInclude(geom.getEnvelopeInternal());
+
+				boolean valid = cache.isValid(feature, geom);
+				boolean simple = cache.isSimple(feature, geom);
+				if (valid) {
+					profil.validCount++;
+				} else {
+					profil.invalidFids.add(feature.getID());
+					profil.invalidDescriptions.add(describe(feature, geom));
+				}
+				if (simple) {
+					profil.simpleCount++;
+				} else {
+					profil.notSimpleFids.add(feature.getID());
+					profil.notSimpleDescriptions.add(describe(feature, geom));
+				}
+				// Flächensumme wie calculateArea: alle Teilflächen einfacher und valider Objekte, geschlossene Linien als Flächen
+				if (valid && simple) {
+					profil.area += Normalisierung.area(geom, geometryFactory);
+				}
+			}
+		}
+		cache.save();
+		return profil;
+	}
+
+	// Ein Satzbereich; Flächen bekannter Gültigkeit aus den Rohkoordinaten, Beschreibungen aus den DBF-Feldern
+	private static LayerProfil scan(ShapeLeser.Cursor cursor, String name, String prefix, ValiditaetsCache cache) throws Exception {
+		LayerProfil profil = new LayerProfil(name);
+		while (cursor.next()) {
+			if (cursor.isDeleted()) {
+				continue;
+			}
+			profil.count++;
+			if (cursor.isNull()) {
+				continue;
+			}
+			int record = cursor.record();
+			profil.vertices += cursor.numPoints();
+			profil.envelope.expandToInclude(cursor.minX(), cursor.minY());
+			profil.envelope.expandToInclude(cursor.maxX(), cursor.maxY());
+
+			Boolean known = cache.knownSimpleAndValid(record);
+			Geometry geom = null;
+			boolean valid;
+			boolean simple;
+			if (known != null && known) {
+				valid = true;
+				simple = true;
+			} else {
+				geom = cursor.geometry();
+				valid = cache.isValid(record, geom);
+				simple = cache.isSimple(record, geom);
+			}
+			if (valid) {
+				profil.validCount++;
+			} else {
+				profil.invalidFids.add(prefix + record);
+				profil.invalidDescriptions.add(describe(cursor, geom));
+			}
+			if (simple) {
+				profil.simpleCount++;
+			} else {
+				profil.notSimpleFids.add(prefix + record);
+				profil.notSimpleDescriptions.add(describe(cursor, geom));
+			}
+			if (valid && simple && geom == null) {
+				// Gültigkeit bekannt: Fläche aus den Rohkoordinaten
+				profil.area += cursor.isPolygon() ? cursor.area() : cursor.closedArea();
+			} else if (valid && simple && (cursor.isPolygon() || cursor.isLine())) {
+				profil.area += Normalisierung.area(geometry(cursor, geom), geometryFactory);
+			}
+		}
+		return profil;
+	}
+
+	private static Geometry geometry(ShapeLeser.Cursor cursor, Geometry geom) throws Exception {
+		return (geom != null) ? geom : cursor.geometry();
+	}
+
+	// Teilergebnis eines nachfolgenden Satzbereichs anhängen
+	private LayerProfil add(LayerProfil other) {
+		count += other.count;
+		validCount += other.validCount;
+		simpleCount += other.simpleCount;
+		area += other.area;
+		vertices += other.vertices;
+		envelope.expandToInclude(other.envelope);
+		invalidFids.addAll(other.invalidFids);
+		notSimpleFids.addAll(other.notSimpleFids);
+		invalidDescriptions.addAll(other.invalidDescriptions);
+		notSimpleDescriptions.addAll(other.notSimpleDescriptions);
+		return this;
+	}
+
+	int getInvalidCount() {
+		return count - validCount;
+	}
+
+	int getNotSimpleCount() {
+		return count - simpleCount;
+	}
+
+	// ## Ausgabe wie topologicalConsistency ##
+	void print() {
+		print(System.out);
+	}
+	void print(PrintStream out) {
+		out.print("Objektanzahl in " + name + ": " + count + "\n");
+		out.print("Nichtvalide Objekte in " + name + ": " + getInvalidCount() + "\n");
+		out.print("Nicht-Simple Features in " + name + ": " + getNotSimpleCount() + "\n");
+	}
+
+	void printNotSimpleFeatures() {
+		for (String description : notSimpleDescriptions) {
+			System.out.print(description + "\n");
+		}
+	}
+
+	void printInvalidFeatures() {
+		for (String description : invalidDescriptions) {
+			System.out.print(description + "\n");
+		}
+	}
+
+	// Wie describe(feature, geom) für einen Satz der Shapedatei, Attributwerte als DBF-Text
+	private static String describe(ShapeLeser.Cursor cursor, Geometry geom) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(geom.getNumGeometries()).append(" ");
+		if (geom instanceof MultiLineString) {
+			sb.append(((MultiLineString) geom).isClosed()).append(" ");
+		}
+		for (int f=0;f<cursor.fieldCount();f++) {
+			String value = cursor.string(f);
+			if (value != null && !value.isEmpty()) {
+				sb.append(cursor.fieldName(f)).append("=").append(value).append("  ");
+			}
+		}
+		return sb.toString();
+	}
+
+	// Anzahl Teilgeometrien, bei Linien geschlossen ja/nein, alle belegten Attribute
+	private static String describe(SimpleFeature feature, Geometry geom) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(geom.getNumGeometries()).append(" ");
+		if (geom instanceof MultiLineString) {
+			sb.append(((MultiLineString) geom).isClosed()).append(" ");
+		}
+		for (int i=1;i<feature.getAttributeCount();i++) {
+			Object value = feature.getAttribute(i);
+			if (value != null && !value.equals("")) {
+				sb.append(feature.getFeatureType().getDescriptor(i).getName()).append("=").append(value).append("  ");
+			}
+		}
+		return sb.toString();
+	}
+}
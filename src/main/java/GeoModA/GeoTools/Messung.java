@@ -0,0 +1,261 @@
+package GeoModA.GeoTools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.geotools.data.simple.SimpleFeatureSource;
+
+/*
+Messung je Verarbeitungsstufe und Klasse: Laufzeit, CPU-Zeit, Objekte/s, gelesene Bytes,
+allokierte Bytes und höchste Heap-Belegung. Die Analyse-Methoden messen sich selbst, Klasse ist
+der Ebenenname (z.B. AX_Turm_P, Turm_F), bei der Aufteilung der Name der Quelle.
+ filter    createFilteredShapes / createFilteredLayers
+ centroid  convertAreaToPoint
+ dedupe    removeDuplicatePoints
+ match     positionPointToPoint
+ union     bufferedUnionGeometry (auch bei Treffern im ErgebnisCache)
+ overlay   Verschneidungen und Pufferstaffeln
+CPU-Zeit und Allokationen gelten für den ganzen Prozess (alle Threads, auch ForkJoinPool), die
+Heap-Spitze für alle Heap-Bereiche. Sie werden daher nur für Aufrufe erfasst, während derer keine
+andere Stufe lief (isolated_calls); überschneiden sich Stufen (Ablaufplanung mit threads > 1),
+bleiben nur Laufzeit, Objekte und gelesene Bytes. Vollständige Werte je Stufe mit threads = 1.
+Gehalten werden nur die Summen je Stufe und Klasse, nicht die einzelnen Aufrufe.
+Gelesene Bytes: Größe von .shp und .dbf für Shapedateien, Ebenen im Arbeitsspeicher zählen 0.
+Am Ende eines Laufs schreibt write() die Summen je Stufe und Klasse als JSON und im
+Prometheus-Textformat (z.B. für den node_exporter textfile collector).
+*/
+public class Messung implements AutoCloseable {
+	static final String FILTER = "filter";
+	static final String CENTROID = "centroid";
+	static final String DEDUPE = "dedupe";
+	static final String MATCH = "match";
+	static final String UNION = "union";
+	static final String OVERLAY = "overlay";
+
+	// Summen je Stufe und Klasse, Zugriff nur unter synchronized (summen)
+	private static final Map<String, Messung> summen = new LinkedHashMap<>();
+	// Gerade laufende Stufen, Zugriff nur unter synchronized (summen)
+	private static final List<Messung> laufende = new ArrayList<>();
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private static final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+
+	final String stufe;
+	final String klasse;
+	private final long startNanos;
+	private final long startCpu;
+	private final long startAllocated;
+	long wallNanos;
+	long cpuNanos;
+	long allocatedBytes;
+	long peakHeap;
+	long features;
+	long bytesRead;
+	// Einzelaufruf: lief keine andere Stufe gleichzeitig; Summe: Anzahl Aufrufe und davon isolierte
+	private boolean isoliert;
+	int aufrufe;
+	int isolierteAufrufe;
+
+	private Messung(String stufe, String klasse, boolean laufend) {
+		this.stufe = stufe;
+		this.klasse = klasse;
+		if (laufend) {
+			synchronized (summen) {
+				for (Messung m : laufende) {
+					m.isoliert = false;
+				}
+				isoliert = laufende.isEmpty();
+				laufende.add(this);
+				if (isoliert) {
+					resetPeakHeap();
+				}
+			}
+		}
+		startAllocated = laufend ? allocatedBytes() : 0;
+		startCpu = laufend ? cpuTime() : 0;
+		startNanos = laufend ? System.nanoTime() : 0;
+	}
+
+	// ## Beginn einer Stufe, Ende mit close() (try-with-resources) ##
+	static Messung start(String stufe, String klasse) {
+		return new Messung(stufe, klasse, true);
+	}
+	static Messung start(String stufe, SimpleFeatureSource fs) {
+		return new Messung(stufe, fs.getSchema().getTypeName(), true);
+	}
+
+	void features(long n) {
+		features += n;
+	}
+
+	// Gelesene Quelle: Dateigröße von .shp und .dbf, falls fs eine Shapedatei ist
+	void read(SimpleFeatureSource fs) {
+		File shp = ValiditaetsCache.shapeFile(fs);
+		if (shp != null) {
+			String name = shp.getName();
+			bytesRead += shp.length() + new File(shp.getParentFile(), name.substring(0, name.lastIndexOf('.')) + ".dbf").length();
+		}
+	}
+
+	@Override
+	public void close() {
+		wallNanos = System.nanoTime() - startNanos;
+		cpuNanos = cpuTime() - startCpu;
+		allocatedBytes = allocatedBytes() - startAllocated;
+		peakHeap = peakHeap();
+		synchronized (summen) {
+			laufende.remove(this);
+			String key = stufe + "|" + klasse;
+			Messung summe = summen.get(key);
+			if (summe == null) {
+				summe = new Messung(stufe, klasse, false);
+				summen.put(key, summe);
+			}
+			summe.add(this);
+		}
+	}
+
+	private void add(Messung m) {
+		wallNanos += m.wallNanos;
+		features += m.features;
+		bytesRead += m.bytesRead;
+		aufrufe++;
+		if (m.isoliert) {
+			cpuNanos += m.cpuNanos;
+			allocatedBytes += m.allocatedBytes;
+			peakHeap = Math.max(peakHeap, m.peakHeap);
+			isolierteAufrufe++;
+		}
+	}
+
+	// ## Summen je Stufe und Klasse als JSON und Prometheus-Text, danach neu beginnen ##
+	static void write(String jsonPath, String prometheusPath) throws IOException {
+		List<Messung> werte;
+		synchronized (summen) {
+			werte = new ArrayList<>(summen.values());
+			summen.clear();
+		}
+
+		try (PrintWriter json = writer(jsonPath)) {
+			json.print("{\"lauf\": \"" + new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ").format(new Date()) + "\", \"stufen\": [");
+			String trenner = "\n";
+			for (Messung m : werte) {
+				boolean isoliert = m.isolierteAufrufe > 0;
+				json.print(trenner + "  {\"stage\": \"" + escape(m.stufe) + "\", \"class\": \"" + escape(m.klasse) + "\""
+						+ ", \"calls\": " + m.aufrufe
+						+ ", \"isolated_calls\": " + m.isolierteAufrufe
+						+ ", \"wall_seconds\": " + number(m.wallNanos / 1e9)
+						+ ", \"cpu_seconds\": " + (isoliert ? number(m.cpuNanos / 1e9) : "null")
+						+ ", \"features\": " + m.features
+						+ ", \"features_per_second\": " + number(m.featuresPerSecond())
+						+ ", \"bytes_read\": " + m.bytesRead
+						+ ", \"allocated_bytes\": " + (isoliert ? String.valueOf(m.allocatedBytes) : "null")
+						+ ", \"peak_heap_bytes\": " + (isoliert ? String.valueOf(m.peakHeap) : "null") + "}");
+				trenner = ",\n";
+			}
+			json.print("\n]}\n");
+		}
+
+		try (PrintWriter prom = writer(prometheusPath)) {
+			metric(prom, werte, false, "geomoda_stage_wall_seconds", "gauge", "Laufzeit je Stufe und Klasse", m -> m.wallNanos / 1e9);
+			metric(prom, werte, true, "geomoda_stage_cpu_seconds", "gauge", "CPU-Zeit des Prozesses während der Stufe (nur isolierte Aufrufe)", m -> m.cpuNanos / 1e9);
+			metric(prom, werte, false, "geomoda_stage_features", "gauge", "Verarbeitete Objekte", m -> m.features);
+			metric(prom, werte, false, "geomoda_stage_features_per_second", "gauge", "Durchsatz in Objekten je Sekunde", Messung::featuresPerSecond);
+			metric(prom, werte, false, "geomoda_stage_read_bytes", "gauge", "Gelesene Bytes (.shp und .dbf)", m -> m.bytesRead);
+			metric(prom, werte, true, "geomoda_stage_allocated_bytes", "gauge", "Allokierte Bytes aller Threads während der Stufe (nur isolierte Aufrufe)", m -> m.allocatedBytes);
+			metric(prom, werte, true, "geomoda_stage_peak_heap_bytes", "gauge", "Höchste Heap-Belegung während der Stufe (nur isolierte Aufrufe)", m -> m.peakHeap);
+		}
+		System.out.print("Messwerte: " + jsonPath + ", " + prometheusPath + "\n");
+	}
+
+	private interface Wert {
+		double of(Messung m);
+	}
+
+	// prozessweit: nur Stufen mit mindestens einem isolierten Aufruf
+	private static void metric(PrintWriter prom, List<Messung> werte, boolean prozessweit, String name, String type, String help, Wert wert) {
+		prom.print("# HELP " + name + " " + help + "\n");
+		prom.print("# TYPE " + name + " " + type + "\n");
+		for (Messung m : werte) {
+			if (prozessweit && m.isolierteAufrufe == 0) {
+				continue;
+			}
+			prom.print(name + "{stage=\"" + escape(m.stufe) + "\",class=\"" + escape(m.klasse) + "\"} " + number(wert.of(m)) + "\n");
+		}
+	}
+
+	double featuresPerSecond() {
+		return (wallNanos > 0) ? features / (wallNanos / 1e9) : 0.0;
+	}
+
+	private static PrintWriter writer(String path) throws IOException {
+		File file = new File(path);
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		return new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+	}
+
+	private static String number(double value) {
+		return String.format(Locale.ROOT, "%.6f", value);
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+	private static long cpuTime() {
+		if (os instanceof com.sun.management.OperatingSystemMXBean) {
+			return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+		}
+		return 0;
+	}
+
+	// Summe der allokierten Bytes aller lebenden Threads (beendete Threads fallen heraus)
+	private static long allocatedBytes() {
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+			long sum = 0;
+			for (long bytes : bean.getThreadAllocatedBytes(bean.getAllThreadIds())) {
+				if (bytes > 0) {
+					sum += bytes;
+				}
+			}
+			return sum;
+		}
+		return 0;
+	}
+
+	private static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	private static long peakHeap() {
+		long sum = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				sum += pool.getPeakUsage().getUsed();
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,292 @@
+package GeoModA.GeoTools;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.MultiLineString;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.Polygonal;
+import org.locationtech.jts.geom.Puntal;
+import org.opengis.feature.simple.SimpleFeature;
+
+/*
+Einheitliche Geometrien einer Ebene, einmal je Ebene berechnet und im Arbeitsspeicher gehalten:
+ - Flächen (Polygon, MultiPolygon): alle Teilflächen
+ - Linien (LineString, MultiLineString): jede geschlossene Teillinie als Fläche, offene entfallen
+ - Punkte unverändert
+dazu je Objekt, ob die Ausgangsgeometrie einfach und valide ist (über den ValiditaetsCache).
+Zwischengespeichert werden Shapedateien (angemeldet über openShape) und SpaltenLayer, solange sie
+unverändert sind (Dateigröße/Änderungszeit bzw. Änderungszähler). Die Zuordnung Objekt -> Eintrag
+erfolgt über die Nummer in der FID (<Name>.<Nummer ab 1>). Andere Quellen werden bei jedem
+Aufruf neu berechnet. Die Einträge sind weich referenziert und werden bei Speichermangel verworfen.
+*/
+public class Normalisierung {
+	private static final byte SIMPLE = 1, VALID = 2;
+	private static final Map<SimpleFeatureSource, SoftReference<Normalisierung>> layers = new WeakHashMap<>();
+
+	private final long stamp;
+	// Index = Nummer aus der FID - 1; null für gelöschte Objekte oder ohne Fläche/Punkt
+	private final Geometry[] geometries;
+	private final byte[] flags;
+	private final boolean indexed;
+
+	private Normalisierung(long stamp, int size, boolean indexed) {
+		this.stamp = stamp;
+		this.geometries = new Geometry[size];
+		this.flags = new byte[size];
+		this.indexed = indexed;
+	}
+
+	// ## Einheitliche Geometrie: alle Teilflächen bzw. geschlossenen Teillinien als Flächen, Punkte unverändert ##
+	static Geometry canonical(Geometry geom, GeometryFactory geometryFactory) {
+		if (geom == null || geom.isEmpty()) {
+			return null;
+		}
+		if (geom instanceof Polygon || geom instanceof Puntal) {
+			return geom;
+		}
+		if (geom instanceof MultiPolygon) {
+			return (geom.getNumGeometries() == 1) ? geom.getGeometryN(0) : geom;
+		}
+		if (geom instanceof LineString || geom instanceof MultiLineString) {
+			List<Polygon> polygons = new ArrayList<>(geom.getNumGeometries());
+			for (int i=0;i<geom.getNumGeometries();i++) {
+				LineString line = (LineString) geom.getGeometryN(i);
+				if (line.isClosed() && line.getNumPoints() >= 4) {
+					polygons.add(geometryFactory.createPolygon(geometryFactory.createLinearRing(line.getCoordinateSequence())));
+				}
+			}
+			if (polygons.isEmpty()) {
+				return null;
+			}
+			return (polygons.size() == 1) ? polygons.get(0) : geometryFactory.createMultiPolygon(polygons.toArray(new Polygon[0]));
+		}
+		return null;
+	}
+
+	// Fläche der einheitlichen Geometrie (alle Teile), 0 für Punkte und offene Linien
+	static double area(Geometry geom, GeometryFactory geometryFactory) {
+		Geometry canonical = canonical(geom, geometryFactory);
+		return (canonical instanceof Polygonal) ? canonical.getArea() : 0.0;
+	}
+
+	// ## Flächensumme aller einfachen und validen Objekte von fs (wie of(fs).area()) ##
+	// Shapedateien ohne vorliegende Normalisierung werden über den ShapeLeser summiert: Sätze mit bereits
+	// bekannter Gültigkeit aus den Rohkoordinaten, nur die übrigen werden dekodiert und geprüft
+	static double area(SimpleFeatureSource fs) throws Exception {
+		Normalisierung cached = cached(fs);
+		if (cached != null) {
+			return cached.area();
+		}
+		try (ShapeLeser leser = ShapeLeser.of(fs)) {
+			if (leser != null) {
+				ValiditaetsCache cache = ValiditaetsCache.of(fs);
+				GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+				double area = ParalleleAbtastung.reduce(leser, cursor -> area(cursor, cache, geometryFactory), Double::sum);
+				cache.save();
+				return area;
+			}
+		}
+		return of(fs).area();
+	}
+
+	// Ein Satzbereich: Flächen und geschlossene Linien, Punkte tragen nichts bei
+	private static double area(ShapeLeser.Cursor cursor, ValiditaetsCache cache, GeometryFactory geometryFactory) throws Exception {
+		double sum = 0;
+		while (cursor.next()) {
+			if (cursor.isDeleted() || !(cursor.isPolygon() || cursor.isLine())) {
+				continue;
+			}
+			int record = cursor.record();
+			Boolean known = cache.knownSimpleAndValid(record);
+			if (known == null) {
+				Geometry geom = cursor.geometry();
+				if (cache.isSimpleAndValid(record, geom)) {
+					sum += area(geom, geometryFactory);
+				}
+			} else if (known) {
+				sum += cursor.isPolygon() ? cursor.area() : cursor.closedArea();
+			}
+		}
+		return sum;
+	}
+
+	// ## Normalisierung der Ebene fs, aus dem Zwischenspeicher oder neu berechnet ##
+	static Normalisierung of(SimpleFeatureSource fs) throws Exception {
+		long stamp = stamp(fs);
+		if (stamp != 0) {
+			Normalisierung cached = cached(fs);
+			if (cached != null) {
+				return cached;
+			}
+		}
+		Normalisierung result = compute(fs, stamp);
+		if (stamp != 0) {
+			synchronized (layers) {
+				layers.put(fs, new SoftReference<>(result));
+			}
+		}
+		return result;
+	}
+
+	// Bereits berechnete, noch gültige Normalisierung; null, wenn keine vorliegt
+	static Normalisierung cached(SimpleFeatureSource fs) {
+		long stamp = stamp(fs);
+		SoftReference<Normalisierung> ref;
+		synchronized (layers) {
+			ref = layers.get(fs);
+		}
+		Normalisierung cached = (ref == null) ? null : ref.get();
+		return (cached != null && stamp != 0 && cached.stamp == stamp) ? cached : null;
+	}
+
+	// Zwischenspeicher leeren (z.B. in Benchmarks, damit jede Messung neu normalisiert)
+	static void clear() {
+		synchronized (layers) {
+			layers.clear();
+		}
+	}
+
+	// Änderungskennung; 0 = nicht zwischenspeicherbar
+	private static long stamp(SimpleFeatureSource fs) {
+		if (fs instanceof SpaltenLayer) {
+			return ((SpaltenLayer) fs).version() + 1;
+		}
+		File shp = ValiditaetsCache.shapeFile(fs);
+		return (shp == null) ? 0 : 31 * shp.length() + shp.lastModified() + 1;
+	}
+
+	private static Normalisierung compute(SimpleFeatureSource fs, long stamp) throws Exception {
+		GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+		ValiditaetsCache cache = ValiditaetsCache.of(fs);
+		try (ShapeLeser leser = ShapeLeser.of(fs)) {
+			if (leser != null) {
+				// Shapedatei: parallel in Satzbereichen, jeder Bereich schreibt nur seine eigenen Einträge
+				Normalisierung result = new Normalisierung(stamp, leser.size(), true);
+				ParalleleAbtastung.reduce(leser, cursor -> {
+					while (cursor.next()) {
+						if (cursor.isDeleted() || cursor.isNull()) {
+							continue;
+						}
+						int record = cursor.record();
+						Geometry geom = cursor.geometry();
+						result.set(record - 1, geom, cache.isSimple(record, geom), cache.isValid(record, geom), geometryFactory);
+					}
+					return null;
+				}, (a, b) -> a);
+				cache.save();
+				return result;
+			}
+		}
+
+		boolean indexed = fs instanceof SpaltenLayer;
+		List<SimpleFeature> features = new ArrayList<>();
+		try (SimpleFeatureIterator it = fs.getFeatures().features()) {
+			while (it.hasNext()) {
+				features.add(it.next());
+			}
+		}
+		Normalisierung result = new Normalisierung(stamp, indexed ? ((SpaltenLayer) fs).rows() : features.size(), indexed);
+		for (int i=0;i<features.size();i++) {
+			SimpleFeature feature = features.get(i);
+			Geometry geom = (Geometry) feature.getDefaultGeometry();
+			if (geom != null) {
+				result.set(indexed ? index(feature.getID()) : i, geom, cache.isSimple(feature, geom), cache.isValid(feature, geom), geometryFactory);
+			}
+		}
+		cache.save();
+		return result;
+	}
+
+	private void set(int i, Geometry geom, boolean simple, boolean valid, GeometryFactory geometryFactory) {
+		if (i < 0 || i >= geometries.length) {
+			return;
+		}
+		geometries[i] = canonical(geom, geometryFactory);
+		flags[i] = (byte) ((simple ? SIMPLE : 0) | (valid ? VALID : 0));
+	}
+
+	// Index aus der FID (<Name>.<Nummer ab 1>), -1 wenn nicht ablesbar
+	private static int index(String fid) {
+		try {
+			return Integer.parseInt(fid.substring(fid.lastIndexOf('.') + 1)) - 1;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	// ## Zugriff je Objekt über die FID ##
+	Geometry geometry(String fid) {
+		int i = indexed ? index(fid) : -1;
+		return (i >= 0 && i < geometries.length) ? geometries[i] : null;
+	}
+	boolean isSimple(String fid) {
+		int i = indexed ? index(fid) : -1;
+		return i >= 0 && i < flags.length && (flags[i] & SIMPLE) != 0;
+	}
+	boolean contains(String fid) {
+		int i = indexed ? index(fid) : -1;
+		return i >= 0 && i < geometries.length;
+	}
+
+	// ## Teilgeometrien aller einfachen und validen Objekte (Flächen als Polygone, Punkte unverändert) ##
+	List<Geometry> validGeometries() {
+		List<Geometry> result = new ArrayList<>();
+		for (int i=0;i<geometries.length;i++) {
+			if (geometries[i] != null && flags[i] == (SIMPLE | VALID)) {
+				result.addAll(Analyse.parts(geometries[i]));
+			}
+		}
+		return result;
+	}
+	// Nur die Objekte aus fc (z.B. gefiltert aus derselben Ebene)
+	List<Geometry> validGeometries(SimpleFeatureCollection fc) throws Exception {
+		GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+		List<Geometry> result = new ArrayList<>();
+		try (SimpleFeatureIterator it = fc.features()) {
+			while (it.hasNext()) {
+				Geometry geom = validGeometry(it.next(), geometryFactory);
+				if (geom != null) {
+					result.addAll(Analyse.parts(geom));
+				}
+			}
+		}
+		return result;
+	}
+
+	// Einheitliche Geometrie eines Objekts, falls es einfach und valide ist, sonst null;
+	// Objekte ohne Eintrag (andere Quellen) werden direkt geprüft
+	Geometry validGeometry(SimpleFeature feature, GeometryFactory geometryFactory) {
+		String fid = feature.getID();
+		if (contains(fid)) {
+			int i = index(fid);
+			return (flags[i] == (SIMPLE | VALID)) ? geometries[i] : null;
+		}
+		Geometry geom = (Geometry) feature.getDefaultGeometry();
+		Geometry canonical = canonical(geom, geometryFactory);
+		return (canonical != null && geom.isSimple() && geom.isValid()) ? canonical : null;
+	}
+
+	// ## Gesamtsumme der Flächen aller einfachen und validen Objekte, alle Teilflächen ##
+	double area() {
+		double sum = 0;
+		for (int i=0;i<geometries.length;i++) {
+			if (geometries[i] instanceof Polygonal && flags[i] == (SIMPLE | VALID)) {
+				sum += geometries[i].getArea();
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,13 @@
+package GeoModA.GeoTools;
+
+import java.io.IOException;
+
+import org.opengis.feature.simple.SimpleFeature;
+
+/*
+Ziel für Objekte einer Verarbeitungsstufe: Shapedatei (ShapeSchreiber) oder
+Ebene im Arbeitsspeicher (SpaltenLayer).
+*/
+interface Objektziel {
+	void write(SimpleFeature feature) throws IOException;
+}
@@ -0,0 +1,105 @@
+package GeoModA.GeoTools;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BinaryOperator;
+
+/*
+Paralleles Lesen einer Shapedatei in Satzbereichen. Die .shx liefert die Lage jedes Satzes,
+daher lässt sich die Datei ohne Vorlauf in zusammenhängende Bereiche teilen; jeder Bereich
+wird mit einem eigenen Cursor des ShapeLeser in einem Thread des ForkJoinPool ausgewertet.
+ - reduce: Teilergebnisse je Bereich, zusammengeführt in Satzreihenfolge (Ergebnis unabhängig
+   von der Thread-Verteilung, auch bei Gleitkommasummen)
+ - forEachOrdered: Teilergebnisse gehen in Satzreihenfolge an einen Verbraucher (z.B. einen
+   Writer), im Speicher liegen höchstens zwei Bereiche je Thread
+Schlägt ein Bereich oder der Verbraucher fehl, werden die noch nicht begonnenen Bereiche
+übersprungen und die laufenden abgewartet, bevor der Fehler weitergegeben wird: danach greift
+kein Thread mehr auf den ShapeLeser zu, der Aufrufer darf ihn schließen.
+*/
+public class ParalleleAbtastung {
+	// Grenzen für die Anzahl Sätze je Bereich
+	static int minRangeSize = 1000;
+	static int maxRangeSize = 50000;
+	static ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	// Auswertung eines Bereichs über den übergebenen Cursor
+	interface Bereich<T> {
+		T scan(ShapeLeser.Cursor cursor) throws Exception;
+	}
+
+	interface Verbraucher<T> {
+		void accept(T result) throws Exception;
+	}
+
+	// ## Aggregation über alle Bereiche ##
+	static <T> T reduce(ShapeLeser leser, Bereich<T> scan, BinaryOperator<T> combine) throws Exception {
+		List<T> parts = new ArrayList<>();
+		forEachOrdered(leser, scan, parts::add);
+		if (parts.isEmpty()) {
+			// Leere Datei: Ergebnis eines leeren Bereichs
+			return scan.scan(leser.cursor(0, 0));
+		}
+		T result = parts.get(0);
+		for (int i=1;i<parts.size();i++) {
+			result = combine.apply(result, parts.get(i));
+		}
+		return result;
+	}
+
+	// ## Geordnete Zusammenführung für Ausgaben ##
+	static <T> void forEachOrdered(ShapeLeser leser, Bereich<T> scan, Verbraucher<T> sink) throws Exception {
+		int records = leser.size();
+		int threads = pool.getParallelism();
+		int rangeSize = Math.max(minRangeSize, Math.min(maxRangeSize, records / (4 * threads) + 1));
+		Deque<CompletableFuture<T>> window = new ArrayDeque<>();
+		AtomicBoolean abgebrochen = new AtomicBoolean(false);
+		int next = 0;
+		try {
+			while (next < records || !window.isEmpty()) {
+				while (next < records && window.size() < 2 * threads) {
+					int from = next;
+					int to = Math.min(records, from + rangeSize);
+					window.add(CompletableFuture.supplyAsync(() -> {
+						if (abgebrochen.get()) {
+							return null;
+						}
+						try {
+							return scan.scan(leser.cursor(from, to));
+						} catch (Exception e) {
+							throw new CompletionException(e);
+						}
+					}, pool));
+					next = to;
+				}
+				sink.accept(join(window.poll()));
+			}
+		} catch (Exception | Error e) {
+			abgebrochen.set(true);
+			for (CompletableFuture<T> future : window) {
+				try {
+					future.join();
+				} catch (CompletionException ignored) {
+					// nur der erste Fehler wird weitergegeben
+				}
+			}
+			throw e;
+		}
+	}
+
+	static <T> T join(CompletableFuture<T> future) throws Exception {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		}
+	}
+}
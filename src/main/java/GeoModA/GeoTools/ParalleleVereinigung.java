@@ -0,0 +1,102 @@
+package GeoModA.GeoTools;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
+
+/*
+Parallele Vereinigung (Union) vieler Einzelgeometrien:
+ 1. Buffern der Einzelgeometrien parallel im ForkJoinPool
+ 2. Räumliche Sortierung nach dem STR-Verfahren (Streifen nach x, innerhalb der Streifen nach y),
+    damit benachbarte Geometrien in denselben Blättern landen
+ 3. Vereinigung der Blätter mit UnaryUnionOp und paarweises Zusammenführen der Teilergebnisse
+    als Baum auf allen Kernen
+Das Ergebnis beschreibt dieselbe Fläche wie die sequentielle UnaryUnionOp über alle Geometrien,
+nur die Reihenfolge der Stützpunkte kann abweichen.
+*/
+public class ParalleleVereinigung {
+	// Anzahl Geometrien, die ein Blatt sequentiell vereinigt
+	static int leafSize = 2000;
+	static ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	// ## Buffern (bei bufferRadius != 0 oder alwaysBuffer) und Vereinigen ##
+	// Punkte ohne Buffer werden wie bisher übergangen
+	static Geometry bufferedUnion(List<Geometry> geometries, double bufferRadius, boolean alwaysBuffer) {
+		boolean buffer = alwaysBuffer || bufferRadius != 0.0;
+		Geometry[] buffered = pool.submit(() -> geometries.parallelStream()
+				.map(geom -> {
+					if (buffer) {return geom.buffer(bufferRadius);}
+					return (geom instanceof Point) ? null : geom;
+				})
+				.filter(Objects::nonNull)
+				.toArray(Geometry[]::new)).join();
+		return union(buffered);
+	}
+
+	// ## Vereinigung bereits gebufferter Geometrien ##
+	static Geometry union(Geometry[] geometries) {
+		if (geometries.length == 0) {
+			return JTSFactoryFinder.getGeometryFactory().createMultiPolygon(new Polygon[0]);
+		}
+		if (geometries.length <= leafSize) {
+			return UnaryUnionOp.union(Arrays.asList(geometries));
+		}
+		Geometry[] sorted = strOrder(geometries);
+		return pool.invoke(new UnionTask(sorted, 0, sorted.length));
+	}
+
+	// STR-Reihenfolge: Streifen nach x-Mittelpunkt, innerhalb jedes Streifens nach y-Mittelpunkt
+	static Geometry[] strOrder(Geometry[] geometries) {
+		Geometry[] sorted = geometries.clone();
+		Arrays.sort(sorted, Comparator.comparingDouble(g -> centreX(g.getEnvelopeInternal())));
+		int leaves = (int) Math.ceil((double) sorted.length / leafSize);
+		int slices = (int) Math.ceil(Math.sqrt(leaves));
+		int sliceSize = (int) Math.ceil((double) sorted.length / slices);
+		for (int start=0;start<sorted.length;start+=sliceSize) {
+			int end = Math.min(sorted.length, start + sliceSize);
+			Arrays.sort(sorted, start, end, Comparator.comparingDouble(g -> centreY(g.getEnvelopeInternal())));
+		}
+		return sorted;
+	}
+	private static double centreX(Envelope env) {
+		return (env.getMinX() + env.getMaxX()) / 2.0;
+	}
+	private static double centreY(Envelope env) {
+		return (env.getMinY() + env.getMaxY()) / 2.0;
+	}
+
+	private static class UnionTask extends RecursiveTask<Geometry> {
+		private static final long serialVersionUID = 1L;
+		private final Geometry[] geometries;
+		private final int from;
+		private final int to;
+
+		UnionTask(Geometry[] geometries, int from, int to) {
+			this.geometries = geometries;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Geometry compute() {
+			if (to - from <= leafSize) {
+				return UnaryUnionOp.union(Arrays.asList(Arrays.copyOfRange(geometries, from, to)));
+			}
+			int mid = (from + to) >>> 1;
+			UnionTask left = new UnionTask(geometries, from, mid);
+			left.fork();
+			Geometry right = new UnionTask(geometries, mid, to).compute();
+			return left.join().union(right);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package GeoModA.GeoTools;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.stream.IntStream;
+
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.precision.GeometryPrecisionReducer;
+
+/*
+Optionaler Rechenmodus mit fester Genauigkeit für Unions und Verschneidungen. Alle Eingaben werden
+auf ein Raster der Weite gridSize (Einheit des KBS, z.B. 0.01 = 1 cm) gerundet und erhalten ein
+festes PrecisionModel. JTS rechnet Buffer, Union und Verschneidung dann in diesem Modell: neue
+Schnittpunkte landen ebenfalls auf dem Raster, beinahe zusammenfallende Stützpunkte fallen zusammen.
+Das vermeidet die teuren und mitunter scheiternden Robustheitsfälle bei Gleitkommagenauigkeit.
+Durch die Rundung zerfallende Flächen werden über GeometryPrecisionReducer wieder valide gemacht.
+Je gerundeter Ebene wird der Flächenfehler der Eingaben ausgegeben (Summe |A gerundet - A|, Saldo);
+jeder neue Schnittpunkt verschiebt sich zusätzlich um höchstens gridSize * √2 / 2.
+Standard ist gridSize = 0 (volle Gleitkommagenauigkeit, Verhalten wie bisher). Ergebnisse im
+ErgebnisCache werden je Rasterweite getrennt abgelegt.
+*/
+public class Praezision {
+	static double gridSize = 0.0;
+	static ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	static boolean isActive() {
+		return gridSize > 0;
+	}
+
+	static PrecisionModel precisionModel() {
+		return isActive() ? new PrecisionModel(1.0 / gridSize) : new PrecisionModel();
+	}
+
+	// Fabrik für neue Geometrien im Raster, ohne Raster die übliche Fabrik
+	static GeometryFactory geometryFactory() {
+		GeometryFactory standard = JTSFactoryFinder.getGeometryFactory();
+		if (!isActive()) {
+			return standard;
+		}
+		return new GeometryFactory(precisionModel(), standard.getSRID(), standard.getCoordinateSequenceFactory());
+	}
+
+	// Operationsname für den ErgebnisCache, mit Raster getrennt von den Ergebnissen ohne Raster
+	static String key(String operation) {
+		return isActive() ? operation + "@" + gridSize : operation;
+	}
+
+	// ## Rundung einer Geometrie auf das Raster, Flächen bleiben valide ##
+	static Geometry reduce(Geometry geom) {
+		if (!isActive() || geom == null) {
+			return geom;
+		}
+		GeometryPrecisionReducer reducer = new GeometryPrecisionReducer(precisionModel());
+		reducer.setChangePrecisionModel(true);
+		return reducer.reduce(geom);
+	}
+
+	// Bereits auf dem Raster liegende Geometrie (z.B. Union aus dem ErgebnisCache): nur das Modell setzen
+	static Geometry fixed(Geometry geom) {
+		if (!isActive() || geom == null) {
+			return geom;
+		}
+		PrecisionModel precisionModel = precisionModel();
+		if (precisionModel.equals(geom.getPrecisionModel())) {
+			return geom;
+		}
+		GeometryPrecisionReducer reducer = new GeometryPrecisionReducer(precisionModel);
+		reducer.setPointwise(true);
+		reducer.setChangePrecisionModel(true);
+		return reducer.reduce(geom);
+	}
+
+	// ## Paralleles Runden einer Ebene (Reihenfolge und Anzahl bleiben erhalten) mit Ausgabe des Flächenfehlers ##
+	static List<Geometry> reduce(String name, List<Geometry> geometries) {
+		if (!isActive()) {
+			return geometries;
+		}
+		Geometry[] reduced = new Geometry[geometries.size()];
+		DoubleAdder area = new DoubleAdder();
+		DoubleAdder error = new DoubleAdder();
+		DoubleAdder net = new DoubleAdder();
+		pool.submit(() -> IntStream.range(0, reduced.length).parallel().forEach(i -> {
+			Geometry geom = geometries.get(i);
+			reduced[i] = reduce(geom);
+			double before = geom.getArea();
+			double after = reduced[i].getArea();
+			area.add(before);
+			error.add(Math.abs(after - before));
+			net.add(after - before);
+		})).join();
+		print(name, area.sum(), error.sum(), net.sum());
+		return new ArrayList<>(Arrays.asList(reduced));
+	}
+
+	private static void print(String name, double area, double error, double net) {
+		DecimalFormat df = new DecimalFormat("#0.0000");
+		String percent = (area > 0) ? new DecimalFormat("0.000000").format(100.0 * error / area) : "0";
+		System.out.print("Flächenfehler Raster " + gridSize + " m " + name + ": " + df.format(error) + " m² (" + percent
+				+ " % von " + df.format(area) + " m²), Saldo " + df.format(net) + " m²\n");
+	}
+}
@@ -0,0 +1,501 @@
+package GeoModA.GeoTools;
+
+import java.io.PrintStream;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.util.PolygonExtracter;
+import org.locationtech.jts.index.strtree.STRtree;
+
+/*
+Näherungsweise Flächenüberdeckung über Rasterung statt Vektorverschneidung (für explorative Läufe).
+Die Ebenen werden in quadratische Kacheln zu tileCells x tileCells Zellen der Kantenlänge cellSize
+gerastert, eine Zelle je Bit (long[] zeilenweise). Eine Zelle gehört zur Fläche, wenn ihr
+Mittelpunkt darin liegt (Zeilenabtastung mit Gerade-Ungerade-Regel je Polygon); mehrere Objekte
+werden über ODER vereinigt, Überlappungen innerhalb einer Ebene zählen damit einfach.
+Union, Verschneidung und Pufferstaffel ergeben sich aus ODER/UND über ganze Wörter und
+Long.bitCount, jede Kachel wird für sich (und parallel) berechnet. Für die Pufferstaffel werden je
+Kachel und Radius r nur die Flächen von A im Umkreis r gebuffert, zugeschnitten auf die um r und
+eine Zelle erweiterte Kachel (innerhalb der Kachel identisch zum Buffer der ganzen Fläche).
+Fehlerschranke: Nur Zellen, durch die ein Rand verläuft, können falsch zugeordnet sein. Diese
+Randzellen werden beim Rastern mit markiert (Zelltraversierung jeder Kante); die Schranke ist die
+Fläche aller Randzellen, die das jeweilige Ergebnis verändern können. Die exakte Fläche liegt
+sicher im Bereich Ergebnis ± Schranke, der tatsächliche Fehler ist meist deutlich kleiner.
+Standard ist cellSize = 0 (aus, exakte Vektorverschneidung).
+*/
+public class RasterUeberdeckung {
+	// Zellgröße in Einheiten des KBS (z.B. 0.5 oder 1.0 m); 0 = aus
+	static double cellSize = 0.0;
+	// Zellen je Kachelseite, Vielfaches von 64
+	static int tileCells = 1024;
+	static ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	static boolean isActive() {
+		return cellSize > 0;
+	}
+
+	// ## Flächenkennwerte der Rasterverschneidung von Ebene A mit Ebene B, jeweils mit Fehlerschranke ##
+	static class Ergebnis {
+		double areaA, errorA;
+		double areaB, errorB;
+		double intersection, errorIntersection;
+		double union, errorUnion;
+		// Pufferstaffel: A gebuffert um bufferRadius[i], verschnitten mit B
+		double[] bufferRadius = new double[0];
+		double[] bufferedIntersection = new double[0];
+		double[] errorBufferedIntersection = new double[0];
+
+		// Ausgabe wie bei der Vektorverschneidung, totalA/totalB: Summe der Einzelflächen (calculateArea)
+		void print(String name, double totalA, double totalB) {
+			print(System.out, name, totalA, totalB);
+		}
+		void print(PrintStream out, String name, double totalA, double totalB) {
+			DecimalFormat df = new DecimalFormat("#0.0000");
+			DecimalFormat rf = new DecimalFormat("0.##");
+			out.print("Rasterverschneidung " + name + ": Zellgröße " + cellSize + " m\n");
+			out.print("Gesamtsumme Einzelflächen: " + df.format(totalA) + "\n");
+			out.print("Fläche Gesamtgeometrie: " + df.format(areaA) + " ± " + df.format(errorA) + "\n");
+			out.print("Flächenunterschied intrinsisch in ATKIS-" + name + ": " + df.format(totalA - areaA) + " ± " + df.format(errorA) + "\n");
+			out.print("Gesamtsumme Einzelflächen: " + df.format(totalB) + "\n");
+			out.print("Fläche Gesamtgeometrie: " + df.format(areaB) + " ± " + df.format(errorB) + "\n");
+			out.print("Flächenunterschied intrinsisch in OSM-" + name + ": " + df.format(totalB - areaB) + " ± " + df.format(errorB) + "\n");
+			out.print("Gesamtfläche ATKIS-" + name + ": " + df.format(areaA) + " ± " + df.format(errorA) + "\n");
+			out.print("Gesamtfläche OSM-" + name + ": " + df.format(areaB) + " ± " + df.format(errorB) + "\n");
+			out.print("Vereinigungsfläche " + name + ": " + df.format(union) + " ± " + df.format(errorUnion) + "\n");
+			out.print("Überschneidungsfläche " + name + ": " + df.format(intersection) + " ± " + df.format(errorIntersection) + "\n");
+			for (int i=0;i<bufferRadius.length;i++) {
+				out.print("Überschneidungsfläche " + name + " (" + rf.format(bufferRadius[i]) + "m Buffer ATKIS): "
+						+ df.format(bufferedIntersection[i]) + " ± " + df.format(errorBufferedIntersection[i]) + "\n");
+			}
+		}
+	}
+
+	// ## Verschneidung der Flächen aus a und b, dazu a gebuffert um jeden Radius aus bufferRadius mit b ##
+	static Ergebnis overlay(List<Geometry> a, List<Geometry> b, double[] bufferRadius) {
+		int radii = bufferRadius.length;
+		STRtree treeA = index(a);
+		STRtree treeB = index(b);
+		GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+		double maxRadius = 0;
+		for (double r : bufferRadius) {maxRadius = Math.max(maxRadius, r);}
+		Envelope extent = extent(a, b, maxRadius);
+
+		// Zähler je Kachel: A, Rand A, B, Rand B, A∩B, Fehler A∩B, A∪B, Fehler A∪B, je Radius A_r∩B und Fehler
+		int fields = 8 + 2 * radii;
+		long[] counts = pool.submit(() -> tiles(extent).parallel()
+				.mapToObj(t -> {
+					long[] c = new long[fields];
+					Envelope tile = tile(extent, t);
+					Raster rasterA = Raster.of(treeA, tile);
+					Raster rasterB = Raster.of(treeB, tile);
+					if (rasterA == null && rasterB == null) {
+						return c;
+					}
+					rasterA = (rasterA == null) ? new Raster() : rasterA;
+					rasterB = (rasterB == null) ? new Raster() : rasterB;
+					c[0] = rasterA.count();
+					c[1] = rasterA.boundaryCount();
+					c[2] = rasterB.count();
+					c[3] = rasterB.boundaryCount();
+					c[4] = rasterA.intersection(rasterB);
+					c[5] = rasterA.intersectionError(rasterB);
+					c[6] = rasterA.union(rasterB);
+					c[7] = rasterA.unionError(rasterB);
+					for (int i=0;i<radii && (c[2] > 0 || c[3] > 0);i++) {
+						Raster buffered = Raster.of(buffer(treeA, tile, bufferRadius[i], geometryFactory), tile);
+						if (buffered != null) {
+							c[8 + 2 * i] = buffered.intersection(rasterB);
+							c[9 + 2 * i] = buffered.intersectionError(rasterB);
+						}
+					}
+					return c;
+				})
+				.reduce(new long[fields], RasterUeberdeckung::add)).join();
+
+		double cell = cellSize * cellSize;
+		Ergebnis result = new Ergebnis();
+		result.areaA = counts[0] * cell;
+		result.errorA = counts[1] * cell;
+		result.areaB = counts[2] * cell;
+		result.errorB = counts[3] * cell;
+		result.intersection = counts[4] * cell;
+		result.errorIntersection = counts[5] * cell;
+		result.union = counts[6] * cell;
+		result.errorUnion = counts[7] * cell;
+		result.bufferRadius = bufferRadius.clone();
+		result.bufferedIntersection = new double[radii];
+		result.errorBufferedIntersection = new double[radii];
+		for (int i=0;i<radii;i++) {
+			result.bufferedIntersection[i] = counts[8 + 2 * i] * cell;
+			result.errorBufferedIntersection[i] = counts[9 + 2 * i] * cell;
+		}
+		return result;
+	}
+
+	// ## Überschneidungsflächen je Wertepaar (Wert aus aValues, Wert aus bValues): {Fläche, Fehlerschranke} ##
+	// Alle Flächen eines Werts werden gemeinsam gerastert, jede Kachel einmal je Wert
+	static Map<String, Map<String, double[]>> matrix(List<Geometry> a, List<String> aValues, List<Geometry> b, List<String> bValues) {
+		Map<String, STRtree> treesA = index(a, aValues);
+		Map<String, STRtree> treesB = index(b, bValues);
+		Envelope extent = extent(a, b, 0.0);
+		Map<String, Map<String, long[]>> counts = pool.submit(() -> tiles(extent).parallel()
+				.mapToObj(t -> {
+					Envelope tile = tile(extent, t);
+					Map<String, Raster> rastersB = new LinkedHashMap<>();
+					for (Map.Entry<String, STRtree> entry : treesB.entrySet()) {
+						Raster raster = Raster.of(entry.getValue(), tile);
+						if (raster != null) {rastersB.put(entry.getKey(), raster);}
+					}
+					Map<String, Map<String, long[]>> partial = new HashMap<>();
+					if (rastersB.isEmpty()) {
+						return partial;
+					}
+					for (Map.Entry<String, STRtree> entry : treesA.entrySet()) {
+						Raster rasterA = Raster.of(entry.getValue(), tile);
+						if (rasterA == null) {
+							continue;
+						}
+						Map<String, long[]> row = partial.computeIfAbsent(entry.getKey(), k -> new HashMap<>());
+						for (Map.Entry<String, Raster> other : rastersB.entrySet()) {
+							long[] c = {rasterA.intersection(other.getValue()), rasterA.intersectionError(other.getValue())};
+							if (c[0] > 0 || c[1] > 0) {
+								row.merge(other.getKey(), c, RasterUeberdeckung::add);
+							}
+						}
+					}
+					return partial;
+				})
+				.reduce(new HashMap<>(), RasterUeberdeckung::merge)).join();
+
+		double cell = cellSize * cellSize;
+		Map<String, Map<String, double[]>> result = new HashMap<>();
+		counts.forEach((k, row) -> {
+			Map<String, double[]> areas = new HashMap<>();
+			row.forEach((v, c) -> areas.put(v, new double[] {c[0] * cell, c[1] * cell}));
+			result.put(k, areas);
+		});
+		return result;
+	}
+
+	private static long[] add(long[] a, long[] b) {
+		long[] sum = a.clone();
+		for (int i=0;i<sum.length;i++) {
+			sum[i] += b[i];
+		}
+		return sum;
+	}
+
+	private static Map<String, Map<String, long[]>> merge(Map<String, Map<String, long[]>> a, Map<String, Map<String, long[]>> b) {
+		Map<String, Map<String, long[]>> sum = new HashMap<>();
+		for (Map<String, Map<String, long[]>> m : Arrays.asList(a, b)) {
+			m.forEach((k, row) -> {
+				Map<String, long[]> target = sum.computeIfAbsent(k, x -> new HashMap<>());
+				row.forEach((v, c) -> target.merge(v, c, RasterUeberdeckung::add));
+			});
+		}
+		return sum;
+	}
+
+	// ## Kacheln über die Ausdehnung (erweitert um margin), Ursprung auf dem Zellraster ##
+	private static Envelope extent(List<Geometry> a, List<Geometry> b, double margin) {
+		Envelope extent = new Envelope();
+		for (Geometry g : a) {extent.expandToInclude(g.getEnvelopeInternal());}
+		for (Geometry g : b) {extent.expandToInclude(g.getEnvelopeInternal());}
+		if (!extent.isNull()) {
+			extent.expandBy(margin);
+			double minX = Math.floor(extent.getMinX() / cellSize) * cellSize;
+			double minY = Math.floor(extent.getMinY() / cellSize) * cellSize;
+			extent.expandToInclude(minX, minY);
+		}
+		return extent;
+	}
+
+	private static int columns(Envelope extent) {
+		return Math.max(1, (int) Math.ceil(extent.getWidth() / (tileCells * cellSize)));
+	}
+
+	private static IntStream tiles(Envelope extent) {
+		if (extent.isNull()) {
+			return IntStream.empty();
+		}
+		int rows = Math.max(1, (int) Math.ceil(extent.getHeight() / (tileCells * cellSize)));
+		return IntStream.range(0, columns(extent) * rows);
+	}
+
+	private static Envelope tile(Envelope extent, int t) {
+		int nx = columns(extent);
+		double size = tileCells * cellSize;
+		double minX = extent.getMinX() + (t % nx) * size;
+		double minY = extent.getMinY() + (t / nx) * size;
+		return new Envelope(minX, minX + size, minY, minY + size);
+	}
+
+	// ## Flächen aus tree im Umkreis radius um die Kachel, gebuffert ##
+	// Zugeschnitten auf die um radius + eine Zelle erweiterte Kachel: jeder Punkt der Kachel hat seinen
+	// nächsten Flächenpunkt innerhalb davon, die Schnittkanten wirken nicht bis in die Kachel
+	private static List<Geometry> buffer(STRtree tree, Envelope tile, double radius, GeometryFactory geometryFactory) {
+		Envelope search = new Envelope(tile);
+		search.expandBy(radius + cellSize);
+		Geometry rect = geometryFactory.toGeometry(search);
+		List<Geometry> buffered = new ArrayList<>();
+		for (Object item : tree.query(search)) {
+			Geometry g = (Geometry) item;
+			Geometry clipped = search.contains(g.getEnvelopeInternal()) ? g : g.intersection(rect);
+			if (!clipped.isEmpty()) {
+				buffered.add(clipped.buffer(radius));
+			}
+		}
+		return buffered;
+	}
+
+	private static STRtree index(List<Geometry> geometries) {
+		STRtree tree = new STRtree();
+		for (Geometry g : geometries) {
+			if (!g.isEmpty()) {
+				tree.insert(g.getEnvelopeInternal(), g);
+			}
+		}
+		tree.build();
+		return tree;
+	}
+
+	private static Map<String, STRtree> index(List<Geometry> geometries, List<String> values) {
+		Map<String, STRtree> trees = new LinkedHashMap<>();
+		for (int i=0;i<geometries.size();i++) {
+			Geometry g = geometries.get(i);
+			if (!g.isEmpty()) {
+				trees.computeIfAbsent(values.get(i), k -> new STRtree()).insert(g.getEnvelopeInternal(), g);
+			}
+		}
+		for (STRtree tree : trees.values()) {
+			tree.build();
+		}
+		return trees;
+	}
+
+	// ## Eine Kachel einer Ebene: Flächenzellen und Randzellen als Bitfelder, Zeile für Zeile ##
+	private static class Raster {
+		final long[] bits;
+		final long[] boundary;
+
+		Raster() {
+			bits = new long[tileCells * tileCells / 64];
+			boundary = new long[bits.length];
+		}
+
+		// Rasterung aller Flächen aus tree bzw. candidates, die die Kachel berühren; null, wenn keine vorhanden sind
+		static Raster of(STRtree tree, Envelope tile) {
+			return of(tree.query(tile), tile);
+		}
+		static Raster of(List<?> candidates, Envelope tile) {
+			if (candidates.isEmpty()) {
+				return null;
+			}
+			Raster raster = new Raster();
+			for (Object item : candidates) {
+				@SuppressWarnings("unchecked")
+				List<Polygon> polygons = PolygonExtracter.getPolygons((Geometry) item);
+				for (Polygon polygon : polygons) {
+					if (polygon.getEnvelopeInternal().intersects(tile)) {
+						raster.fill(polygon, tile);
+					}
+				}
+			}
+			return raster;
+		}
+
+		// Zeilenabtastung: Schnittpunkte der Ringkanten mit den Zeilenmitten, Füllen zwischen je zwei Schnittpunkten
+		private void fill(Polygon polygon, Envelope tile) {
+			Envelope env = polygon.getEnvelopeInternal();
+			double x0 = tile.getMinX();
+			double y0 = tile.getMinY();
+			int firstRow = Math.max(0, (int) Math.ceil((env.getMinY() - y0) / cellSize - 0.5));
+			int lastRow = Math.min(tileCells - 1, (int) Math.ceil((env.getMaxY() - y0) / cellSize - 0.5) - 1);
+			List<Coordinate[]> rings = new ArrayList<>(1 + polygon.getNumInteriorRing());
+			rings.add(polygon.getExteriorRing().getCoordinates());
+			for (int i=0;i<polygon.getNumInteriorRing();i++) {
+				rings.add(polygon.getInteriorRingN(i).getCoordinates());
+			}
+			for (Coordinate[] ring : rings) {
+				for (int i=1;i<ring.length;i++) {
+					mark(ring[i - 1], ring[i], tile);
+				}
+			}
+			if (firstRow > lastRow) {
+				return;
+			}
+
+			// Zwei Durchläufe über die Kanten: Anzahl Schnittpunkte je Zeile, dann die x-Werte
+			int rows = lastRow - firstRow + 1;
+			int[] start = new int[rows + 1];
+			for (Coordinate[] ring : rings) {
+				for (int i=1;i<ring.length;i++) {
+					int[] range = rowRange(ring[i - 1], ring[i], y0, firstRow, lastRow);
+					for (int r=range[0];r<=range[1];r++) {start[r - firstRow + 1]++;}
+				}
+			}
+			for (int r=0;r<rows;r++) {start[r + 1] += start[r];}
+			double[] xs = new double[start[rows]];
+			int[] next = Arrays.copyOf(start, rows);
+			for (Coordinate[] ring : rings) {
+				for (int i=1;i<ring.length;i++) {
+					Coordinate p = ring[i - 1];
+					Coordinate q = ring[i];
+					int[] range = rowRange(p, q, y0, firstRow, lastRow);
+					for (int r=range[0];r<=range[1];r++) {
+						double y = y0 + (r + 0.5) * cellSize;
+						xs[next[r - firstRow]++] = p.x + (y - p.y) * (q.x - p.x) / (q.y - p.y);
+					}
+				}
+			}
+			for (int r=0;r<rows;r++) {
+				Arrays.sort(xs, start[r], start[r + 1]);
+				for (int i=start[r];i+1<start[r + 1];i+=2) {
+					// Zellen mit Mittelpunkt in [xs[i], xs[i+1])
+					int c0 = Math.max(0, (int) Math.ceil((xs[i] - x0) / cellSize - 0.5));
+					int c1 = Math.min(tileCells - 1, (int) Math.ceil((xs[i + 1] - x0) / cellSize - 0.5) - 1);
+					if (c0 <= c1) {
+						setRange(bits, (firstRow + r) * (tileCells / 64), c0, c1);
+					}
+				}
+			}
+		}
+
+		// Zeilen, deren Mittelpunkt in [min y, max y) der Kante liegt (waagerechte Kanten: keine)
+		private static int[] rowRange(Coordinate p, Coordinate q, double y0, int firstRow, int lastRow) {
+			if (p.y == q.y) {
+				return new int[] {0, -1};
+			}
+			double lo = Math.min(p.y, q.y);
+			double hi = Math.max(p.y, q.y);
+			int r0 = Math.max(firstRow, (int) Math.ceil((lo - y0) / cellSize - 0.5));
+			int r1 = Math.min(lastRow, (int) Math.ceil((hi - y0) / cellSize - 0.5) - 1);
+			return new int[] {r0, r1};
+		}
+
+		// Randzellen: alle Zellen, durch die die Kante (auf die Kachel zugeschnitten) verläuft
+		private void mark(Coordinate p, Coordinate q, Envelope tile) {
+			// Zuschneiden nach Liang-Barsky, Koordinaten in Zelleinheiten relativ zur Kachel
+			double ax = (p.x - tile.getMinX()) / cellSize, ay = (p.y - tile.getMinY()) / cellSize;
+			double dx = (q.x - p.x) / cellSize, dy = (q.y - p.y) / cellSize;
+			double t0 = 0, t1 = 1;
+			double[] pv = {-dx, dx, -dy, dy};
+			double[] qv = {ax, tileCells - ax, ay, tileCells - ay};
+			for (int i=0;i<4;i++) {
+				if (pv[i] == 0) {
+					if (qv[i] < 0) {return;}
+				} else {
+					double t = qv[i] / pv[i];
+					if (pv[i] < 0) {t0 = Math.max(t0, t);} else {t1 = Math.min(t1, t);}
+				}
+			}
+			if (t0 > t1) {
+				return;
+			}
+			double x = ax + t0 * dx, y = ay + t0 * dy;
+			double ex = ax + t1 * dx, ey = ay + t1 * dy;
+			int ix = clamp((int) Math.floor(x)), iy = clamp((int) Math.floor(y));
+			int jx = clamp((int) Math.floor(ex)), jy = clamp((int) Math.floor(ey));
+			// Zelltraversierung (Amanatides/Woo)
+			int sx = (ex > x) ? 1 : -1;
+			int sy = (ey > y) ? 1 : -1;
+			double tDeltaX = (ex != x) ? Math.abs(1.0 / (ex - x)) : Double.POSITIVE_INFINITY;
+			double tDeltaY = (ey != y) ? Math.abs(1.0 / (ey - y)) : Double.POSITIVE_INFINITY;
+			double tMaxX = (ex != x) ? ((sx > 0 ? ix + 1 : ix) - x) / (ex - x) : Double.POSITIVE_INFINITY;
+			double tMaxY = (ey != y) ? ((sy > 0 ? iy + 1 : iy) - y) / (ey - y) : Double.POSITIVE_INFINITY;
+			setBoundary(ix, iy);
+			int steps = Math.abs(jx - ix) + Math.abs(jy - iy);
+			for (int s=0;s<steps;s++) {
+				if (tMaxX < tMaxY) {
+					ix += sx;
+					tMaxX += tDeltaX;
+				} else {
+					iy += sy;
+					tMaxY += tDeltaY;
+				}
+				setBoundary(ix, iy);
+			}
+		}
+
+		private static int clamp(int cell) {
+			return Math.max(0, Math.min(tileCells - 1, cell));
+		}
+
+		private void setBoundary(int column, int row) {
+			if (column >= 0 && column < tileCells && row >= 0 && row < tileCells) {
+				int bit = row * tileCells + column;
+				boundary[bit >>> 6] |= 1L << (bit & 63);
+			}
+		}
+
+		// Bits c0..c1 (einschließlich) einer Zeile ab Wort offset setzen, ganze Wörter auf einmal
+		private static void setRange(long[] words, int offset, int c0, int c1) {
+			int w0 = c0 >>> 6;
+			int w1 = c1 >>> 6;
+			long first = -1L << (c0 & 63);
+			long last = -1L >>> (63 - (c1 & 63));
+			if (w0 == w1) {
+				words[offset + w0] |= first & last;
+				return;
+			}
+			words[offset + w0] |= first;
+			for (int w=w0+1;w<w1;w++) {
+				words[offset + w] = -1L;
+			}
+			words[offset + w1] |= last;
+		}
+
+		// ## Zählungen über ganze Wörter ##
+		long count() {
+			long n = 0;
+			for (long w : bits) {n += Long.bitCount(w);}
+			return n;
+		}
+		long boundaryCount() {
+			long n = 0;
+			for (long w : boundary) {n += Long.bitCount(w);}
+			return n;
+		}
+		long intersection(Raster other) {
+			long n = 0;
+			for (int i=0;i<bits.length;i++) {n += Long.bitCount(bits[i] & other.bits[i]);}
+			return n;
+		}
+		long union(Raster other) {
+			long n = 0;
+			for (int i=0;i<bits.length;i++) {n += Long.bitCount(bits[i] | other.bits[i]);}
+			return n;
+		}
+		// Randzellen einer Ebene, in denen die andere Ebene nicht sicher fehlt
+		long intersectionError(Raster other) {
+			long n = 0;
+			for (int i=0;i<bits.length;i++) {
+				long a = bits[i], ra = boundary[i], b = other.bits[i], rb = other.boundary[i];
+				n += Long.bitCount((ra & (b | rb)) | (rb & (a | ra)));
+			}
+			return n;
+		}
+		// Randzellen einer Ebene, die die andere Ebene nicht sicher ganz abdeckt
+		long unionError(Raster other) {
+			long n = 0;
+			for (int i=0;i<bits.length;i++) {
+				long a = bits[i], ra = boundary[i], b = other.bits[i], rb = other.boundary[i];
+				n += Long.bitCount((ra & ~(b & ~rb)) | (rb & ~(a & ~ra)));
+			}
+			return n;
+		}
+	}
+}
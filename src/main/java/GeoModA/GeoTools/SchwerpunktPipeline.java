@@ -0,0 +1,214 @@
+package GeoModA.GeoTools;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.geotools.data.DataStore;
+import org.geotools.data.DefaultTransaction;
+import org.geotools.data.FeatureWriter;
+import org.geotools.data.Query;
+import org.geotools.data.Transaction;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.filter.Filter;
+
+/*
+Schwerpunktreduzierung (convertAreaToPoint) als Fließband aus drei Stufen:
+ 1. Lesen: ein eigener Thread liest die Flächen und gibt sie in Blöcken zu blockSize weiter
+ 2. Berechnen: die Blöcke werden im ForkJoinPool verarbeitet (isSimple, Fläche, Schwerpunkt bzw.
+    innerer Punkt, Punktobjekt), jeder Block für sich; liegt die Normalisierung der Quelle bereits
+    vor, werden ihre Flächen verwendet
+ 3. Schreiben: der aufrufende Thread hängt die Punktobjekte in Lesereihenfolge an das Ziel an
+Zwischen Lesen und Schreiben steht eine Warteschlange mit höchstens queueBlocks Blöcken in Arbeit;
+ist sie voll, wartet der Leser (Gegendruck). Lesen, Rechnen und Schreiben überlappen sich, die
+Laufzeit richtet sich nach der langsamsten Stufe statt nach der Summe aller drei.
+Ziele außer SpaltenLayer werden über einen FeatureWriter in einer Transaktion beschrieben, die bei
+einem Fehler zurückgerollt wird.
+Shapedateien ohne vorliegende Normalisierung (Schwerpunkt, nicht innerer Punkt) liest Stufe 1 ohne
+Geometrie, nur die Sachdaten; der Schwerpunkt von Flächen bekannter Gültigkeit kommt aus den
+Rohkoordinaten des ShapeLeser, nur die übrigen Sätze werden dort dekodiert. Der ShapeLeser wird
+ausschließlich im Lesethread benutzt und erst nach dessen Ende zurückgegeben.
+*/
+public class SchwerpunktPipeline {
+	static int blockSize = 1000;
+	static int queueBlocks = 2 * Runtime.getRuntime().availableProcessors();
+	static ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	// Ende des Lesens; als Objekt verglichen
+	private static final CompletableFuture<Block> ENDE = CompletableFuture.completedFuture(null);
+
+	static class Block {
+		int read;
+		int converted;
+		final List<SimpleFeature> points = new ArrayList<>();
+	}
+
+	// ## Flächen aus fs_area als Punkte an fs_p anhängen; Rückgabe: Anzahl gelesener und konvertierter Objekte ##
+	static Block run(SimpleFeatureSource fs_area, SimpleFeatureSource fs_p, boolean interiorPoint) throws Exception {
+		SimpleFeatureType schema = fs_p.getSchema();
+		Normalisierung normalisierung = Normalisierung.cached(fs_area);
+		ShapeLeser leser = (normalisierung == null && !interiorPoint) ? ShapeLeser.of(fs_area) : null;
+		BlockingQueue<CompletableFuture<Block>> queue = new ArrayBlockingQueue<>(Math.max(1, queueBlocks));
+		Thread reader = new Thread(() -> read(fs_area, schema, interiorPoint, normalisierung, leser, queue), "Schwerpunkt-Leser " + fs_area.getSchema().getTypeName());
+		reader.setDaemon(true);
+		reader.start();
+
+		Block total = new Block();
+		try {
+			if (fs_p instanceof SpaltenLayer) {
+				// Ebene im Arbeitsspeicher: direkt anhängen, keine Transaktion
+				write(queue, (SpaltenLayer) fs_p, total);
+			} else {
+				DataStore store = (DataStore) fs_p.getDataStore();
+				Transaction transaction = new DefaultTransaction("Add Features");
+				try {
+					FeatureWriter<SimpleFeatureType, SimpleFeature> writer = store.getFeatureWriterAppend(schema.getTypeName(), transaction);
+					try {
+						write(queue, sf -> {
+							SimpleFeature next = writer.next();
+							next.setAttributes(sf.getAttributes());
+							writer.write();
+						}, total);
+					} finally {
+						writer.close();
+					}
+					transaction.commit();
+				} catch (Exception e) {
+					transaction.rollback();
+					throw e;
+				} finally {
+					transaction.close();
+				}
+			}
+		} finally {
+			// Bei einem Fehler wartet der Leser evtl. an der vollen Warteschlange
+			reader.interrupt();
+			reader.join();
+			if (leser != null) {
+				leser.close();
+			}
+		}
+		return total;
+	}
+
+	// Stufe 3: Blöcke in Lesereihenfolge übernehmen, bis ENDE kommt
+	private static void write(BlockingQueue<CompletableFuture<Block>> queue, Objektziel target, Block total) throws Exception {
+		while (true) {
+			CompletableFuture<Block> next = queue.take();
+			if (next == ENDE) {
+				return;
+			}
+			Block block = ParalleleAbtastung.join(next);
+			for (SimpleFeature point : block.points) {
+				target.write(point);
+			}
+			total.read += block.read;
+			total.converted += block.converted;
+		}
+	}
+
+	// Stufe 1 (eigener Thread): Blöcke lesen und zur Berechnung (Stufe 2) in den Pool geben
+	// Mit leser: Sachdaten ohne Geometrie, dazu je Objekt Schwerpunkt oder Geometrie aus dem Cursor
+	private static void read(SimpleFeatureSource fs_area, SimpleFeatureType schema, boolean interiorPoint, Normalisierung normalisierung, ShapeLeser leser, BlockingQueue<CompletableFuture<Block>> queue) {
+		CompletableFuture<Block> last = ENDE;
+		try (SimpleFeatureIterator features = ((leser != null) ? fs_area.getFeatures(sachdaten(fs_area.getSchema())) : fs_area.getFeatures()).features()) {
+			ShapeLeser.Cursor cursor = (leser != null) ? leser.cursor() : null;
+			ValiditaetsCache cache = ValiditaetsCache.of(fs_area);
+			List<SimpleFeature> block = new ArrayList<>(blockSize);
+			List<Object> shapes = (cursor != null) ? new ArrayList<>(blockSize) : null;
+			while (features.hasNext()) {
+				SimpleFeature sf = features.next();
+				block.add(sf);
+				if (cursor != null) {
+					shapes.add(shape(cursor, cache, sf));
+				}
+				if (block.size() == blockSize) {
+					queue.put(submit(block, shapes, schema, interiorPoint, normalisierung));
+					block = new ArrayList<>(blockSize);
+					shapes = (cursor != null) ? new ArrayList<>(blockSize) : null;
+				}
+			}
+			if (!block.isEmpty()) {
+				queue.put(submit(block, shapes, schema, interiorPoint, normalisierung));
+			}
+		} catch (InterruptedException e) {
+			// Schreiber hat abgebrochen
+			return;
+		} catch (Exception e) {
+			last = new CompletableFuture<>();
+			last.completeExceptionally(e);
+		}
+		try {
+			queue.put(last);
+			if (last != ENDE) {
+				queue.put(ENDE);
+			}
+		} catch (InterruptedException e) {
+			// Schreiber hat abgebrochen
+		}
+	}
+
+	// Abfrage aller Sachdaten ohne Geometrie; der ShapefileDataStore liest dann nur die .dbf
+	private static Query sachdaten(SimpleFeatureType schema) {
+		List<String> names = new ArrayList<>();
+		for (AttributeDescriptor descriptor : schema.getAttributeDescriptors()) {
+			if (!(descriptor instanceof GeometryDescriptor)) {
+				names.add(descriptor.getLocalName());
+			}
+		}
+		return new Query(schema.getTypeName(), Filter.INCLUDE, names.toArray(new String[0]));
+	}
+
+	// Schwerpunkt (Coordinate) einer Fläche bekannter Gültigkeit aus den Rohkoordinaten, sonst die
+	// dekodierte Geometrie des Satzes; null ohne Geometrie
+	private static Object shape(ShapeLeser.Cursor cursor, ValiditaetsCache cache, SimpleFeature sf) throws IOException {
+		int record = ValiditaetsCache.recordNumber(sf);
+		if (!cursor.seek(record) || cursor.isNull()) {
+			return null;
+		}
+		Boolean known = cache.knownSimpleAndValid(record);
+		Coordinate centroid = new Coordinate();
+		if (known != null && known && cursor.isPolygon() && cursor.centroid(centroid)) {
+			return centroid;
+		}
+		return cursor.geometry();
+	}
+
+	// Stufe 2: Punktobjekte eines Blocks; shapes (falls nicht null) gehört zu Sachdaten ohne Geometrie
+	private static CompletableFuture<Block> submit(List<SimpleFeature> areas, List<Object> shapes, SimpleFeatureType schema, boolean interiorPoint, Normalisierung normalisierung) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				SimpleFeatureBuilder build = new SimpleFeatureBuilder(schema);
+				GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+				Block result = new Block();
+				for (int i=0;i<areas.size();i++) {
+					SimpleFeature sf = areas.get(i);
+					SimpleFeature point = (shapes != null) ? Analyse.areaToPoint(build, sf, shapes.get(i), geometryFactory)
+							: Analyse.areaToPoint(build, sf, geometryFactory, interiorPoint, normalisierung);
+					if (point != null) {
+						result.points.add(point);
+						result.converted++;
+					}
+					result.read++;
+				}
+				return result;
+			} catch (Exception e) {
+				throw new CompletionException(e);
+			}
+		}, pool);
+	}
+}
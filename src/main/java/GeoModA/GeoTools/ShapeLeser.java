@@ -0,0 +1,679 @@
+package GeoModA.GeoTools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.geotools.data.shapefile.shp.ShapeHandler;
+import org.geotools.data.shapefile.shp.ShapeType;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+
+/*
+Lesezugriff auf eine Shapedatei über Memory Mapping (.shp, .shx, .dbf), ohne SimpleFeatures.
+Ein Cursor läuft über die Sätze und liest Koordinaten und DBF-Felder direkt aus den
+abgebildeten Puffern; pro Satz wird nichts angelegt. JTS-Geometrien entstehen nur auf
+Anforderung (geometry(), gleicher Decoder wie der ShapefileDataStore).
+Genutzt für Anzahl (count), Flächensumme (Normalisierung.area), Schwerpunkte (SchwerpunktPipeline)
+und Zählungen nach Attributfilter (TagKlassifikator über number/matches, Analyse.countFeatures).
+Dateien über 2 GB werden in mehreren Abschnitten abgebildet, ein Satz liegt immer
+vollständig in einem Abschnitt. Je Datei wird ein Leser gehalten und wiederverwendet, solange
+.shp/.shx/.dbf unverändert sind (Größe/Änderungszeit). Nutzer holen ihn über of() und geben
+ihn mit close() zurück; abgelöste oder über release() freigegebene Leser heben die Abbildungen
+beim letzten Nutzer sofort auf, damit die Datei (auch unter Windows) überschrieben werden kann.
+Ohne Zugriff auf die JDK-interne Freigabe bleibt es bei der Garbage Collection.
+*/
+public class ShapeLeser implements AutoCloseable {
+	// Größe eines abgebildeten Abschnitts
+	private static final long MAX_MAP = 1L << 30;
+	private static final Map<File, ShapeLeser> readers = new HashMap<>();
+
+	private final File shp;
+	private final long stamp;
+	private final int fileShapeType;
+	private final int records;
+	private final Abschnitte shx;
+	private final long[] shpStart;
+	private final MappedByteBuffer[] shpParts;
+	private final Abschnitte dbf;
+	private final List<String> fieldNames = new ArrayList<>();
+	private final List<Integer> fieldOffsets = new ArrayList<>();
+	private final List<Integer> fieldLengths = new ArrayList<>();
+	private final List<Character> fieldTypes = new ArrayList<>();
+	private final Charset charset;
+	// Nutzer über of(), abgelöst = wird beim letzten close() freigegeben (geschützt über readers)
+	private int users = 0;
+	private boolean retired = false;
+
+	private ShapeLeser(File shp, long stamp) throws IOException {
+		this.shp = shp;
+		this.stamp = stamp;
+		try (RandomAccessFile shpFile = new RandomAccessFile(shp, "r");
+				RandomAccessFile shxFile = new RandomAccessFile(sibling(shp, ".shx"), "r")) {
+			FileChannel shpChannel = shpFile.getChannel();
+			ByteBuffer header = read(shpChannel, 0, 100);
+			fileShapeType = header.getInt(32);
+
+			FileChannel shxChannel = shxFile.getChannel();
+			records = (int) ((shxChannel.size() - 100) / 8);
+			shx = new Abschnitte(shxChannel, 100, 8, records);
+
+			// Abschnitte der .shp an Satzgrenzen: ein neuer Abschnitt beginnt, sobald ein Satz nicht mehr hineinpasst
+			List<Long> starts = new ArrayList<>();
+			List<Long> ends = new ArrayList<>();
+			for (int i=0;i<records;i++) {
+				long offset = shxOffset(i);
+				long end = offset + 8 + shxLength(i);
+				if (starts.isEmpty() || end - starts.get(starts.size() - 1) > MAX_MAP) {
+					starts.add(offset);
+					ends.add(end);
+				} else if (end > ends.get(ends.size() - 1)) {
+					ends.set(ends.size() - 1, end);
+				}
+			}
+			shpStart = new long[starts.size()];
+			shpParts = new MappedByteBuffer[starts.size()];
+			for (int s=0;s<shpParts.length;s++) {
+				shpStart[s] = starts.get(s);
+				shpParts[s] = shpChannel.map(FileChannel.MapMode.READ_ONLY, shpStart[s], ends.get(s) - shpStart[s]);
+				shpParts[s].order(ByteOrder.LITTLE_ENDIAN);
+			}
+		}
+
+		File dbfFile = sibling(shp, ".dbf");
+		if (dbfFile.exists()) {
+			try (RandomAccessFile file = new RandomAccessFile(dbfFile, "r")) {
+				FileChannel channel = file.getChannel();
+				ByteBuffer header = read(channel, 0, 32);
+				int headerLength = header.getShort(8) & 0xffff;
+				int recordLength = header.getShort(10) & 0xffff;
+				ByteBuffer fields = read(channel, 32, headerLength - 32);
+				int offset = 1;	// erstes Byte: Löschkennzeichen
+				for (int pos=0;pos+32<=fields.limit() && fields.get(pos)!=0x0D;pos+=32) {
+					byte[] name = new byte[11];
+					fields.position(pos);
+					fields.get(name);
+					int length = fields.get(pos + 16) & 0xff;
+					fieldNames.add(new String(name, StandardCharsets.ISO_8859_1).trim().replace("\0", ""));
+					fieldOffsets.add(offset);
+					fieldLengths.add(length);
+					fieldTypes.add((char) (fields.get(pos + 11) & 0xff));
+					offset += length;
+				}
+				dbf = new Abschnitte(channel, headerLength, recordLength, Math.min(records, header.getInt(4)));
+			}
+		} else {
+			dbf = null;
+		}
+		charset = charset(sibling(shp, ".cpg"));
+	}
+
+	// Zeichenkodierung laut .cpg; fehlt sie oder ist sie unbekannt, ISO-8859-1 wie beim ShapefileDataStore
+	private static Charset charset(File cpg) throws IOException {
+		if (!cpg.exists()) {
+			return StandardCharsets.ISO_8859_1;
+		}
+		String name = new String(Files.readAllBytes(cpg.toPath()), StandardCharsets.US_ASCII).trim();
+		try {
+			return Charset.forName(name);
+		} catch (IllegalArgumentException e) {
+			System.out.print("Unbekannte Zeichenkodierung '" + name + "' in " + cpg + ", verwende ISO-8859-1\n");
+			return StandardCharsets.ISO_8859_1;
+		}
+	}
+
+	// ## Leser für eine über Analyse.openShape geöffnete Quelle, null für alle anderen ##
+	// Nach Gebrauch mit close() zurückgeben (try-with-resources, null wird dort übersprungen)
+	static ShapeLeser of(SimpleFeatureSource fs) throws IOException {
+		File shp = ValiditaetsCache.shapeFile(fs);
+		if (shp == null || !shp.exists()) {
+			return null;
+		}
+		shp = shp.getAbsoluteFile();
+		long stamp = stamp(shp);
+		synchronized (readers) {
+			ShapeLeser leser = readers.get(shp);
+			if (leser == null || leser.stamp != stamp) {
+				if (leser != null) {
+					leser.retire();
+				}
+				leser = new ShapeLeser(shp, stamp);
+				readers.put(shp, leser);
+			}
+			leser.users++;
+			return leser;
+		}
+	}
+
+	// Änderungskennung aller drei Dateien (gelöschte Sätze ändern nur die .dbf)
+	private static long stamp(File shp) {
+		long stamp = 1;
+		for (String extension : new String[] {".shp", ".shx", ".dbf"}) {
+			File file = sibling(shp, extension);
+			stamp = 31 * (31 * stamp + file.length()) + file.lastModified();
+		}
+		return stamp;
+	}
+
+	// ## Rückgabe nach Gebrauch; ein abgelöster Leser wird beim letzten Nutzer freigegeben ##
+	@Override
+	public void close() {
+		synchronized (readers) {
+			users--;
+			if (users == 0 && retired) {
+				unmap();
+			}
+		}
+	}
+
+	// ## Freigabe vor dem Überschreiben einer Shapedatei bzw. am Ende eines Laufs ##
+	static void release(File shp) {
+		if (shp == null) {
+			return;
+		}
+		synchronized (readers) {
+			ShapeLeser leser = readers.remove(shp.getAbsoluteFile());
+			if (leser != null) {
+				leser.retire();
+			}
+		}
+	}
+	static void releaseAll() {
+		synchronized (readers) {
+			for (ShapeLeser leser : readers.values()) {
+				leser.retire();
+			}
+			readers.clear();
+		}
+	}
+
+	private void retire() {
+		retired = true;
+		if (users == 0) {
+			unmap();
+		}
+	}
+
+	private void unmap() {
+		for (MappedByteBuffer buffer : shpParts) {
+			unmap(buffer);
+		}
+		for (Abschnitte abschnitte : (dbf == null) ? new Abschnitte[] {shx} : new Abschnitte[] {shx, dbf}) {
+			for (MappedByteBuffer buffer : abschnitte.parts) {
+				unmap(buffer);
+			}
+		}
+	}
+
+	// Sofortige Freigabe einer Abbildung: Unsafe.invokeCleaner ab Java 9, sonst der Cleaner des Puffers (Java 8)
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			try {
+				Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+				theUnsafe.setAccessible(true);
+				unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), buffer);
+			} catch (NoSuchMethodException e) {
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+				if (cleaner != null) {
+					cleaner.getClass().getMethod("clean").invoke(cleaner);
+				}
+			}
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// nicht verfügbar: Freigabe durch die Garbage Collection
+		}
+	}
+
+	// Anzahl Sätze laut .shx (einschließlich gelöschter Sätze)
+	int size() {
+		return records;
+	}
+
+	// ## Anzahl nicht gelöschter Sätze, ohne die Geometrien zu lesen ##
+	int count() {
+		if (dbf == null) {
+			return records;
+		}
+		int n = 0;
+		for (int i=0;i<records;i++) {
+			if (!isDeleted(i)) {
+				n++;
+			}
+		}
+		return n;
+	}
+
+	// Spaltennummer eines DBF-Felds (Name wie das Attribut im ShapefileDataStore), -1 wenn nicht vorhanden
+	int field(String name) {
+		return fieldNames.indexOf(name);
+	}
+
+	// DBF-Feldtyp: 'C' Text, 'N'/'F' Zahl, 'D' Datum, 'L' Wahrheitswert
+	char fieldType(int field) {
+		return fieldTypes.get(field);
+	}
+
+	// Bytes eines Suchwerts in der Zeichenkodierung der DBF, für Cursor.matches
+	byte[] encode(String value) {
+		return value.getBytes(charset);
+	}
+
+	Cursor cursor() {
+		return new Cursor(0, records);
+	}
+
+	// Cursor über die Sätze from (einschließlich) bis to (ausschließlich), Zählung ab 0 in .shx-Reihenfolge
+	Cursor cursor(int from, int to) {
+		return new Cursor(from, Math.min(to, records));
+	}
+
+	private boolean isDeleted(int index) {
+		return dbf != null && index < dbf.records && dbf.part(index).get(dbf.offset(index)) == '*';
+	}
+
+	// .shx: Satzbeginn und Inhaltslänge in Bytes (gespeichert big endian in 16-Bit-Worten)
+	private long shxOffset(int index) {
+		return 2L * (Integer.reverseBytes(shx.part(index).getInt(shx.offset(index))) & 0xffffffffL);
+	}
+	private long shxLength(int index) {
+		return 2L * (Integer.reverseBytes(shx.part(index).getInt(shx.offset(index) + 4)) & 0xffffffffL);
+	}
+
+	private static File sibling(File shp, String extension) {
+		String name = shp.getName();
+		int dot = name.lastIndexOf('.');
+		String base = (dot < 0) ? name : name.substring(0, dot);
+		File lower = new File(shp.getParentFile(), base + extension);
+		File upper = new File(shp.getParentFile(), base + extension.toUpperCase());
+		return (!lower.exists() && upper.exists()) ? upper : lower;
+	}
+
+	// Kopfdaten werden gelesen statt abgebildet
+	private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				break;
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	// Abbildung einer Datei mit Sätzen fester Länge (.shx, .dbf) in Abschnitten von höchstens MAX_MAP
+	private static class Abschnitte {
+		final int recordLength;
+		final int records;
+		final int perPart;
+		final MappedByteBuffer[] parts;
+
+		Abschnitte(FileChannel channel, long header, int recordLength, int records) throws IOException {
+			this.recordLength = recordLength;
+			this.records = Math.max(records, 0);
+			perPart = (int) (MAX_MAP / recordLength);
+			parts = new MappedByteBuffer[(this.records + perPart - 1) / perPart];
+			for (int p=0;p<parts.length;p++) {
+				long first = (long) p * perPart;
+				long length = Math.min(perPart, this.records - first) * recordLength;
+				parts[p] = channel.map(FileChannel.MapMode.READ_ONLY, header + first * recordLength, length);
+				parts[p].order(ByteOrder.LITTLE_ENDIAN);
+			}
+		}
+
+		ByteBuffer part(int index) {
+			return parts[index / perPart];
+		}
+
+		int offset(int index) {
+			return (index % perPart) * recordLength;
+		}
+	}
+
+	// ## Cursor über die Sätze; Zugriffe beziehen sich auf den aktuellen Satz ##
+	// Nicht threadsicher, für parallele Auswertung je Thread einen eigenen Cursor verwenden
+	class Cursor {
+		private final int end;
+		private int index;
+		private ByteBuffer buffer;
+		private int start;		// Beginn des Satzinhalts (Shape-Typ) im Abschnitt
+		private int shapeType;
+		private int numParts;
+		private int numPoints;
+		private int partsOffset;
+		private int pointsOffset;
+		private ByteBuffer dbfBuffer;
+		private int dbfOffset;
+
+		private Cursor(int from, int to) {
+			index = from - 1;
+			end = to;
+		}
+
+		// Nächster Satz, false am Ende des Bereichs
+		boolean next() {
+			if (index + 1 >= end) {
+				return false;
+			}
+			load(index + 1);
+			return true;
+		}
+
+		// Positionierung auf eine Satznummer (1-basiert wie in den FIDs); false, wenn es sie nicht gibt
+		boolean seek(int record) {
+			if (record < 1 || record > records) {
+				return false;
+			}
+			load(record - 1);
+			return true;
+		}
+
+		private void load(int i) {
+			index = i;
+			long offset = shxOffset(i);
+			int s = shpParts.length - 1;
+			while (shpStart[s] > offset) {
+				s--;
+			}
+			buffer = shpParts[s];
+			start = (int) (offset - shpStart[s]) + 8;
+			shapeType = buffer.getInt(start);
+			int content = start + 4;
+			switch (shapeType) {
+			case 1: case 11: case 21:
+				numParts = 1;
+				numPoints = 1;
+				partsOffset = -1;
+				pointsOffset = content;
+				break;
+			case 8: case 18: case 28:
+				numParts = 1;
+				numPoints = buffer.getInt(content + 32);
+				partsOffset = -1;
+				pointsOffset = content + 36;
+				break;
+			case 3: case 13: case 23: case 5: case 15: case 25:
+				numParts = buffer.getInt(content + 32);
+				numPoints = buffer.getInt(content + 36);
+				partsOffset = content + 40;
+				pointsOffset = partsOffset + 4 * numParts;
+				break;
+			default:
+				numParts = 0;
+				numPoints = 0;
+			}
+			if (dbf != null && i < dbf.records) {
+				dbfBuffer = dbf.part(i);
+				dbfOffset = dbf.offset(i);
+			} else {
+				dbfBuffer = null;
+			}
+		}
+
+		// Satznummer aus dem Satzkopf (wie die Nummer in der FID)
+		int record() {
+			return Integer.reverseBytes(buffer.getInt(start - 8));
+		}
+		boolean isDeleted() {
+			return dbfBuffer != null && dbfBuffer.get(dbfOffset) == '*';
+		}
+		boolean isNull() {
+			return shapeType == 0;
+		}
+		int shapeType() {
+			return shapeType;
+		}
+		boolean isPolygon() {
+			return shapeType == 5 || shapeType == 15 || shapeType == 25;
+		}
+		boolean isLine() {
+			return shapeType == 3 || shapeType == 13 || shapeType == 23;
+		}
+		int numParts() {
+			return numParts;
+		}
+		int numPoints() {
+			return numPoints;
+		}
+		int partStart(int part) {
+			return (partsOffset < 0) ? 0 : buffer.getInt(partsOffset + 4 * part);
+		}
+		int partEnd(int part) {
+			return (part + 1 < numParts) ? partStart(part + 1) : numPoints;
+		}
+		double x(int point) {
+			return buffer.getDouble(pointsOffset + 16 * point);
+		}
+		double y(int point) {
+			return buffer.getDouble(pointsOffset + 16 * point + 8);
+		}
+		// Satz-Bounding-Box (bei Punkten der Punkt selbst)
+		double minX() {
+			return (partsOffset < 0 && numPoints == 1) ? x(0) : buffer.getDouble(start + 4);
+		}
+		double minY() {
+			return (partsOffset < 0 && numPoints == 1) ? y(0) : buffer.getDouble(start + 12);
+		}
+		double maxX() {
+			return (partsOffset < 0 && numPoints == 1) ? x(0) : buffer.getDouble(start + 20);
+		}
+		double maxY() {
+			return (partsOffset < 0 && numPoints == 1) ? y(0) : buffer.getDouble(start + 28);
+		}
+
+		// Vorzeichenbehaftete Ringfläche; äußere Ringe (Uhrzeigersinn) positiv, Löcher negativ
+		double ringArea(int part) {
+			int first = partStart(part);
+			int last = partEnd(part);
+			if (last - first < 3) {
+				return 0;
+			}
+			double x0 = x(first);
+			double y0 = y(first);
+			double sum = 0;
+			for (int i=first+1;i<last-1;i++) {
+				sum += (x(i) - x0) * (y(i + 1) - y0) - (x(i + 1) - x0) * (y(i) - y0);
+			}
+			return -sum / 2;
+		}
+
+		// ## Fläche des Polygons (alle Ringe, Löcher abgezogen), 0 für andere Typen ##
+		double area() {
+			if (!isPolygon()) {
+				return 0;
+			}
+			if (numParts == 1) {
+				return Math.abs(ringArea(0));
+			}
+			double area = 0;
+			for (int p=0;p<numParts;p++) {
+				area += ringArea(p);
+			}
+			return area;
+		}
+
+		// ## Fläche der geschlossenen Teillinien (mindestens 4 Punkte) als Flächen, wie Normalisierung.canonical ##
+		double closedArea() {
+			if (!isLine()) {
+				return 0;
+			}
+			double area = 0;
+			for (int p=0;p<numParts;p++) {
+				int first = partStart(p);
+				int last = partEnd(p) - 1;
+				if (last - first >= 3 && x(first) == x(last) && y(first) == y(last)) {
+					area += Math.abs(ringArea(p));
+				}
+			}
+			return area;
+		}
+
+		// ## Schwerpunkt wie Geometry.getCentroid(): Flächen-, sonst Längen-, sonst Punktschwerpunkt ##
+		boolean centroid(Coordinate out) {
+			if (numPoints == 0) {
+				return false;
+			}
+			double x0 = x(0);
+			double y0 = y(0);
+			if (isPolygon()) {
+				double area = 0;
+				double cx = 0;
+				double cy = 0;
+				for (int p=0;p<numParts;p++) {
+					for (int i=partStart(p);i<partEnd(p)-1;i++) {
+						double ax = x(i) - x0, ay = y(i) - y0, bx = x(i + 1) - x0, by = y(i + 1) - y0;
+						double cross = ax * by - bx * ay;
+						area += cross;
+						cx += (ax + bx) * cross;
+						cy += (ay + by) * cross;
+					}
+				}
+				if (area != 0) {
+					out.x = x0 + cx / (3 * area);
+					out.y = y0 + cy / (3 * area);
+					return true;
+				}
+			}
+			double length = 0;
+			double cx = 0;
+			double cy = 0;
+			if (partsOffset >= 0) {
+				for (int p=0;p<numParts;p++) {
+					for (int i=partStart(p);i<partEnd(p)-1;i++) {
+						double dx = x(i + 1) - x(i), dy = y(i + 1) - y(i);
+						double segment = Math.sqrt(dx * dx + dy * dy);
+						length += segment;
+						cx += segment * ((x(i) + x(i + 1)) / 2 - x0);
+						cy += segment * ((y(i) + y(i + 1)) / 2 - y0);
+					}
+				}
+			}
+			if (length > 0) {
+				out.x = x0 + cx / length;
+				out.y = y0 + cy / length;
+				return true;
+			}
+			for (int i=0;i<numPoints;i++) {
+				cx += x(i) - x0;
+				cy += y(i) - y0;
+			}
+			out.x = x0 + cx / numPoints;
+			out.y = y0 + cy / numPoints;
+			return true;
+		}
+
+		// ## JTS-Geometrie des Satzes, identisch zum ShapefileDataStore (nur bei Bedarf) ##
+		Geometry geometry() throws IOException {
+			ShapeHandler handler = ShapeType.forID(fileShapeType).getShapeHandler(JTSFactoryFinder.getGeometryFactory());
+			ByteBuffer record = buffer.duplicate();
+			record.order(ByteOrder.LITTLE_ENDIAN);
+			record.position(start + 4);
+			return (Geometry) handler.read(record, ShapeType.forID(shapeType), false);
+		}
+
+		// DBF-Felder: Zahl ohne String-Erzeugung, NaN bei leerem oder nicht lesbarem Feld
+		// (Exponentenschreibweise wird über den Text gelesen)
+		double number(int field) {
+			if (dbfBuffer == null) {
+				return Double.NaN;
+			}
+			int pos = dbfOffset + fieldOffsets.get(field);
+			int end = pos + fieldLengths.get(field);
+			while (pos < end && dbfBuffer.get(pos) == ' ') {
+				pos++;
+			}
+			boolean negative = pos < end && dbfBuffer.get(pos) == '-';
+			if (negative || (pos < end && dbfBuffer.get(pos) == '+')) {
+				pos++;
+			}
+			double value = 0;
+			double scale = 0;
+			boolean digits = false;
+			for (;pos<end;pos++) {
+				byte b = dbfBuffer.get(pos);
+				if (b >= '0' && b <= '9') {
+					value = value * 10 + (b - '0');
+					scale *= 10;
+					digits = true;
+				} else if (b == '.' && scale == 0) {
+					scale = 1;
+				} else if (b == ' ' || b == 0) {
+					break;
+				} else {
+					try {
+						return Double.parseDouble(string(field));
+					} catch (NumberFormatException e) {
+						return Double.NaN;
+					}
+				}
+			}
+			if (!digits) {
+				return Double.NaN;
+			}
+			if (scale > 1) {
+				value /= scale;
+			}
+			return negative ? -value : value;
+		}
+
+		// Vergleich eines Textfelds mit value (Bytes aus encode), ohne String-Erzeugung;
+		// wie beim ShapefileDataStore zählen führende und abschließende Leerzeichen und Nullbytes nicht
+		boolean matches(int field, byte[] value) {
+			if (dbfBuffer == null) {
+				return false;
+			}
+			int pos = dbfOffset + fieldOffsets.get(field);
+			int end = pos + fieldLengths.get(field);
+			while (pos < end && (dbfBuffer.get(pos) & 0xff) <= ' ') {
+				pos++;
+			}
+			while (end > pos && (dbfBuffer.get(end - 1) & 0xff) <= ' ') {
+				end--;
+			}
+			if (end - pos != value.length) {
+				return false;
+			}
+			for (int i=0;i<value.length;i++) {
+				if (dbfBuffer.get(pos + i) != value[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		int fieldCount() {
+			return (dbfBuffer == null) ? 0 : fieldNames.size();
+		}
+		String fieldName(int field) {
+			return fieldNames.get(field);
+		}
+
+		// Textfeld als String (legt ein Objekt an, für Ausgaben)
+		String string(int field) {
+			if (dbfBuffer == null) {
+				return null;
+			}
+			byte[] bytes = new byte[fieldLengths.get(field)];
+			for (int i=0;i<bytes.length;i++) {
+				bytes[i] = dbfBuffer.get(dbfOffset + fieldOffsets.get(field) + i);
+			}
+			return new String(bytes, charset).trim();
+		}
+	}
+}
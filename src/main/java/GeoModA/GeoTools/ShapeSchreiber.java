@@ -0,0 +1,65 @@
+package GeoModA.GeoTools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.geotools.data.FeatureWriter;
+import org.geotools.data.Transaction;
+import org.geotools.data.shapefile.ShapefileDataStore;
+import org.geotools.data.shapefile.ShapefileDataStoreFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/*
+Streamende Ausgabe in eine neue Shapedatei. Jedes Objekt wird sofort über einen
+FeatureWriter angehängt, im Speicher liegt nie mehr als ein Objekt. Der Spatial
+Index (.qix) wird nicht bei jedem Schreibvorgang gepflegt, sondern einmalig beim
+Schließen aufgebaut.
+*/
+public class ShapeSchreiber implements AutoCloseable, Objektziel {
+	private final ShapefileDataStore store;
+	private final FeatureWriter<SimpleFeatureType, SimpleFeature> writer;
+
+	ShapeSchreiber(SimpleFeatureType sft, String path) throws IOException {
+	    File file = new File(path);
+	    ShapeLeser.release(file);
+
+	    ShapefileDataStoreFactory dataStoreFactory = new ShapefileDataStoreFactory();
+
+	    Map<String, Serializable> params = new HashMap<String, Serializable>();
+	    params.put("url", file.toURI().toURL());
+	    params.put("create spatial index", Boolean.FALSE);
+
+	    store = (ShapefileDataStore) dataStoreFactory.createNewDataStore(params);
+	    store.createSchema(sft);
+
+	    // AUTO_COMMIT: der Shapefile-Writer schreibt direkt in seine Ausgabedateien. Mit einer
+	    // eigenen Transaktion würde GeoTools alle Änderungen bis zum Commit im Speicher halten.
+	    writer = store.getFeatureWriterAppend(store.getTypeNames()[0], Transaction.AUTO_COMMIT);
+	}
+
+	@Override
+	public void write(SimpleFeature feature) throws IOException {
+		write(feature.getAttributes());
+	}
+	void write(List<Object> attributes) throws IOException {
+		SimpleFeature next = writer.next();
+		next.setAttributes(attributes);
+		writer.write();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			writer.close();
+			store.setIndexCreationEnabled(true);
+			store.createSpatialIndex(true);
+		} finally {
+			store.dispose();
+		}
+	}
+}
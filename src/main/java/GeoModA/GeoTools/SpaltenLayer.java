@@ -0,0 +1,347 @@
+package GeoModA.GeoTools;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.geotools.data.collection.CollectionFeatureSource;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.feature.collection.BaseSimpleFeatureCollection;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.MultiLineString;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.identity.FeatureId;
+
+/*
+Ebene im Arbeitsspeicher mit spaltenweiser Ablage, nutzbar überall, wo eine SimpleFeatureSource
+erwartet wird (Abfragen mit Filtern über CollectionFeatureSource).
+ - Koordinaten aller Objekte in einem double[] (x, y abwechselnd)
+ - Versatz-Felder Objekt -> Teilgeometrie -> Ring -> Koordinate
+ - Sachattribute je Spalte in einem eigenen Object[]
+ - Löschen markiert Zeilen nur, die Ablage bleibt unverändert
+SimpleFeatures und JTS-Geometrien entstehen erst beim Lesen über features(). Fehlende Geometrien
+bleiben null, leere Geometrien werden als leere Geometrie ihres Typs gelesen.
+Die FIDs haben die Form <Ebenenname>.<Zeilennummer ab 1> wie bei Shapedateien.
+*/
+public class SpaltenLayer extends CollectionFeatureSource implements Objektziel {
+	private final Spalten spalten;
+	// Herkunft für den ErgebnisCache (Quelle, Filter, Klasse); null, sobald die Ebene verändert wurde
+	private String herkunft = null;
+	// Änderungszähler (write/remove), z.B. für die Normalisierung
+	private long version = 0;
+
+	private SpaltenLayer(Spalten spalten) {
+		super(spalten);
+		this.spalten = spalten;
+	}
+
+	// ## Leere Ebene mit dem Schema sft unter dem Namen name ##
+	static SpaltenLayer create(SimpleFeatureType sft, String name) {
+		SimpleFeatureTypeBuilder stb = new SimpleFeatureTypeBuilder();
+		stb.init(sft);
+		stb.setName(name);
+		return new SpaltenLayer(new Spalten(stb.buildFeatureType()));
+	}
+
+	@Override
+	public void write(SimpleFeature feature) {
+		write(feature.getAttributes());
+	}
+
+	void write(List<Object> attributes) {
+		spalten.add(attributes);
+		herkunft = null;
+		version++;
+	}
+
+	long version() {
+		return version;
+	}
+
+	String getHerkunft() {
+		return herkunft;
+	}
+	void setHerkunft(String herkunft) {
+		this.herkunft = herkunft;
+	}
+
+	// ## Objekte anhand ihrer FIDs löschen ##
+	int remove(Collection<FeatureId> ids) {
+		int n = 0;
+		for (FeatureId id : ids) {
+			int row = spalten.row(id.getID());
+			if (row >= 0 && !spalten.removed.get(row)) {
+				spalten.removed.set(row);
+				n++;
+			}
+		}
+		if (n > 0) {
+			herkunft = null;
+			version++;
+		}
+		return n;
+	}
+
+	// Zeilenzugriff ohne SimpleFeature (Zeilen 0..rows()-1, gelöschte und leere Zeilen über isRemoved/isEmpty prüfen)
+	int rows() {
+		return spalten.n;
+	}
+	boolean isRemoved(int row) {
+		return spalten.removed.get(row);
+	}
+	boolean isEmpty(int row) {
+		return spalten.featurePart[row] == spalten.featurePart[row + 1];
+	}
+	String getID(int row) {
+		return spalten.fid(row);
+	}
+	// Erste Koordinate eines Objekts (bei Punkten der Punkt selbst)
+	double getX(int row) {
+		return spalten.xy[2 * spalten.ringCoord[spalten.partRing[spalten.featurePart[row]]]];
+	}
+	double getY(int row) {
+		return spalten.xy[2 * spalten.ringCoord[spalten.partRing[spalten.featurePart[row]]] + 1];
+	}
+
+	// ## Optional: Ausgabe als Shapedatei ##
+	void writeShape(String path) throws IOException {
+		try (ShapeSchreiber writer = new ShapeSchreiber(spalten.getSchema(), path)) {
+			for (int row=0;row<spalten.n;row++) {
+				if (!spalten.removed.get(row)) {
+					writer.write(spalten.attributes(row));
+				}
+			}
+		}
+	}
+
+	private static class Spalten extends BaseSimpleFeatureCollection {
+		private static final byte POINT = 0, LINESTRING = 1, POLYGON = 2, MULTIPOINT = 3, MULTILINESTRING = 4, MULTIPOLYGON = 5, NULL = 6;
+		private final GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+		private final int geometryIndex;
+		private final String prefix;
+
+		int n = 0;
+		final BitSet removed = new BitSet();
+		byte[] types = new byte[16];
+		// Versatz-Felder: jeweils Beginn des Elements, der letzte Eintrag ist das Ende
+		int[] featurePart = new int[17];
+		int[] partRing = new int[17];
+		int[] ringCoord = new int[17];
+		double[] xy = new double[64];
+		int parts = 0;
+		int rings = 0;
+		int coords = 0;
+		final Object[][] columns;
+		final Envelope envelope = new Envelope();
+
+		Spalten(SimpleFeatureType schema) {
+			super(schema);
+			geometryIndex = schema.indexOf(schema.getGeometryDescriptor().getLocalName());
+			prefix = schema.getTypeName() + ".";
+			columns = new Object[schema.getAttributeCount()][];
+			for (int c=0;c<columns.length;c++) {
+				columns[c] = (c == geometryIndex) ? null : new Object[16];
+			}
+		}
+
+		void add(List<Object> attributes) {
+			if (n == types.length) {
+				types = Arrays.copyOf(types, 2 * n);
+				featurePart = Arrays.copyOf(featurePart, 2 * n + 1);
+				for (int c=0;c<columns.length;c++) {
+					if (columns[c] != null) {columns[c] = Arrays.copyOf(columns[c], 2 * n);}
+				}
+			}
+			for (int c=0;c<columns.length;c++) {
+				if (columns[c] != null) {columns[c][n] = attributes.get(c);}
+			}
+			encode((Geometry) attributes.get(geometryIndex));
+			n++;
+			featurePart[n] = parts;
+		}
+
+		private void encode(Geometry geom) {
+			if (geom == null) {
+				types[n] = NULL;
+				return;
+			}
+			if (geom instanceof Point) {types[n] = POINT;}
+			else if (geom instanceof LineString) {types[n] = LINESTRING;}
+			else if (geom instanceof Polygon) {types[n] = POLYGON;}
+			else if (geom instanceof MultiPoint) {types[n] = MULTIPOINT;}
+			else if (geom instanceof MultiLineString) {types[n] = MULTILINESTRING;}
+			else if (geom instanceof MultiPolygon) {types[n] = MULTIPOLYGON;}
+			else {throw new IllegalArgumentException("Nicht unterstützter Geometrietyp " + geom.getGeometryType());}
+			// Leere Geometrie: nur der Typ, ohne Teilgeometrien
+			if (geom.isEmpty()) {
+				return;
+			}
+			envelope.expandToInclude(geom.getEnvelopeInternal());
+
+			for (int p=0;p<geom.getNumGeometries();p++) {
+				Geometry part = geom.getGeometryN(p);
+				if (part instanceof Polygon) {
+					Polygon polygon = (Polygon) part;
+					addRing(polygon.getExteriorRing().getCoordinates());
+					for (int r=0;r<polygon.getNumInteriorRing();r++) {
+						addRing(polygon.getInteriorRingN(r).getCoordinates());
+					}
+				} else {
+					addRing(part.getCoordinates());
+				}
+				parts++;
+				partRing = ensure(partRing, parts + 1);
+				partRing[parts] = rings;
+			}
+		}
+
+		private void addRing(Coordinate[] ring) {
+			if (xy.length < 2 * (coords + ring.length)) {
+				xy = Arrays.copyOf(xy, Math.max(2 * xy.length, 2 * (coords + ring.length)));
+			}
+			for (Coordinate c : ring) {
+				xy[2 * coords] = c.x;
+				xy[2 * coords + 1] = c.y;
+				coords++;
+			}
+			rings++;
+			ringCoord = ensure(ringCoord, rings + 1);
+			ringCoord[rings] = coords;
+		}
+
+		private static int[] ensure(int[] array, int size) {
+			return (array.length < size) ? Arrays.copyOf(array, Math.max(2 * array.length, size)) : array;
+		}
+
+		Geometry decode(int row) {
+			int firstPart = featurePart[row];
+			int lastPart = featurePart[row + 1];
+			boolean empty = (firstPart == lastPart);
+			switch (types[row]) {
+			case NULL:
+				return null;
+			case POINT:
+				return geometryFactory.createPoint(empty ? null : coordinates(partRing[firstPart])[0]);
+			case LINESTRING:
+				return geometryFactory.createLineString(empty ? null : coordinates(partRing[firstPart]));
+			case POLYGON:
+				return empty ? geometryFactory.createPolygon((LinearRing) null, null) : polygon(firstPart);
+			case MULTIPOINT: {
+				Point[] points = new Point[lastPart - firstPart];
+				for (int p=firstPart;p<lastPart;p++) {points[p - firstPart] = geometryFactory.createPoint(coordinates(partRing[p])[0]);}
+				return geometryFactory.createMultiPoint(points);
+			}
+			case MULTILINESTRING: {
+				LineString[] lines = new LineString[lastPart - firstPart];
+				for (int p=firstPart;p<lastPart;p++) {lines[p - firstPart] = geometryFactory.createLineString(coordinates(partRing[p]));}
+				return geometryFactory.createMultiLineString(lines);
+			}
+			default: {
+				Polygon[] polygons = new Polygon[lastPart - firstPart];
+				for (int p=firstPart;p<lastPart;p++) {polygons[p - firstPart] = polygon(p);}
+				return geometryFactory.createMultiPolygon(polygons);
+			}
+			}
+		}
+
+		private Polygon polygon(int part) {
+			int firstRing = partRing[part];
+			int lastRing = partRing[part + 1];
+			LinearRing shell = geometryFactory.createLinearRing(coordinates(firstRing));
+			LinearRing[] holes = new LinearRing[lastRing - firstRing - 1];
+			for (int r=firstRing+1;r<lastRing;r++) {
+				holes[r - firstRing - 1] = geometryFactory.createLinearRing(coordinates(r));
+			}
+			return geometryFactory.createPolygon(shell, holes);
+		}
+
+		private Coordinate[] coordinates(int ring) {
+			Coordinate[] result = new Coordinate[ringCoord[ring + 1] - ringCoord[ring]];
+			for (int i=0;i<result.length;i++) {
+				int c = ringCoord[ring] + i;
+				result[i] = new Coordinate(xy[2 * c], xy[2 * c + 1]);
+			}
+			return result;
+		}
+
+		List<Object> attributes(int row) {
+			List<Object> values = new ArrayList<>(columns.length);
+			for (int c=0;c<columns.length;c++) {
+				values.add((c == geometryIndex) ? decode(row) : columns[c][row]);
+			}
+			return values;
+		}
+
+		String fid(int row) {
+			return prefix + (row + 1);
+		}
+
+		int row(String fid) {
+			if (!fid.startsWith(prefix)) {
+				return -1;
+			}
+			try {
+				int row = Integer.parseInt(fid.substring(prefix.length())) - 1;
+				return (row >= 0 && row < n) ? row : -1;
+			} catch (NumberFormatException e) {
+				return -1;
+			}
+		}
+
+		@Override
+		public int size() {
+			return n - removed.cardinality();
+		}
+
+		@Override
+		public ReferencedEnvelope getBounds() {
+			return new ReferencedEnvelope(envelope, getSchema().getCoordinateReferenceSystem());
+		}
+
+		@Override
+		public SimpleFeatureIterator features() {
+			return new SimpleFeatureIterator() {
+				private final SimpleFeatureBuilder builder = new SimpleFeatureBuilder(getSchema());
+				private int next = removed.nextClearBit(0);
+
+				@Override
+				public boolean hasNext() {
+					return next < n;
+				}
+
+				@Override
+				public SimpleFeature next() {
+					if (next >= n) {
+						throw new NoSuchElementException();
+					}
+					int row = next;
+					next = removed.nextClearBit(row + 1);
+					builder.addAll(attributes(row));
+					return builder.buildFeature(fid(row));
+				}
+
+				@Override
+				public void close() {
+				}
+			};
+		}
+	}
+}
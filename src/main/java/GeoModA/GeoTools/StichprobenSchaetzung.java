@@ -0,0 +1,311 @@
+package GeoModA.GeoTools;
+
+import java.io.PrintStream;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.geom.util.PolygonExtracter;
+import org.locationtech.jts.index.strtree.STRtree;
+
+/*
+Schätzung der Überdeckung zweier Flächenebenen (A = ATKIS, B = OSM) über geschichtete Zufallspunkte
+statt über die exakte Verschneidung der Union-Geometrien.
+ - Die gemeinsame Ausdehnung wird in ein Gitter aus etwa strata Schichten zerlegt; Schichten ohne
+   Objekt beider Ebenen tragen sicher 0 bei und werden nicht beprobt
+ - Jeder Punkt wird gegen die vorbereiteten Teilflächen (PreparedGeometry im STR-Baum) beider Ebenen
+   geprüft, für die Pufferstaffel über den Abstand zu den Flächen von A
+ - Schätzer je Fläche: Σ Schichtfläche * Trefferanteil, Varianz aus den Anteilen je Schicht
+ - Runde um Runde werden weitere Punkte gezogen, verteilt nach Schichtfläche und Streuung (Neyman),
+   bis das Konfidenzintervall eng genug ist oder das Zeitbudget aufgebraucht ist (auch mitten in einer Runde)
+Ausgegeben werden Flächen A, B, Überschneidung A ∩ B, Kommission B \ A (OSM-Fläche ohne ATKIS) und
+Vollständigkeit (A ∩ B) / A, jeweils mit Konfidenzintervall (z = 1.96, 95 %).
+Abbruch, wenn für Überschneidung und Kommission die halbe Intervallbreite höchstens
+targetError * Fläche A beträgt und für die Vollständigkeit höchstens targetError.
+Die Punkte sind über seed reproduzierbar, unabhängig von der Anzahl Threads.
+Ohne Treffer in A ist die Schätzung nach der ersten Runde beendet.
+Standard ist targetError = 0 (aus, exakte Verschneidung).
+*/
+public class StichprobenSchaetzung {
+	// Zielgenauigkeit (relativ zur Fläche von A, für die Vollständigkeit absolut); 0 = aus
+	static double targetError = 0.0;
+	// Zeitbudget je Schätzung in Sekunden
+	static double timeBudget = 30.0;
+	static int strata = 4096;
+	static int initialSamples = 8;
+	static double z = 1.96;
+	static long seed = 1;
+	static ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	// Zähler je Schicht: Punkte, in A, in B, in A ∩ B, danach je Radius in Puffer(A) ∩ B
+	private static final int N = 0, A = 1, B = 2, AB = 3, BUFFER = 4;
+
+	static boolean isActive() {
+		return targetError > 0;
+	}
+
+	// ## Schätzwerte mit halber Breite des Konfidenzintervalls ##
+	static class Ergebnis {
+		double areaA, errorA;
+		double areaB, errorB;
+		double overlap, errorOverlap;
+		double commission, errorCommission;
+		double completeness, errorCompleteness;
+		double[] bufferRadius = new double[0];
+		double[] bufferedOverlap = new double[0];
+		double[] errorBufferedOverlap = new double[0];
+		long samples;
+		int rounds;
+		double seconds;
+
+		void print(String name) {
+			print(System.out, name);
+		}
+		void print(PrintStream out, String name) {
+			DecimalFormat df = new DecimalFormat("#0.0000");
+			DecimalFormat rf = new DecimalFormat("0.##");
+			out.print("Stichprobenschätzung " + name + ": " + samples + " Punkte in " + rounds + " Runden, "
+					+ new DecimalFormat("0.0").format(seconds) + " s, Konfidenzintervall ±" + rf.format(z) + " σ\n");
+			out.print("Gesamtfläche ATKIS-" + name + ": " + df.format(areaA) + " ± " + df.format(errorA) + "\n");
+			out.print("Gesamtfläche OSM-" + name + ": " + df.format(areaB) + " ± " + df.format(errorB) + "\n");
+			out.print("Überschneidungsfläche " + name + ": " + df.format(overlap) + " ± " + df.format(errorOverlap) + "\n");
+			out.print("Kommission OSM-" + name + " (ohne ATKIS): " + df.format(commission) + " ± " + df.format(errorCommission) + "\n");
+			out.print("Vollständigkeit OSM-" + name + ": " + df.format(completeness) + " ± " + df.format(errorCompleteness) + "\n");
+			for (int i=0;i<bufferRadius.length;i++) {
+				out.print("Überschneidungsfläche " + name + " (" + rf.format(bufferRadius[i]) + "m Buffer ATKIS): "
+						+ df.format(bufferedOverlap[i]) + " ± " + df.format(errorBufferedOverlap[i]) + "\n");
+			}
+		}
+	}
+
+	// ## Schätzung für die Flächen aus a und b, dazu a gebuffert um jeden Radius aus bufferRadius mit b ##
+	static Ergebnis estimate(List<Geometry> a, List<Geometry> b, double[] bufferRadius) {
+		long start = System.nanoTime();
+		long deadline = start + (long) (timeBudget * 1e9);
+		double maxRadius = 0;
+		for (double r : bufferRadius) {maxRadius = Math.max(maxRadius, r);}
+		STRtree treeA = index(a);
+		STRtree treeB = index(b);
+
+		// Schichten: Gitterzellen über die Ausdehnung, nur Zellen mit Objekten
+		Envelope extent = new Envelope();
+		for (Geometry g : a) {extent.expandToInclude(g.getEnvelopeInternal());}
+		for (Geometry g : b) {extent.expandToInclude(g.getEnvelopeInternal());}
+		List<Envelope> cells = new ArrayList<>();
+		if (!extent.isNull()) {
+			int side = Math.max(1, (int) Math.ceil(Math.sqrt(strata)));
+			double width = extent.getWidth() / side;
+			double height = extent.getHeight() / side;
+			for (int i=0;i<side * side;i++) {
+				double minX = extent.getMinX() + (i % side) * width;
+				double minY = extent.getMinY() + (i / side) * height;
+				Envelope cell = new Envelope(minX, minX + width, minY, minY + height);
+				if (cell.getArea() > 0 && (!treeA.query(cell).isEmpty() || !treeB.query(cell).isEmpty())) {
+					cells.add(cell);
+				}
+			}
+		}
+
+		int fields = BUFFER + bufferRadius.length;
+		long[][] counts = new long[cells.size()][fields];
+		int[] allocation = new int[cells.size()];
+		Arrays.fill(allocation, initialSamples);
+		Ergebnis result = new Ergebnis();
+		double finalMaxRadius = maxRadius;
+		int round = 0;
+		while (!cells.isEmpty()) {
+			int r = round;
+			pool.submit(() -> IntStream.range(0, cells.size()).parallel().forEach(h ->
+					sample(cells.get(h), allocation[h], Zufall.stream(seed, (long) r * cells.size() + h),
+							treeA, treeB, bufferRadius, finalMaxRadius, counts[h], deadline))).join();
+			round++;
+			result = evaluate(cells, counts, bufferRadius);
+			result.rounds = round;
+			if (converged(result) || System.nanoTime() > deadline) {
+				break;
+			}
+			allocate(cells, counts, allocation, result.samples);
+		}
+		result.seconds = (System.nanoTime() - start) / 1e9;
+		return result;
+	}
+
+	// Ohne Treffer in A gibt es keine Bezugsfläche für targetError, weitere Runden ändern daran nichts
+	private static boolean converged(Ergebnis e) {
+		if (e.areaA == 0) {
+			return true;
+		}
+		double tolerance = targetError * e.areaA;
+		return e.errorOverlap <= tolerance && e.errorCommission <= tolerance && e.errorCompleteness <= targetError;
+	}
+
+	// Punkte einer Schicht ziehen und zählen; nach Ablauf von deadline wird die Schicht vorzeitig beendet
+	// (alle 64 Punkte geprüft), die bis dahin gezogenen Punkte zählen
+	private static void sample(Envelope cell, int n, SplittableRandom random, STRtree treeA, STRtree treeB,
+			double[] bufferRadius, double maxRadius, long[] c, long deadline) {
+		GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+		for (int i=0;i<n;i++) {
+			if ((i & 63) == 63 && System.nanoTime() > deadline) {
+				return;
+			}
+			double x = cell.getMinX() + random.nextDouble() * cell.getWidth();
+			double y = cell.getMinY() + random.nextDouble() * cell.getHeight();
+			Point point = geometryFactory.createPoint(new Coordinate(x, y));
+			boolean inA = covers(treeA, point);
+			boolean inB = covers(treeB, point);
+			c[N]++;
+			if (inA) {c[A]++;}
+			if (inB) {c[B]++;}
+			if (inA && inB) {c[AB]++;}
+			if (inB && bufferRadius.length > 0) {
+				double distance = inA ? 0.0 : distance(treeA, point, maxRadius);
+				for (int k=0;k<bufferRadius.length;k++) {
+					if (distance <= bufferRadius[k]) {c[BUFFER + k]++;}
+				}
+			}
+		}
+	}
+
+	private static boolean covers(STRtree tree, Point point) {
+		for (Object item : tree.query(point.getEnvelopeInternal())) {
+			if (((PreparedGeometry) item).intersects(point)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// Abstand zur nächsten Fläche, unendlich wenn keine näher als maxRadius liegt
+	private static double distance(STRtree tree, Point point, double maxRadius) {
+		Envelope search = new Envelope(point.getCoordinate());
+		search.expandBy(maxRadius);
+		double distance = Double.POSITIVE_INFINITY;
+		for (Object item : tree.query(search)) {
+			distance = Math.min(distance, ((PreparedGeometry) item).getGeometry().distance(point));
+		}
+		return distance;
+	}
+
+	// ## Schätzwerte und Varianzen aus den Zählern ##
+	private static Ergebnis evaluate(List<Envelope> cells, long[][] counts, double[] bufferRadius) {
+		Ergebnis e = new Ergebnis();
+		int radii = bufferRadius.length;
+		double varA = 0, varB = 0, varAB = 0, varCommission = 0;
+		double[] buffered = new double[radii], varBuffered = new double[radii];
+		for (int h=0;h<cells.size();h++) {
+			long[] c = counts[h];
+			double w = cells.get(h).getArea();
+			e.samples += c[N];
+			e.areaA += w * share(c[A], c[N]);
+			e.areaB += w * share(c[B], c[N]);
+			e.overlap += w * share(c[AB], c[N]);
+			e.commission += w * share(c[B] - c[AB], c[N]);
+			varA += variance(w, c[A], c[N]);
+			varB += variance(w, c[B], c[N]);
+			varAB += variance(w, c[AB], c[N]);
+			varCommission += variance(w, c[B] - c[AB], c[N]);
+			for (int k=0;k<radii;k++) {
+				buffered[k] += w * share(c[BUFFER + k], c[N]);
+				varBuffered[k] += variance(w, c[BUFFER + k], c[N]);
+			}
+		}
+		e.errorA = z * Math.sqrt(varA);
+		e.errorB = z * Math.sqrt(varB);
+		e.errorOverlap = z * Math.sqrt(varAB);
+		e.errorCommission = z * Math.sqrt(varCommission);
+
+		// Vollständigkeit R = (A ∩ B) / A, Varianz über die Hilfsgröße d = 1[A ∩ B] - R * 1[A] (Delta-Methode)
+		e.completeness = (e.areaA > 0) ? e.overlap / e.areaA : 0.0;
+		double varRatio = 0;
+		for (int h=0;h<cells.size() && e.areaA > 0;h++) {
+			long[] c = counts[h];
+			if (c[N] < 2) {
+				continue;
+			}
+			double w = cells.get(h).getArea();
+			double R = e.completeness;
+			double sum = c[AB] * (1 - R) - (c[A] - c[AB]) * R;
+			double sumSquares = c[AB] * (1 - R) * (1 - R) + (c[A] - c[AB]) * R * R;
+			double mean = sum / c[N];
+			double s2 = (sumSquares - c[N] * mean * mean) / (c[N] - 1);
+			varRatio += w * w * s2 / c[N];
+		}
+		e.errorCompleteness = (e.areaA > 0) ? z * Math.sqrt(varRatio) / e.areaA : 0.0;
+
+		e.bufferRadius = bufferRadius.clone();
+		e.bufferedOverlap = buffered;
+		e.errorBufferedOverlap = new double[radii];
+		for (int k=0;k<radii;k++) {
+			e.errorBufferedOverlap[k] = z * Math.sqrt(varBuffered[k]);
+		}
+		return e;
+	}
+
+	private static double share(long x, long n) {
+		return (n > 0) ? (double) x / n : 0.0;
+	}
+
+	// Varianz des Flächenanteils einer Schicht; Anteil mit +0.5 geglättet, damit 0 und n Treffer nicht sicher wirken
+	private static double variance(double w, long x, long n) {
+		if (n == 0) {
+			return 0.0;
+		}
+		double p = (x + 0.5) / (n + 1.0);
+		return w * w * p * (1 - p) / n;
+	}
+
+	// Nächste Runde: ebenso viele Punkte wie bisher insgesamt, verteilt nach Schichtfläche * Streuung
+	private static void allocate(List<Envelope> cells, long[][] counts, int[] allocation, long total) {
+		double[] weight = new double[cells.size()];
+		double sum = 0;
+		for (int h=0;h<cells.size();h++) {
+			long[] c = counts[h];
+			double sigma = 0;
+			for (long x : new long[] {c[A], c[B], c[AB]}) {
+				double p = (x + 0.5) / (c[N] + 1.0);
+				sigma = Math.max(sigma, Math.sqrt(p * (1 - p)));
+			}
+			weight[h] = cells.get(h).getArea() * sigma;
+			sum += weight[h];
+		}
+		for (int h=0;h<cells.size();h++) {
+			allocation[h] = (int) Math.max(1, Math.min(Integer.MAX_VALUE / 2, Math.round(total * weight[h] / sum)));
+		}
+	}
+
+	// ## STR-Baum der vorbereiteten Teilflächen ##
+	// JTS 1.16 baut den Punktindex einer PreparedGeometry beim ersten Zugriff ohne Synchronisierung auf,
+	// deshalb wird jede Teilfläche vorab einmal abgefragt (parallel, jede von genau einem Thread)
+	@SuppressWarnings("unchecked")
+	private static STRtree index(List<Geometry> geometries) {
+		List<PreparedGeometry> prepared = new ArrayList<>();
+		for (Geometry g : geometries) {
+			for (Geometry part : (List<Geometry>) PolygonExtracter.getPolygons(g)) {
+				if (!part.isEmpty()) {
+					prepared.add(PreparedGeometryFactory.prepare(part));
+				}
+			}
+		}
+		GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+		pool.submit(() -> prepared.parallelStream().forEach(p ->
+				p.intersects(geometryFactory.createPoint(p.getGeometry().getEnvelopeInternal().centre())))).join();
+		STRtree tree = new STRtree();
+		for (PreparedGeometry p : prepared) {
+			tree.insert(p.getGeometry().getEnvelopeInternal(), p);
+		}
+		tree.build();
+		return tree;
+	}
+}
@@ -0,0 +1,323 @@
+package GeoModA.GeoTools;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.geotools.filter.text.cql2.CQL;
+import org.geotools.filter.text.cql2.CQLException;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.filter.And;
+import org.opengis.filter.Filter;
+import org.opengis.filter.Not;
+import org.opengis.filter.Or;
+import org.opengis.filter.PropertyIsEqualTo;
+import org.opengis.filter.PropertyIsLike;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+
+/*
+Kompilierte Klassenzuordnung für die semantische Harmonisierung. Die CQL-Filter
+der Klassen werden einmal zerlegt:
+ - attribut='wert' (auch als ODER-Kette) wird zu einem Hash-Eintrag (Attribut, Wert) -> Klassen;
+   numerische Werte werden wie im Filter als Zahl verglichen (5 = '5' = '5.0')
+ - attribut NOT LIKE 'a' and attribut NOT LIKE 'b' ... (ohne Platzhalter) wird zu einer Ausschlussmenge
+ - alles andere (LIKE mit Platzhaltern, gemischte Ausdrücke) wird weiterhin als Filter ausgewertet
+Pro Objekt genügen damit wenige Map-Zugriffe statt der Auswertung eines ODER-Baums je Klasse.
+Sind alle Klassen übersetzt, lässt sich die Zuordnung über bind() auch direkt auf den DBF-Feldern
+eines ShapeLeser-Cursors auswerten (Bytevergleich bzw. Zahl, ohne SimpleFeature). Textfelder gelten
+dabei wie im ShapefileDataStore ohne führende und abschließende Leerzeichen, fehlende Felder als null.
+*/
+public class TagKlassifikator {
+	private final List<String> names = new ArrayList<>();
+	private final Map<String, Map<String, BitSet>> equalities = new HashMap<>();
+	private final List<Exclusion> exclusions = new ArrayList<>();
+	private final List<Integer> fallbackIds = new ArrayList<>();
+	private final List<Filter> fallbackFilters = new ArrayList<>();
+
+	private static class Exclusion {
+		final int classId;
+		final String attribute;
+		final Set<String> values;
+		final Filter filter;
+		Exclusion(int classId, String attribute, Set<String> values, Filter filter) {
+			this.classId = classId;
+			this.attribute = attribute;
+			this.values = values;
+			this.filter = filter;
+		}
+	}
+
+	// ## Neue Klasse registrieren, Rückgabe ist die Klassen-ID ##
+	int addClass(String name, String toFilter) throws CQLException {
+		int id = names.size();
+		names.add(name);
+		compile(id, CQL.toFilter(toFilter));
+		return id;
+	}
+
+	int size() {
+		return names.size();
+	}
+
+	String getName(int id) {
+		return names.get(id);
+	}
+
+	// ## Alle passenden Klassen eines Objekts in result setzen ##
+	void classify(SimpleFeature sf, BitSet result) {
+		result.clear();
+		for (Map.Entry<String, Map<String, BitSet>> entry : equalities.entrySet()) {
+			Object value = sf.getAttribute(entry.getKey());
+			if (value != null) {
+				BitSet hits = entry.getValue().get(key(value));
+				if (hits != null) {
+					result.or(hits);
+				}
+			}
+		}
+		for (Exclusion ex : exclusions) {
+			// Wie bei Not(PropertyIsLike): fehlende Attributwerte gelten als nicht ausgeschlossen
+			Object value = sf.getAttribute(ex.attribute);
+			if (value instanceof Number) {
+				// Zahlen: Textform hängt vom Attributtyp ab, daher wie bisher über den Filter
+				if (ex.filter.evaluate(sf)) {
+					result.set(ex.classId);
+				}
+			}
+			else if (value == null || !ex.values.contains(value.toString())) {
+				result.set(ex.classId);
+			}
+		}
+		for (int i=0;i<fallbackIds.size();i++) {
+			int id = fallbackIds.get(i);
+			if (!result.get(id) && fallbackFilters.get(i).evaluate(sf)) {
+				result.set(id);
+			}
+		}
+	}
+	BitSet classify(SimpleFeature sf) {
+		BitSet result = new BitSet(names.size());
+		classify(sf, result);
+		return result;
+	}
+
+	// ## Zuordnung auf den DBF-Feldern von leser ##
+	// null, wenn eine Klasse nicht übersetzt ist (Restfilter) oder ein Feld einen anderen Typ als Text
+	// bzw. (nur für Gleichheiten) Zahl hat; dann über classify(SimpleFeature) auswerten
+	Felder bind(ShapeLeser leser) {
+		if (!fallbackIds.isEmpty()) {
+			return null;
+		}
+		Felder felder = new Felder();
+		for (Map.Entry<String, Map<String, BitSet>> entry : equalities.entrySet()) {
+			int field = leser.field(entry.getKey());
+			if (field < 0) {
+				// Attribut fehlt: Wert null, keine Gleichheit
+				continue;
+			}
+			char type = leser.fieldType(field);
+			boolean numeric = type == 'N' || type == 'F';
+			if (!numeric && type != 'C') {
+				return null;
+			}
+			Gleichheit equality = new Gleichheit(field, numeric);
+			for (Map.Entry<String, BitSet> value : entry.getValue().entrySet()) {
+				String key = value.getKey();
+				if (!numeric) {
+					// Text: wie key(value) für Strings, jeder Schlüssel ist ein möglicher Wert
+					equality.texts.add(leser.encode(key));
+					equality.ids.add(value.getValue());
+				} else if (key.startsWith("#")) {
+					// Zahl: nur die Normalformen kommen als key(Number) vor
+					equality.numbers.add(Double.parseDouble(key.substring(1)));
+					equality.ids.add(value.getValue());
+				}
+			}
+			felder.equalities.add(equality);
+		}
+		for (Exclusion ex : exclusions) {
+			int field = leser.field(ex.attribute);
+			if (field >= 0 && leser.fieldType(field) != 'C') {
+				return null;
+			}
+			List<byte[]> values = new ArrayList<>();
+			for (String value : ex.values) {
+				values.add(leser.encode(value));
+			}
+			felder.exclusions.add(new Ausschluss(ex.classId, field, values));
+		}
+		return felder;
+	}
+
+	// Gleichheiten eines DBF-Felds: Textwerte als Bytes oder Zahlwerte, dazu die Klassen je Wert
+	private static class Gleichheit {
+		final int field;
+		final boolean numeric;
+		final List<byte[]> texts = new ArrayList<>();
+		final List<Double> numbers = new ArrayList<>();
+		final List<BitSet> ids = new ArrayList<>();
+		Gleichheit(int field, boolean numeric) {
+			this.field = field;
+			this.numeric = numeric;
+		}
+	}
+
+	// Ausschlussmenge auf einem Textfeld; field = -1, wenn das Attribut fehlt
+	private static class Ausschluss {
+		final int classId;
+		final int field;
+		final List<byte[]> values;
+		Ausschluss(int classId, int field, List<byte[]> values) {
+			this.classId = classId;
+			this.field = field;
+			this.values = values;
+		}
+	}
+
+	// ## An einen ShapeLeser gebundene Zuordnung, nur lesend und damit von mehreren Cursorn zugleich nutzbar ##
+	static class Felder {
+		private final List<Gleichheit> equalities = new ArrayList<>();
+		private final List<Ausschluss> exclusions = new ArrayList<>();
+
+		// Alle passenden Klassen des aktuellen Satzes in result setzen
+		void classify(ShapeLeser.Cursor cursor, BitSet result) {
+			result.clear();
+			for (Gleichheit equality : equalities) {
+				if (equality.numeric) {
+					double value = cursor.number(equality.field);
+					for (int i=0;i<equality.numbers.size();i++) {
+						if (equality.numbers.get(i) == value) {
+							result.or(equality.ids.get(i));
+						}
+					}
+				} else {
+					for (int i=0;i<equality.texts.size();i++) {
+						if (cursor.matches(equality.field, equality.texts.get(i))) {
+							result.or(equality.ids.get(i));
+						}
+					}
+				}
+			}
+			for (Ausschluss ex : exclusions) {
+				boolean excluded = false;
+				for (int i=0;i<ex.values.size() && ex.field >= 0 && !excluded;i++) {
+					excluded = cursor.matches(ex.field, ex.values.get(i));
+				}
+				if (!excluded) {
+					result.set(ex.classId);
+				}
+			}
+		}
+	}
+
+	private void compile(int id, Filter filter) {
+		if (filter instanceof Or) {
+			for (Filter child : ((Or) filter).getChildren()) {
+				if (!addEquality(id, child)) {
+					addFallback(id, child);
+				}
+			}
+		}
+		else if (!addEquality(id, filter) && !addExclusion(id, filter)) {
+			addFallback(id, filter);
+		}
+	}
+
+	private boolean addEquality(int id, Filter filter) {
+		if (!(filter instanceof PropertyIsEqualTo)) {
+			return false;
+		}
+		PropertyIsEqualTo equal = (PropertyIsEqualTo) filter;
+		if (!equal.isMatchingCase() || !(equal.getExpression1() instanceof PropertyName) || !(equal.getExpression2() instanceof Literal)) {
+			return false;
+		}
+		Object value = ((Literal) equal.getExpression2()).getValue();
+		if (value == null) {
+			return false;
+		}
+		String attribute = ((PropertyName) equal.getExpression1()).getPropertyName();
+		Map<String, BitSet> values = equalities.get(attribute);
+		if (values == null) {
+			values = new HashMap<>();
+			equalities.put(attribute, values);
+		}
+		put(values, value.toString(), id);
+		String number = numberKey(value);
+		if (number != null) {
+			put(values, number, id);
+		}
+		return true;
+	}
+
+	private static void put(Map<String, BitSet> values, String key, int id) {
+		BitSet ids = values.get(key);
+		if (ids == null) {
+			ids = new BitSet();
+			values.put(key, ids);
+		}
+		ids.set(id);
+	}
+
+	// Schlüssel eines Attributwerts: Zahlen in Normalform, alles andere als Text
+	private static String key(Object value) {
+		if (value instanceof Number) {
+			String number = numberKey(value);
+			return (number != null) ? number : value.toString();
+		}
+		return value.toString();
+	}
+
+	// Normalform einer Zahl (5, 5.0 und '5.00' ergeben denselben Schlüssel), null wenn keine Zahl
+	private static String numberKey(Object value) {
+		try {
+			return "#" + new BigDecimal(value.toString().trim()).stripTrailingZeros().toPlainString();
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	// attribut NOT LIKE 'a' [and attribut NOT LIKE 'b' ...] ohne Platzhalter auf demselben Attribut
+	private boolean addExclusion(int id, Filter filter) {
+		List<Filter> children = new ArrayList<>();
+		if (filter instanceof And) {
+			children.addAll(((And) filter).getChildren());
+		} else {
+			children.add(filter);
+		}
+		String attribute = null;
+		Set<String> values = new HashSet<>();
+		for (Filter child : children) {
+			if (!(child instanceof Not) || !(((Not) child).getFilter() instanceof PropertyIsLike)) {
+				return false;
+			}
+			PropertyIsLike like = (PropertyIsLike) ((Not) child).getFilter();
+			if (!like.isMatchingCase() || !(like.getExpression() instanceof PropertyName) || hasWildcards(like)) {
+				return false;
+			}
+			String name = ((PropertyName) like.getExpression()).getPropertyName();
+			if (attribute != null && !attribute.equals(name)) {
+				return false;
+			}
+			attribute = name;
+			values.add(like.getLiteral());
+		}
+		exclusions.add(new Exclusion(id, attribute, values, filter));
+		return true;
+	}
+
+	private static boolean hasWildcards(PropertyIsLike like) {
+		String pattern = like.getLiteral();
+		return pattern.contains(like.getWildCard()) || pattern.contains(like.getSingleChar()) || pattern.contains(like.getEscape());
+	}
+
+	private void addFallback(int id, Filter filter) {
+		fallbackIds.add(id);
+		fallbackFilters.add(filter);
+	}
+}
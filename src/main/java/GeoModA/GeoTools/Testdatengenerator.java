@@ -0,0 +1,356 @@
+package GeoModA.GeoTools;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.MultiLineString;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/*
+Synthetische Eingangsdaten für Lasttests: schreibt alle Shapedateien, die main und die Ablaufplanung
+öffnen (ATKIS/sie01_f ... ATKIS/gebaeude, OSM/OSM_point ... OSM/building/OSM_polygon_building),
+mit denselben Schemata und Klassenwerten, auf die die Filter aus main und klassen.properties passen.
+Grundlage sind "reale" Objekte mit Lage, Klasse und Umriss; ATKIS und OSM sind zwei Erfassungen davon:
+ anzahl        Anzahl realer Objekte (Standard 100000)
+ startwert     Startwert des Zufallsgenerators, gleiche Parameter ergeben gleiche Dateien (Standard 1)
+ dichte        Fläche je Objekt in m², bestimmt die Ausdehnung (Standard 10000)
+ haeufung      Anteil der Objekte in Ballungen um zufällige Zentren, Rest gleichverteilt (Standard 0.7)
+ ueberdeckung  Anteil der Objekte in beiden Datensätzen, der Rest je zur Hälfte nur in ATKIS bzw. OSM (Standard 0.8)
+ rauschen      Lageversatz der OSM-Erfassung in m, je Objekt und abgeschwächt je Stützpunkt (Standard 2)
+ defekte       Anteil ungültiger Umrisse (Schleife im Ring) je Erfassung (Standard 0.01)
+ dubletten     Anteil der OSM-Flächen und -Linien, die zusätzlich als Punkt erfasst sind (Standard 0.05)
+Jedes Objekt wird aus Startwert und Objektnummer erzeugt und sofort geschrieben, der Speicherbedarf ist
+unabhängig von der Anzahl. Shapedateien sind auf 2 GB begrenzt, damit auf grob 10^7 Objekte je Datei;
+für 10^8 Objekte die Anteile der Klassen (ARTEN) verschieben oder in Teilen erzeugen.
+Aufruf: Testdatengenerator <Zielverzeichnis> [name=wert ...], z.B. Testdatengenerator /tmp/geomoda anzahl=1000000
+*/
+public class Testdatengenerator {
+	private static final double X0 = 350000, Y0 = 5600000;
+	private static final int BALLUNG = 1000;
+	private static final GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+
+	// ATKIS-Ebene, Objektart, OSM-Gruppe ("" = OSM/OSM_*, sonst OSM/<gruppe>/OSM_*_<gruppe>, null = nur ATKIS),
+	// OSM-Merkmale, Größe in m, Anteil an allen Objekten
+	private static class Art {
+		final String atkis;
+		final String objart;
+		final String objartTxt;
+		final String osm;
+		final String[] tags;
+		final double groesse;
+		final double anteil;
+
+		Art(String atkis, String objart, String objartTxt, String osm, String[] tags, double groesse, double anteil) {
+			this.atkis = atkis;
+			this.objart = objart;
+			this.objartTxt = objartTxt;
+			this.osm = osm;
+			this.tags = tags;
+			this.groesse = groesse;
+			this.anteil = anteil;
+		}
+
+		// Punktklassen liegen in ATKIS als _p oder _f vor
+		boolean isPunkt() {
+			return atkis.equals("sie03") || atkis.equals("sie05");
+		}
+	}
+
+	private static final Art[] ARTEN = {
+		new Art("sie05", "51001", "AX_Turm", "", new String[]{"man_made=tower", "man_made=water_tower", "man_made=communications_tower", "man_made=chimney", "building=transformer_tower", "historic=tower"}, 8, 0.03),
+		new Art("sie03", "51003", "AX_VorratsbehaelterSpeicherbauwerk", "", new String[]{"man_made=silo", "man_made=storage_tank", "man_made=gasometer", "man_made=bunker_silo"}, 10, 0.04),
+		new Art("sie03", "51007", "AX_HistorischesBauwerkOderHistorischeEinrichtung", "", new String[]{"historic=castle", "historic=ruins", "historic=memorial", "historic=wayside_cross"}, 12, 0.03),
+		new Art("sie03", "51009", "AX_SonstigesBauwerkOderSonstigeEinrichtung", "", new String[]{"historic=monument", "historic=boundary_stone", "historic=milestone", "amenity=fountain", "boundary=marker"}, 4, 0.04),
+		new Art("sie03", "51010", "AX_EinrichtungInOeffentlichenBereichen", "", new String[]{"amenity=bench", "amenity=post_box", "amenity=telephone", "amenity=recycling"}, 3, 0.06),
+		new Art("sie02_f", "41003", "AX_Halde", "landuse", new String[]{"landuse=landfill"}, 150, 0.01),
+		new Art("sie02_f", "41009", "AX_Friedhof", "landuse", new String[]{"landuse=cemetery"}, 120, 0.02),
+		new Art("sie02_f", "41001", "AX_Wohnbauflaeche", "landuse", new String[]{"landuse=residential"}, 250, 0.10),
+		new Art("sie02_f", "41008", "AX_SportFreizeitUndErholungsflaeche", "landuse", new String[]{"landuse=recreation_ground", "landuse=grass", "landuse=allotments"}, 100, 0.05),
+		new Art("sie02_f", "41002", "AX_IndustrieUndGewerbeflaeche", "landuse", new String[]{"landuse=industrial", "landuse=commercial", "landuse=retail"}, 200, 0.05),
+		new Art("sie02_f", "41005", "AX_TagebauGrubeSteinbruch", "landuse", new String[]{"landuse=quarry"}, 300, 0.01),
+		new Art("sie02_f", "41004", "AX_Bergbaubetrieb", "landuse", new String[]{"landuse=industrial"}, 200, 0.01),
+		new Art("gebaeude", "31001", "AX_Gebaeude", "building", new String[]{"building=yes", "building=house", "building=residential", "building=garage"}, 15, 0.50),
+		// Füllebenen ohne OSM-Gegenstück, damit alle Quellen von main vorhanden sind
+		new Art("sie01_f", "41010", "AX_Siedlungsflaeche", null, new String[0], 400, 0.01),
+		new Art("sie03_l", "51004", "AX_Transportanlage", null, new String[0], 60, 0.01),
+		new Art("sie04_f", "52001", "AX_Ortslage", null, new String[0], 400, 0.01),
+		new Art("sie04_l", "51005", "AX_Leitung", null, new String[0], 80, 0.02),
+	};
+
+	private static final String[] OSM_SPALTEN = {"osm_id", "name", "amenity", "boundary", "building", "historic", "landuse", "man_made", "addr_stree", "addr_house"};
+	private static final String[] STRASSEN = {"Hauptstraße", "Schulstraße", "Gartenstraße", "Bahnhofstraße", "Dorfstraße", "Bergstraße"};
+
+	static class Parameter {
+		long anzahl = 100000;
+		long startwert = 1;
+		double dichte = 10000;
+		double haeufung = 0.7;
+		double ueberdeckung = 0.8;
+		double rauschen = 2.0;
+		double defekte = 0.01;
+		double dubletten = 0.05;
+
+		static Parameter parse(Properties p) {
+			Parameter parameter = new Parameter();
+			parameter.anzahl = Long.parseLong(p.getProperty("anzahl", String.valueOf(parameter.anzahl)).trim());
+			parameter.startwert = Long.parseLong(p.getProperty("startwert", String.valueOf(parameter.startwert)).trim());
+			parameter.dichte = Double.parseDouble(p.getProperty("dichte", String.valueOf(parameter.dichte)).trim());
+			parameter.haeufung = Double.parseDouble(p.getProperty("haeufung", String.valueOf(parameter.haeufung)).trim());
+			parameter.ueberdeckung = Double.parseDouble(p.getProperty("ueberdeckung", String.valueOf(parameter.ueberdeckung)).trim());
+			parameter.rauschen = Double.parseDouble(p.getProperty("rauschen", String.valueOf(parameter.rauschen)).trim());
+			parameter.defekte = Double.parseDouble(p.getProperty("defekte", String.valueOf(parameter.defekte)).trim());
+			parameter.dubletten = Double.parseDouble(p.getProperty("dubletten", String.valueOf(parameter.dubletten)).trim());
+			return parameter;
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 0) {
+			System.out.print("Aufruf: Testdatengenerator <Zielverzeichnis> [anzahl=... startwert=... dichte=... haeufung=... ueberdeckung=... rauschen=... defekte=... dubletten=...]\n");
+			return;
+		}
+		Properties p = new Properties();
+		for (int i=1;i<args.length;i++) {
+			int eq = args[i].indexOf('=');
+			if (eq < 0) {
+				throw new IllegalArgumentException("Parameter " + args[i] + " nicht in der Form name=wert");
+			}
+			p.setProperty(args[i].substring(0, eq).trim(), args[i].substring(eq + 1));
+		}
+		generate(new File(args[0]), Parameter.parse(p));
+	}
+
+	// ## Alle Shapedateien unter dir erzeugen (Verzeichnisstruktur wie bei pfad in main) ##
+	static void generate(File dir, Parameter parameter) throws IOException {
+		new File(dir, "ATKIS").mkdirs();
+		new File(dir, "OSM/landuse").mkdirs();
+		new File(dir, "OSM/building").mkdirs();
+		new File(dir, "temp").mkdirs();
+
+		Map<String, ShapeSchreiber> writers = new LinkedHashMap<>();
+		long[] counts = new long[2];
+		try {
+			for (String name : new String[]{"sie01_f", "sie02_f", "sie03_f", "sie04_f", "sie05_f", "gebaeude"}) {
+				open(writers, dir, "ATKIS/" + name, atkisSchema(name, MultiPolygon.class));
+			}
+			for (String name : new String[]{"sie03_l", "sie04_l"}) {
+				open(writers, dir, "ATKIS/" + name, atkisSchema(name, MultiLineString.class));
+			}
+			for (String name : new String[]{"sie03_p", "sie05_p"}) {
+				open(writers, dir, "ATKIS/" + name, atkisSchema(name, Point.class));
+			}
+			for (String gruppe : new String[]{"", "landuse", "building"}) {
+				open(writers, dir, osmPath(gruppe, "point"), osmSchema(Point.class));
+				open(writers, dir, osmPath(gruppe, "line"), osmSchema(MultiLineString.class));
+				open(writers, dir, osmPath(gruppe, "polygon"), osmSchema(MultiPolygon.class));
+			}
+
+			double side = Math.sqrt(parameter.anzahl * parameter.dichte);
+			long ballungen = Math.max(1, parameter.anzahl / BALLUNG);
+			for (long i=0;i<parameter.anzahl;i++) {
+				write(writers, parameter, i, side, ballungen, counts);
+			}
+		} finally {
+			for (ShapeSchreiber writer : writers.values()) {
+				writer.close();
+			}
+		}
+		System.out.print("Testdaten in " + dir + ": " + parameter.anzahl + " Objekte, " + counts[0] + " ATKIS-, " + counts[1] + " OSM-Objekte\n");
+	}
+
+	private static void open(Map<String, ShapeSchreiber> writers, File dir, String name, SimpleFeatureType sft) throws IOException {
+		writers.put(name, new ShapeSchreiber(sft, new File(dir, name + ".shp").getPath()));
+	}
+
+	private static String osmPath(String gruppe, String typ) {
+		return gruppe.isEmpty() ? "OSM/OSM_" + typ : "OSM/" + gruppe + "/OSM_" + typ + "_" + gruppe;
+	}
+
+	static SimpleFeatureType atkisSchema(String name, Class<? extends Geometry> binding) {
+		SimpleFeatureTypeBuilder stb = new SimpleFeatureTypeBuilder();
+		stb.setName(name);
+		stb.add("the_geom", binding);
+		// Feldlängen wie in den Originaldaten, sonst legt GeoTools 254 Zeichen je Feld an
+		stb.length(16).add("OBJID", String.class);
+		stb.length(5).add("OBJART", String.class);
+		stb.length(50).add("OBJART_TXT", String.class);
+		stb.length(20).add("BEGINN", String.class);
+		stb.length(20).add("ENDE", String.class);
+		stb.length(50).add("NAM", String.class);
+		return stb.buildFeatureType();
+	}
+
+	static SimpleFeatureType osmSchema(Class<? extends Geometry> binding) {
+		SimpleFeatureTypeBuilder stb = new SimpleFeatureTypeBuilder();
+		stb.setName("OSM");
+		stb.add("the_geom", binding);
+		for (String spalte : OSM_SPALTEN) {
+			stb.length(48).add(spalte, String.class);
+		}
+		return stb.buildFeatureType();
+	}
+
+	// ## Ein reales Objekt mit seinen Erfassungen in ATKIS und OSM ##
+	private static void write(Map<String, ShapeSchreiber> writers, Parameter parameter, long i, double side, long ballungen, long[] counts) throws IOException {
+		SplittableRandom random = Zufall.stream(parameter.startwert, i);
+		Art art = art(random.nextDouble());
+
+		// Lage: in einer Ballung (Normalverteilung um ein festes Zentrum) oder gleichverteilt
+		double x, y;
+		if (random.nextDouble() < parameter.haeufung) {
+			SplittableRandom zentrum = Zufall.stream(parameter.startwert, -1 - random.nextLong(ballungen));
+			double sigma = side / Math.sqrt(ballungen) / 4;
+			x = X0 + zentrum.nextDouble() * side + gaussian(random) * sigma;
+			y = Y0 + zentrum.nextDouble() * side + gaussian(random) * sigma;
+		} else {
+			x = X0 + random.nextDouble() * side;
+			y = Y0 + random.nextDouble() * side;
+		}
+		Coordinate[] umriss = umriss(random, x, y, art.groesse);
+
+		// Erfassung: beide, nur ATKIS oder nur OSM (Objekte ohne OSM-Gegenstück immer in ATKIS)
+		boolean inAtkis = true, inOsm = art.osm != null;
+		if (inOsm && random.nextDouble() >= parameter.ueberdeckung) {
+			if (random.nextBoolean()) {inOsm = false;} else {inAtkis = false;}
+		}
+
+		if (inAtkis) {
+			String ebene = art.atkis;
+			if (art.isPunkt()) {
+				ebene += (random.nextDouble() < 0.7) ? "_p" : "_f";
+			}
+			Coordinate[] ring = defekt(random, umriss, parameter.defekte);
+			Geometry geom;
+			if (ebene.endsWith("_p")) {
+				geom = geometryFactory.createPoint(new Coordinate(x, y));
+			} else if (ebene.endsWith("_l")) {
+				geom = geometryFactory.createMultiLineString(new LineString[]{geometryFactory.createLineString(Arrays.copyOf(ring, ring.length - 1))});
+			} else if (random.nextDouble() < 0.05) {
+				// Mehrteilige Objekte: zweiter Teil neben dem ersten
+				Coordinate[] zweiter = umriss(random, x + 1.5 * art.groesse, y, art.groesse / 2);
+				geom = geometryFactory.createMultiPolygon(new Polygon[]{geometryFactory.createPolygon(ring), geometryFactory.createPolygon(zweiter)});
+			} else {
+				geom = geometryFactory.createMultiPolygon(new Polygon[]{geometryFactory.createPolygon(ring)});
+			}
+			writers.get("ATKIS/" + ebene).write(Arrays.<Object>asList(geom, objid(i), art.objart, art.objartTxt,
+					"2015-03-01T00:00:00Z", "", (random.nextDouble() < 0.1) ? "Objekt " + i : ""));
+			counts[0]++;
+		}
+
+		if (inOsm) {
+			// Lageversatz je Objekt, abgeschwächt je Stützpunkt
+			double dx = parameter.rauschen * (2 * random.nextDouble() - 1);
+			double dy = parameter.rauschen * (2 * random.nextDouble() - 1);
+			Coordinate[] ring = new Coordinate[umriss.length];
+			for (int k=0;k<ring.length - 1;k++) {
+				ring[k] = new Coordinate(umriss[k].x + dx + parameter.rauschen / 5 * (2 * random.nextDouble() - 1),
+						umriss[k].y + dy + parameter.rauschen / 5 * (2 * random.nextDouble() - 1));
+			}
+			ring[ring.length - 1] = ring[0];
+			ring = defekt(random, ring, parameter.defekte);
+
+			String tag = art.tags[random.nextInt(art.tags.length)];
+			double typ = random.nextDouble();
+			double punktAnteil = art.osm.isEmpty() ? 0.6 : 0.05;
+			double linienAnteil = art.osm.isEmpty() ? 0.15 : 0.05;
+			Geometry geom;
+			String ebene;
+			if (typ < punktAnteil) {
+				ebene = "point";
+				geom = geometryFactory.createPoint(new Coordinate(x + dx, y + dy));
+			} else if (typ < punktAnteil + linienAnteil) {
+				ebene = "line";
+				geom = geometryFactory.createMultiLineString(new LineString[]{geometryFactory.createLineString(ring)});
+			} else {
+				ebene = "polygon";
+				geom = geometryFactory.createMultiPolygon(new Polygon[]{geometryFactory.createPolygon(ring)});
+			}
+			writers.get(osmPath(art.osm, ebene)).write(osmAttributes(geom, i, tag, random));
+			counts[1]++;
+			if (!ebene.equals("point") && random.nextDouble() < parameter.dubletten) {
+				// Dasselbe Objekt zusätzlich als Punkt (wie Knoten und Umriss mit gleichen Merkmalen in OSM)
+				writers.get(osmPath(art.osm, "point")).write(osmAttributes(geometryFactory.createPoint(ring[0]), i, tag, random));
+				counts[1]++;
+			}
+		}
+	}
+
+	private static Art art(double u) {
+		double sum = 0;
+		for (Art art : ARTEN) {
+			sum += art.anteil;
+		}
+		double kumuliert = 0;
+		for (Art art : ARTEN) {
+			kumuliert += art.anteil / sum;
+			if (u < kumuliert) {
+				return art;
+			}
+		}
+		return ARTEN[ARTEN.length - 1];
+	}
+
+	// Sternförmiges Vieleck (4 bis 8 Ecken) um x, y mit Durchmesser etwa groesse, geschlossen
+	private static Coordinate[] umriss(SplittableRandom random, double x, double y, double groesse) {
+		int ecken = 4 + random.nextInt(5);
+		double drehung = random.nextDouble() * 2 * Math.PI;
+		Coordinate[] ring = new Coordinate[ecken + 1];
+		for (int k=0;k<ecken;k++) {
+			double winkel = drehung + 2 * Math.PI * k / ecken;
+			double radius = groesse / 2 * (0.8 + 0.4 * random.nextDouble());
+			ring[k] = new Coordinate(x + radius * Math.cos(winkel), y + radius * Math.sin(winkel));
+		}
+		ring[ecken] = ring[0];
+		return ring;
+	}
+
+	// Mit Wahrscheinlichkeit rate zwei benachbarte Ecken tauschen: Schleife im Ring (ungültig, nicht einfach)
+	private static Coordinate[] defekt(SplittableRandom random, Coordinate[] ring, double rate) {
+		if (random.nextDouble() >= rate) {
+			return ring;
+		}
+		Coordinate[] result = ring.clone();
+		result[1] = ring[2];
+		result[2] = ring[1];
+		return result;
+	}
+
+	private static List<Object> osmAttributes(Geometry geom, long i, String tag, SplittableRandom random) {
+		Object[] values = new Object[OSM_SPALTEN.length + 1];
+		Arrays.fill(values, "");
+		values[0] = geom;
+		values[1] = String.valueOf(100000000L + i);
+		values[2] = (random.nextDouble() < 0.2) ? "Objekt " + i : "";
+		int eq = tag.indexOf('=');
+		values[1 + Arrays.asList(OSM_SPALTEN).indexOf(tag.substring(0, eq))] = tag.substring(eq + 1);
+		if (tag.startsWith("building=") && random.nextDouble() < 0.4) {
+			values[9] = STRASSEN[random.nextInt(STRASSEN.length)];
+			values[10] = String.valueOf(1 + random.nextInt(120));
+		}
+		return Arrays.asList(values);
+	}
+
+	private static String objid(long i) {
+		String id = Long.toString(i, 36).toUpperCase();
+		return "DENWTD" + "0000000000".substring(Math.min(10, id.length())) + id;
+	}
+
+	private static double gaussian(SplittableRandom random) {
+		return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+	}
+}
@@ -0,0 +1,263 @@
+package GeoModA.GeoTools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.feature.simple.SimpleFeature;
+
+/*
+Dauerhafter Zwischenspeicher für isValid() und isSimple() je Objekt einer Shapedatei.
+Die Ergebnisse liegen als Bitmaps (bekannt / valide / simpel, Index = Satznummer aus der FID)
+in einer Datei <name>.vcache neben der .shp. Gültig ist der Cache nur für den Inhalt, aus dem
+er erzeugt wurde: gespeichert wird ein MD5-Hash der .shp. Stimmen Dateigröße und Änderungszeit
+überein, wird der Hash nicht neu berechnet. Ändert sich die Datei während des Laufs
+(z.B. durch removeDuplicatePoints), wird der Cache beim nächsten Zugriff neu geladen.
+Quellen, die nicht über register angemeldet wurden, werden ohne Cache geprüft.
+*/
+public class ValiditaetsCache {
+	private static final int MAGIC = 0x56434348;	// "VCCH"
+	private static final int VERSION = 1;
+	private static final int CHECKSUM_LENGTH = 16;	// MD5
+	private static final Map<SimpleFeatureSource, File> shapes = new WeakHashMap<>();
+	private static final Map<File, ValiditaetsCache> caches = new HashMap<>();
+	// Ohne Datei: jedes Objekt wird geprüft, nichts wird gespeichert
+	static final ValiditaetsCache NONE = new ValiditaetsCache(null);
+
+	private final File shp;
+	private long length;
+	private long lastModified;
+	private byte[] checksum;
+	private final BitSet known = new BitSet();
+	private final BitSet valid = new BitSet();
+	private final BitSet simple = new BitSet();
+	private boolean dirty = false;
+
+	private ValiditaetsCache(File shp) {
+		this.shp = shp;
+	}
+
+	// ## Quelle mit ihrer Shapedatei anmelden ##
+	static synchronized void register(SimpleFeatureSource fs, File shp) {
+		shapes.put(fs, shp.getAbsoluteFile());
+	}
+
+	// ## Cache einer angemeldeten Quelle, NONE für alle anderen ##
+	static synchronized ValiditaetsCache of(SimpleFeatureSource fs) throws IOException {
+		File shp = shapes.get(fs);
+		if (shp == null) {
+			return NONE;
+		}
+		ValiditaetsCache cache = caches.get(shp);
+		if (cache == null || cache.length != shp.length() || cache.lastModified != shp.lastModified()) {
+			cache = load(shp);
+			caches.put(shp, cache);
+		}
+		return cache;
+	}
+
+	// Angemeldete Shapedatei einer Quelle, null für alle anderen
+	static synchronized File shapeFile(SimpleFeatureSource fs) {
+		return shapes.get(fs);
+	}
+
+	// ## Einfach und valide: Ergebnis aus dem Cache oder Prüfung und Eintrag ##
+	boolean isSimpleAndValid(SimpleFeature feature, Geometry geom) {
+		return isSimpleAndValid((shp == null) ? -1 : recordNumber(feature), geom);
+	}
+	boolean isSimpleAndValid(int record, Geometry geom) {
+		if (shp == null || record < 0) {
+			return geom.isSimple() && geom.isValid();
+		}
+		check(record, geom);
+		synchronized (this) {
+			return simple.get(record) && valid.get(record);
+		}
+	}
+
+	// Bereits bekanntes Ergebnis für eine Satznummer, null wenn noch nicht geprüft
+	synchronized Boolean knownSimpleAndValid(int record) {
+		if (shp == null || record < 0 || !known.get(record)) {
+			return null;
+		}
+		return simple.get(record) && valid.get(record);
+	}
+
+	boolean isValid(SimpleFeature feature, Geometry geom) {
+		return isValid((shp == null) ? -1 : recordNumber(feature), geom);
+	}
+	boolean isValid(int record, Geometry geom) {
+		if (shp == null || record < 0) {
+			return geom.isValid();
+		}
+		check(record, geom);
+		synchronized (this) {
+			return valid.get(record);
+		}
+	}
+
+	boolean isSimple(SimpleFeature feature, Geometry geom) {
+		return isSimple((shp == null) ? -1 : recordNumber(feature), geom);
+	}
+	boolean isSimple(int record, Geometry geom) {
+		if (shp == null || record < 0) {
+			return geom.isSimple();
+		}
+		check(record, geom);
+		synchronized (this) {
+			return simple.get(record);
+		}
+	}
+
+	// ## Neue Prüfergebnisse in die .vcache-Datei schreiben ##
+	synchronized void save() throws IOException {
+		if (shp == null || !dirty) {
+			return;
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(cacheFile(shp))))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(length);
+			out.writeLong(lastModified);
+			out.writeInt(checksum.length);
+			out.write(checksum);
+			writeBits(out, known);
+			writeBits(out, valid);
+			writeBits(out, simple);
+		}
+		dirty = false;
+	}
+
+	// ## MD5-Hash einer Datei, ab Byte offset ##
+	static byte[] checksum(File file) throws IOException {
+		return checksum(file, 0);
+	}
+	static byte[] checksum(File file, long offset) throws IOException {
+		try (InputStream in = new FileInputStream(file)) {
+			MessageDigest md5 = MessageDigest.getInstance("MD5");
+			while (offset > 0) {
+				long skipped = in.skip(offset);
+				if (skipped <= 0) {
+					break;
+				}
+				offset -= skipped;
+			}
+			byte[] buffer = new byte[1 << 16];
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				md5.update(buffer, 0, read);
+			}
+			return md5.digest();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private void check(int record, Geometry geom) {
+		synchronized (this) {
+			if (known.get(record)) {
+				return;
+			}
+		}
+		boolean isValid = geom.isValid();
+		boolean isSimple = geom.isSimple();
+		synchronized (this) {
+			valid.set(record, isValid);
+			simple.set(record, isSimple);
+			known.set(record);
+			dirty = true;
+		}
+	}
+
+	private static ValiditaetsCache load(File shp) throws IOException {
+		ValiditaetsCache cache = new ValiditaetsCache(shp);
+		cache.length = shp.length();
+		cache.lastModified = shp.lastModified();
+		File file = cacheFile(shp);
+		if (file.exists()) {
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+				if (in.readInt() == MAGIC && in.readInt() == VERSION) {
+					long length = in.readLong();
+					long lastModified = in.readLong();
+					// Beschädigter Kopf: wie ein fehlender Cache behandeln
+					if (in.readInt() != CHECKSUM_LENGTH) {
+						throw new IOException("ungültige Prüfsummenlänge");
+					}
+					byte[] stored = new byte[CHECKSUM_LENGTH];
+					in.readFully(stored);
+					boolean unchanged = length == cache.length && lastModified == cache.lastModified;
+					cache.checksum = unchanged ? stored : checksum(shp);
+					if (Arrays.equals(stored, cache.checksum)) {
+						BitSet known = readBits(in, file.length());
+						BitSet valid = readBits(in, file.length());
+						BitSet simple = readBits(in, file.length());
+						cache.known.or(known);
+						cache.valid.or(valid);
+						cache.simple.or(simple);
+						// Gleicher Inhalt mit neuer Änderungszeit: Zeitstempel beim nächsten save aktualisieren
+						cache.dirty = !unchanged;
+						return cache;
+					}
+				}
+			} catch (IOException e) {
+				System.out.print("Validitäts-Cache " + file + " nicht lesbar, wird neu aufgebaut\n");
+			}
+		}
+		if (cache.checksum == null) {
+			cache.checksum = checksum(shp);
+		}
+		return cache;
+	}
+
+	private static File cacheFile(File shp) {
+		String name = shp.getName();
+		int dot = name.lastIndexOf('.');
+		return new File(shp.getParentFile(), (dot < 0 ? name : name.substring(0, dot)) + ".vcache");
+	}
+
+	// Shapefile-FIDs haben die Form <typeName>.<Satznummer>
+	static int recordNumber(SimpleFeature feature) {
+		String fid = feature.getID();
+		int dot = fid.lastIndexOf('.');
+		try {
+			return Integer.parseInt(fid.substring(dot + 1));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private static void writeBits(DataOutputStream out, BitSet bits) throws IOException {
+		long[] words = bits.toLongArray();
+		out.writeInt(words.length);
+		for (long word : words) {
+			out.writeLong(word);
+		}
+	}
+
+	private static BitSet readBits(DataInputStream in, long fileLength) throws IOException {
+		int count = in.readInt();
+		if (count < 0 || 8L * count > fileLength) {
+			throw new IOException("ungültige Bitmap-Länge " + count);
+		}
+		long[] words = new long[count];
+		for (int i=0;i<words.length;i++) {
+			words[i] = in.readLong();
+		}
+		return BitSet.valueOf(words);
+	}
+}
@@ -0,0 +1,26 @@
+package GeoModA.GeoTools;
+
+import java.util.SplittableRandom;
+
+/*
+Reproduzierbare, voneinander unabhängige Zufallsfolgen je Startwert und Nummer (Objekt, Schicht, Runde).
+Die Nummer wird über SplitMix64 durchmischt, damit benachbarte Nummern nicht korrelierte Folgen liefern.
+Die Folgen hängen nur von Startwert und Nummer ab, nicht von Thread oder Reihenfolge.
+Verwendet vom Testdatengenerator und von der StichprobenSchaetzung.
+*/
+public class Zufall {
+	private Zufall() {
+	}
+
+	// ## Zufallsfolge Nummer index zum Startwert seed ##
+	static SplittableRandom stream(long seed, long index) {
+		return new SplittableRandom(mix(seed ^ mix(index)));
+	}
+
+	// Durchmischung (SplitMix64)
+	static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,171 @@
+package GeoModA.GeoTools;
+
+import static GeoModA.GeoTools.Geometrien.polygon;
+import static GeoModA.GeoTools.Geometrien.punkt;
+import static GeoModA.GeoTools.Geometrien.rechteck;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
+
+/*
+Pufferstaffel (bufferedIntersectionAreas): jede Stufe der schrittweise weitergebufferten ATKIS-Union
+gegen den direkten Buffer union.buffer(r), Radien unsortiert, doppelt und 0. Die Bögen werden je Stufe
+neu durch Segmente angenähert, deshalb gilt die Gleichheit nur bis auf 0.5 % der Fläche.
+Duplikatfilter (removeDuplicatePoints) gegen den paarweisen Vergleich aller Punkte in Lesereihenfolge:
+Paare über Zellkanten und -ecken des Gitters (auch bei negativen Koordinaten), Abstand genau gleich
+und knapp über dem Radius, eine Kette A-B-C sowie Zufallspunkte.
+Punktzuordnung (positionPointToPoint) gegen die Suche des nächsten Punkts über alle Punkte: Abstände,
+ausgegebene Trefferzahlen je Radius und Histogramm. Ganzzahlige Koordinaten erzeugen gleich weite
+Nachbarn und Abstände genau auf dem Radius; dazu leere ATKIS- bzw. OSM-Ebenen.
+*/
+public class AnalyseTest {
+	@Test
+	public void pufferstaffelGleichDirektemBuffer() {
+		Geometry atkis = UnaryUnionOp.union(Arrays.<Geometry>asList(
+				rechteck(5, 0, 25, 10),
+				rechteck(15, 5, 35, 15),
+				polygon(new double[] {0, 20, 30, 18, 12, 40, 0, 20})));
+		Geometry osm = UnaryUnionOp.union(Arrays.<Geometry>asList(
+				rechteck(2, 2, 22, 22),
+				polygon(new double[] {20, 1, 38, 9, 26, 33, 20, 1}),
+				rechteck(3, 25, 9, 31)));
+		double[] radien = {2.5, 0.0, 1.0, 2.5, 0.5};
+
+		double[] areas = Analyse.bufferedIntersectionAreas(atkis, osm, radien);
+
+		for (int i=0;i<radien.length;i++) {
+			double direct = atkis.buffer(radien[i]).intersection(osm).getArea();
+			assertEquals("Buffer " + radien[i] + " m", direct, areas[i], 0.005 * direct);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativerRadiusAbgewiesen() {
+		Analyse.bufferedIntersectionAreas(rechteck(0, 0, 10, 10), rechteck(5, 5, 15, 15), new double[] {1.0, -1.0});
+	}
+
+	@Test
+	public void duplikateWiePaarweiserVergleich() throws Exception {
+		double radius = 2.0;
+		List<double[]> xy = new ArrayList<>(Arrays.asList(
+				new double[] {1.99, 0.5}, new double[] {2.01, 0.5},
+				new double[] {-0.01, 5.0}, new double[] {0.01, 5.0},
+				new double[] {3.99, 3.99}, new double[] {4.01, 4.01},
+				new double[] {-4.01, -4.01}, new double[] {-3.99, -3.99},
+				new double[] {10.0, 10.0}, new double[] {12.0, 10.0},
+				new double[] {10.0, 14.0}, new double[] {12.0 + 1e-9, 14.0},
+				new double[] {20.0, 0.0}, new double[] {21.5, 0.0}, new double[] {23.0, 0.0}));
+		Random random = new Random(7);
+		for (int i=0;i<300;i++) {
+			xy.add(new double[] {random.nextDouble() * 40 - 20, random.nextDouble() * 40 - 20});
+		}
+		SpaltenLayer layer = punkte("punkte", xy);
+
+		Analyse.removeDuplicatePoints(layer, radius);
+
+		boolean[] kept = paarweise(xy, radius);
+		assertTrue("Radiusgrenze", !kept[9] && kept[11]);
+		assertTrue("Kette A-B-C", kept[12] && !kept[13] && kept[14]);
+		for (int row=0;row<xy.size();row++) {
+			assertEquals("Punkt " + row + " " + Arrays.toString(xy.get(row)), kept[row], !layer.isRemoved(row));
+		}
+	}
+
+	// Bisherige Semantik: jeder noch vorhandene Punkt löscht in Lesereihenfolge alle übrigen Punkte im Radius
+	private static boolean[] paarweise(List<double[]> xy, double radius) {
+		boolean[] kept = new boolean[xy.size()];
+		Arrays.fill(kept, true);
+		for (int i=0;i<xy.size();i++) {
+			if (!kept[i]) {continue;}
+			for (int j=0;j<xy.size();j++) {
+				double dx = xy.get(i)[0] - xy.get(j)[0];
+				double dy = xy.get(i)[1] - xy.get(j)[1];
+				if (j != i && kept[j] && dx*dx + dy*dy <= radius * radius) {
+					kept[j] = false;
+				}
+			}
+		}
+		return kept;
+	}
+
+	private static SpaltenLayer punkte(String name, List<double[]> xy) {
+		SimpleFeatureTypeBuilder stb = new SimpleFeatureTypeBuilder();
+		stb.setName(name);
+		stb.add("the_geom", Point.class);
+		stb.add("name", String.class);
+		SpaltenLayer layer = SpaltenLayer.create(stb.buildFeatureType(), name);
+		for (int i=0;i<xy.size();i++) {
+			layer.write(Arrays.asList(punkt(xy.get(i)[0], xy.get(i)[1]), "p" + i));
+		}
+		return layer;
+	}
+
+	@Test
+	public void punktzuordnungWieVollstaendigeSuche() throws Exception {
+		Random random = new Random(11);
+		List<double[]> atkis = new ArrayList<>();
+		List<double[]> osm = new ArrayList<>();
+		for (int i=0;i<60;i++) {
+			atkis.add(new double[] {random.nextInt(21), random.nextInt(21)});
+		}
+		for (int i=0;i<200;i++) {
+			osm.add(new double[] {random.nextInt(25) - 2, random.nextInt(25) - 2});
+		}
+		// Gleich weit von zwei ATKIS-Punkten entfernt
+		atkis.add(new double[] {30, 0});
+		atkis.add(new double[] {34, 0});
+		osm.add(new double[] {32, 0});
+		osm.add(new double[] {32, 3});
+
+		pruefeZuordnung(atkis, osm);
+		pruefeZuordnung(new ArrayList<double[]>(), osm);
+		pruefeZuordnung(atkis, new ArrayList<double[]>());
+	}
+
+	private static void pruefeZuordnung(List<double[]> atkis, List<double[]> osm) throws Exception {
+		double[] radien = {0.0, 1.0, 2.0, 2.5, 5.0};
+		int bins = 21;
+		double[] expected = new double[osm.size()];
+		for (int i=0;i<osm.size();i++) {
+			expected[i] = Double.POSITIVE_INFINITY;
+			for (double[] a : atkis) {
+				expected[i] = Math.min(expected[i], punkt(a[0], a[1]).distance(punkt(osm.get(i)[0], osm.get(i)[1])));
+			}
+		}
+		Arrays.sort(expected);
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		double[] distances = Analyse.positionPointToPoint(new PrintStream(buffer, true), punkte("atkis", atkis), punkte("osm", osm), radien);
+
+		String name = atkis.size() + " ATKIS-, " + osm.size() + " OSM-Punkte";
+		assertArrayEquals(name, expected, distances, 0.0);
+		String[] lines = buffer.toString().split("\n");
+		assertEquals(name, radien.length, lines.length);
+		for (int r=0;r<radien.length;r++) {
+			int n = 0;
+			for (double d : expected) {
+				if (d <= radien[r]) {n++;}
+			}
+			assertTrue(name + ": " + lines[r], lines[r].startsWith("Passende Punkte bei " + radien[r] + " m Radius"));
+			assertTrue(name + ": " + lines[r] + ", erwartet " + n, lines[r].endsWith(": " + n));
+		}
+		int[] histogram = new int[bins];
+		for (double d : expected) {
+			histogram[(int) Math.min(bins - 1, Math.floor(d))]++;
+		}
+		assertArrayEquals(name, histogram, Analyse.distanceHistogram(distances, 1.0, bins));
+	}
+}
@@ -0,0 +1,52 @@
+package GeoModA.GeoTools;
+
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+
+/*
+Gemeinsame Testgeometrien: Punkte, Rechtecke, Polygone aus Koordinatenlisten (x0, y0, x1, y1, ...) und
+Flächen mit Löchern. Ringe werden geschlossen, wenn der letzte Punkt nicht dem ersten entspricht.
+*/
+final class Geometrien {
+	static final GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+
+	private Geometrien() {
+	}
+
+	static Point punkt(double x, double y) {
+		return geometryFactory.createPoint(new Coordinate(x, y));
+	}
+
+	static Polygon rechteck(double x0, double y0, double x1, double y1) {
+		return polygon(x0, y0, x1, y0, x1, y1, x0, y1);
+	}
+
+	static Polygon polygon(double... xy) {
+		return geometryFactory.createPolygon(ring(xy));
+	}
+
+	static Polygon mitLoch(Polygon shell, Polygon... holes) {
+		LinearRing[] rings = new LinearRing[holes.length];
+		for (int i=0;i<holes.length;i++) {
+			rings[i] = (LinearRing) holes[i].getExteriorRing();
+		}
+		return geometryFactory.createPolygon((LinearRing) shell.getExteriorRing(), rings);
+	}
+
+	static LinearRing ring(double... xy) {
+		int n = xy.length / 2;
+		boolean closed = xy[0] == xy[2 * n - 2] && xy[1] == xy[2 * n - 1];
+		Coordinate[] coords = new Coordinate[closed ? n : n + 1];
+		for (int i=0;i<n;i++) {
+			coords[i] = new Coordinate(xy[2 * i], xy[2 * i + 1]);
+		}
+		if (!closed) {
+			coords[n] = new Coordinate(coords[0]);
+		}
+		return geometryFactory.createLinearRing(coords);
+	}
+}
@@ -0,0 +1,40 @@
+package GeoModA.GeoTools;
+
+import static GeoModA.GeoTools.Geometrien.mitLoch;
+import static GeoModA.GeoTools.Geometrien.polygon;
+import static GeoModA.GeoTools.Geometrien.rechteck;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
+
+/*
+Kachelweise Verschneidung gegen die globale Union: überlappende Flächen, eine Fläche mit Loch
+und Kanten, die schräg über mehrere Kachelgrenzen laufen (Kachelgröße 7 m).
+*/
+public class KachelVerschneidungTest {
+	@Test
+	public void kachelsummenGleichGlobalerUnion() {
+		List<Geometry> a = Arrays.asList(
+				rechteck(5, 0, 25, 10),
+				rechteck(15, 5, 35, 15),
+				polygon(new double[] {0, 20, 30, 18, 12, 40, 0, 20}));
+		List<Geometry> b = Arrays.asList(
+				mitLoch(rechteck(2, 2, 22, 22), rechteck(8, 8, 14, 14)),
+				polygon(new double[] {20, 1, 38, 9, 26, 33, 20, 1}),
+				rechteck(3, 25, 9, 31));
+
+		Geometry unionA = UnaryUnionOp.union(a);
+		Geometry unionB = UnaryUnionOp.union(b);
+		KachelVerschneidung.Ergebnis result = KachelVerschneidung.overlay(a, b, 7.0);
+
+		assertEquals(unionA.getArea(), result.areaA, 1e-6);
+		assertEquals(unionB.getArea(), result.areaB, 1e-6);
+		assertEquals(unionA.intersection(unionB).getArea(), result.intersection, 1e-6);
+		assertEquals(unionA.union(unionB).getArea(), result.union(), 1e-6);
+	}
+}
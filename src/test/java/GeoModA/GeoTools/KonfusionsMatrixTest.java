@@ -0,0 +1,57 @@
+package GeoModA.GeoTools;
+
+import static GeoModA.GeoTools.Geometrien.rechteck;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.junit.Test;
+import org.locationtech.jts.geom.Polygon;
+
+/*
+Konfusionsmatrix auf kleinen Ebenen mit Überlappungen innerhalb beider Ebenen:
+zwei überlappende AX_Halde-Flächen, überlappende OSM-Flächen gleicher und verschiedener Werte.
+Vergleich mit der Verschneidung der Unions aus bufferedUnionGeometry.
+*/
+public class KonfusionsMatrixTest {
+	@Test
+	public void ueberlappungenZaehlenEinfach() throws Exception {
+		SpaltenLayer atkis = layer("atkis", "OBJART_TXT");
+		add(atkis, rechteck(0, 0, 10, 10), "AX_Halde");
+		add(atkis, rechteck(5, 0, 15, 10), "AX_Halde");
+		add(atkis, rechteck(20, 0, 30, 10), "AX_Friedhof");
+		SpaltenLayer osm = layer("osm", "landuse");
+		add(osm, rechteck(0, 0, 8, 10), "landfill");
+		add(osm, rechteck(2, 0, 12, 10), "grass");
+		add(osm, rechteck(4, 0, 14, 10), "meadow");
+		add(osm, rechteck(6, 0, 13, 10), "grass");
+
+		KonfusionsMatrix matrix = KonfusionsMatrix.compute(atkis, "OBJART_TXT", osm, "landuse");
+
+		// AX_Halde = [0,15] x [0,10], grass = [2,13] x [0,10]
+		assertEquals(110.0, matrix.get("AX_Halde", "grass"), 1e-9);
+		assertEquals(100.0, matrix.get("AX_Halde", "meadow"), 1e-9);
+		assertEquals(80.0, matrix.get("AX_Halde", "landfill"), 1e-9);
+		assertEquals(0.0, matrix.get("AX_Friedhof", "grass"), 1e-9);
+
+		double expected = Analyse.bufferedUnionGeometry(atkis, 0.0, "OBJART_TXT = 'AX_Halde'")
+				.intersection(Analyse.bufferedUnionGeometry(osm, 0.0, "landuse NOT LIKE 'landfill'")).getArea();
+		assertEquals(120.0, expected, 1e-9);
+		assertEquals(expected, matrix.rowSumExcluding("AX_Halde", "landfill"), 1e-9);
+		assertEquals(140.0, matrix.rowSumExcluding("AX_Halde"), 1e-9);
+		assertEquals(0.0, matrix.rowSumExcluding("AX_Friedhof", "landfill"), 1e-9);
+	}
+
+	private static SpaltenLayer layer(String name, String attribute) {
+		SimpleFeatureTypeBuilder stb = new SimpleFeatureTypeBuilder();
+		stb.setName(name);
+		stb.add("the_geom", Polygon.class);
+		stb.add(attribute, String.class);
+		return SpaltenLayer.create(stb.buildFeatureType(), name);
+	}
+
+	private static void add(SpaltenLayer layer, Polygon polygon, String value) {
+		layer.write(Arrays.asList(polygon, value));
+	}
+}
@@ -0,0 +1,63 @@
+package GeoModA.GeoTools;
+
+import static GeoModA.GeoTools.Geometrien.mitLoch;
+import static GeoModA.GeoTools.Geometrien.polygon;
+import static GeoModA.GeoTools.Geometrien.rechteck;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
+
+/*
+Fehlerschranke der Rasterverschneidung: die exakte Fläche (Vektorverschneidung der Unions) muss im
+Bereich Ergebnis ± Schranke liegen. Flächen mit Loch und schrägen Kanten über mehrere Kachelgrenzen,
+Zellgröße 0.25 m und 64 Zellen je Kachelseite (Kacheln zu 16 m), dazu die Pufferstaffel 1 m und 2.5 m.
+*/
+public class RasterUeberdeckungTest {
+	@Test
+	public void exakteFlaecheInnerhalbDerSchranke() {
+		List<Geometry> a = Arrays.asList(
+				rechteck(5, 0, 25, 10),
+				rechteck(15, 5, 35, 15),
+				polygon(new double[] {0, 20, 30, 18, 12, 40, 0, 20}));
+		List<Geometry> b = Arrays.asList(
+				mitLoch(rechteck(2, 2, 22, 22), rechteck(8, 8, 14, 14)),
+				polygon(new double[] {20, 1, 38, 9, 26, 33, 20, 1}),
+				rechteck(3, 25, 9, 31));
+		double[] radien = {1.0, 2.5};
+
+		Geometry unionA = UnaryUnionOp.union(a);
+		Geometry unionB = UnaryUnionOp.union(b);
+		double cellSize = RasterUeberdeckung.cellSize;
+		int tileCells = RasterUeberdeckung.tileCells;
+		RasterUeberdeckung.Ergebnis result;
+		try {
+			RasterUeberdeckung.cellSize = 0.25;
+			RasterUeberdeckung.tileCells = 64;
+			result = RasterUeberdeckung.overlay(a, b, radien);
+		} finally {
+			RasterUeberdeckung.cellSize = cellSize;
+			RasterUeberdeckung.tileCells = tileCells;
+		}
+
+		assertInnerhalb("Fläche A", unionA.getArea(), result.areaA, result.errorA);
+		assertInnerhalb("Fläche B", unionB.getArea(), result.areaB, result.errorB);
+		assertInnerhalb("Verschneidung", unionA.intersection(unionB).getArea(), result.intersection, result.errorIntersection);
+		assertInnerhalb("Vereinigung", unionA.union(unionB).getArea(), result.union, result.errorUnion);
+		for (int i=0;i<radien.length;i++) {
+			Geometry buffered = UnaryUnionOp.union(KachelVerschneidung.buffer(a, radien[i]));
+			assertInnerhalb("Buffer " + radien[i] + " m", buffered.intersection(unionB).getArea(),
+					result.bufferedIntersection[i], result.errorBufferedIntersection[i]);
+		}
+	}
+
+	// exact ∈ result ± bound, und die Schranke ist klein gegenüber der Fläche
+	private static void assertInnerhalb(String name, double exact, double result, double bound) {
+		assertTrue(name + ": " + exact + " nicht in " + result + " ± " + bound, Math.abs(exact - result) <= bound + 1e-9);
+		assertTrue(name + ": Schranke " + bound + " zu groß für " + exact, bound < 0.25 * exact);
+	}
+}
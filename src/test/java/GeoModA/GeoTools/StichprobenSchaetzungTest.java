@@ -0,0 +1,80 @@
+package GeoModA.GeoTools;
+
+import static GeoModA.GeoTools.Geometrien.geometryFactory;
+import static GeoModA.GeoTools.Geometrien.polygon;
+import static GeoModA.GeoTools.Geometrien.rechteck;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
+
+/*
+Überdeckung der 95 %-Konfidenzintervalle: Kreisfläche und überlappende Rechtecke in A, ein schräges
+Viereck in B. Über 200 Startwerte muss der exakte Wert (Verschneidung der Unions) in deutlich mehr
+als 88 % der Läufe im Intervall liegen (Sollwert 95 %, Spielraum für die Streuung der Trefferquote).
+*/
+public class StichprobenSchaetzungTest {
+	private static final int LAEUFE = 200;
+
+	@Test
+	public void konfidenzintervalleUeberdeckenExakteWerte() {
+		List<Geometry> a = Arrays.asList(
+				geometryFactory.createPoint(new Coordinate(0, 0)).buffer(10, 16),
+				rechteck(5, -4, 25, 6),
+				rechteck(18, 0, 30, 14));
+		List<Geometry> b = Arrays.asList(
+				polygon(-6, -12, 22, -2, 26, 16, -2, 8));
+		Geometry unionA = UnaryUnionOp.union(a);
+		Geometry unionB = UnaryUnionOp.union(b);
+		double areaA = unionA.getArea();
+		double overlap = unionA.intersection(unionB).getArea();
+		double commission = unionB.difference(unionA).getArea();
+
+		double targetError = StichprobenSchaetzung.targetError;
+		double timeBudget = StichprobenSchaetzung.timeBudget;
+		int strata = StichprobenSchaetzung.strata;
+		long seed = StichprobenSchaetzung.seed;
+		int[] hits = new int[3];
+		try {
+			StichprobenSchaetzung.targetError = 0.03;
+			StichprobenSchaetzung.timeBudget = 600;
+			StichprobenSchaetzung.strata = 16;
+			for (int run=0;run<LAEUFE;run++) {
+				StichprobenSchaetzung.seed = run + 1;
+				StichprobenSchaetzung.Ergebnis e = StichprobenSchaetzung.estimate(a, b, new double[0]);
+				if (Math.abs(e.areaA - areaA) <= e.errorA) {hits[0]++;}
+				if (Math.abs(e.overlap - overlap) <= e.errorOverlap) {hits[1]++;}
+				if (Math.abs(e.commission - commission) <= e.errorCommission) {hits[2]++;}
+			}
+		} finally {
+			StichprobenSchaetzung.targetError = targetError;
+			StichprobenSchaetzung.timeBudget = timeBudget;
+			StichprobenSchaetzung.strata = strata;
+			StichprobenSchaetzung.seed = seed;
+		}
+		String[] names = {"Fläche A", "Überschneidung", "Kommission"};
+		for (int i=0;i<hits.length;i++) {
+			assertTrue(names[i] + ": " + hits[i] + " von " + LAEUFE, hits[i] >= 0.88 * LAEUFE);
+		}
+	}
+
+	@Test
+	public void ohneFlaecheInAEineRunde() {
+		double targetError = StichprobenSchaetzung.targetError;
+		try {
+			StichprobenSchaetzung.targetError = 0.01;
+			StichprobenSchaetzung.Ergebnis e = StichprobenSchaetzung.estimate(
+					Arrays.<Geometry>asList(), Arrays.asList(rechteck(0, 0, 10, 10)), new double[0]);
+			assertEquals(0.0, e.areaA, 0.0);
+			assertEquals(1, e.rounds);
+		} finally {
+			StichprobenSchaetzung.targetError = targetError;
+		}
+	}
+}
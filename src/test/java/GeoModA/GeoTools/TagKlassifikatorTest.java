@@ -0,0 +1,96 @@
+package GeoModA.GeoTools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.filter.text.cql2.CQL;
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.Filter;
+
+/*
+Kompilierte Klassenzuordnung gegen die Auswertung der CQL-Filter: alle Filter aus klassen.properties,
+dazu Zahlvergleiche in verschiedenen Schreibweisen (5 = 5.0 = '5') und verschachtelte UND/ODER-Ausdrücke.
+Die Objekte haben zufällige Werte aus den Literalen der Filter, leere Texte, Werte mit Leerzeichen und null;
+im zweiten Schema fehlen Attribute ganz (NOT LIKE auf fehlenden Attributen).
+*/
+public class TagKlassifikatorTest {
+	private static final GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+	private static final String[] TEXTE = {"OBJART_TXT", "man_made", "building", "historic", "amenity", "boundary", "landuse"};
+	private static final Object[] TEXTWERTE = {null, "", "tower", " tower", "Tower", "monument", "fountain", "silo",
+			"transformer_tower", "landfill", "industrial", "residential", "AX_Turm", "AX_Halde", "marker", "school"};
+	private static final String[] ZUSATZFILTER = {
+			"ebene = 5",
+			"ebene = 5.0",
+			"ebene = '5'",
+			"hoehe = 2",
+			"hoehe = 2.5 or ebene = 0",
+			"(man_made='tower' or historic='tower') and amenity NOT LIKE ''",
+			"man_made='silo' or (landuse='industrial' and building='transformer_tower')",
+			"historic NOT LIKE '' and historic NOT LIKE 'tower' and amenity NOT LIKE 'school'"};
+
+	@Test
+	public void gleichAuswertungDerFilter() throws Exception {
+		List<String> filter = new ArrayList<>();
+		for (Konfiguration.Klasse k : Konfiguration.load("klassen.properties").klassen) {
+			filter.add(k.atkisFilter);
+			filter.add(k.osmFilter);
+		}
+		for (String f : ZUSATZFILTER) {
+			filter.add(f);
+		}
+		TagKlassifikator classifier = new TagKlassifikator();
+		List<Filter> cql = new ArrayList<>();
+		for (String f : filter) {
+			classifier.addClass(f, f);
+			cql.add(CQL.toFilter(f));
+		}
+
+		Random random = new Random(42);
+		for (SimpleFeatureType schema : new SimpleFeatureType[] {schema(TEXTE), schema("OBJART_TXT", "man_made", "landuse")}) {
+			SimpleFeatureBuilder builder = new SimpleFeatureBuilder(schema);
+			for (int i=0;i<3000;i++) {
+				builder.add(geometryFactory.createPoint(new Coordinate(i, 0)));
+				for (int a=1;a<schema.getAttributeCount();a++) {
+					Class<?> binding = schema.getDescriptor(a).getType().getBinding();
+					if (binding == Integer.class) {builder.add(pick(random, null, 5, 0, 2));}
+					else if (binding == Double.class) {builder.add(pick(random, null, 2.0, 2.5, 5.0));}
+					else {builder.add(pick(random, TEXTWERTE));}
+				}
+				SimpleFeature feature = builder.buildFeature(null);
+				BitSet result = classifier.classify(feature);
+				for (int c=0;c<filter.size();c++) {
+					assertEquals(filter.get(c) + " für " + feature.getAttributes(), cql.get(c).evaluate(feature), result.get(c));
+				}
+			}
+		}
+	}
+
+	// Punktschema mit Textattributen und den Zahlattributen ebene (Integer) und hoehe (Double)
+	private static SimpleFeatureType schema(String... texte) {
+		SimpleFeatureTypeBuilder stb = new SimpleFeatureTypeBuilder();
+		stb.setName("objekte");
+		stb.add("the_geom", Point.class);
+		for (String name : texte) {
+			stb.add(name, String.class);
+		}
+		stb.add("ebene", Integer.class);
+		stb.add("hoehe", Double.class);
+		return stb.buildFeatureType();
+	}
+
+	private static Object pick(Random random, Object... values) {
+		return values[random.nextInt(values.length)];
+	}
+}